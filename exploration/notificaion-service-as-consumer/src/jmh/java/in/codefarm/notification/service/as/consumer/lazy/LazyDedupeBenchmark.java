@@ -0,0 +1,116 @@
+package in.codefarm.notification.service.as.consumer.lazy;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A replay of orders where duplicateRatio of them were already processed: the listener's work up to and including
+ * the dedupe check, with the dedupe cache reduced to a HashSet.
+ *
+ * ./gradlew jmh  -> compare ns/op and gc.alloc.rate.norm (B/op) of eagerDecode and lazyScan
+ *
+ * eagerDecode is the previous path (JacksonJsonDeserializer, configured as the payment factory was); lazyScan reads
+ * orderId and orderDate from the bytes and decodes only the new orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LazyDedupeBenchmark {
+    
+    private static final String TOPIC = "orders";
+    private static final int RECORDS = 10_000;
+    
+    @Param({"0.9"})
+    public double duplicateRatio;
+    
+    private byte[][] payloads;
+    private Set<String> processed;
+    private JacksonJsonDeserializer<OrderPlacedEvent> eager;
+    private Deserializer<LazyRecord<OrderPlacedEvent>> lazy;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        JacksonJsonSerializer<OrderPlacedEvent> serializer = new JacksonJsonSerializer<>();
+        serializer.configure(Map.of("spring.json.add.type.headers", false), false);
+        
+        payloads = new byte[RECORDS][];
+        processed = new HashSet<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < RECORDS; i++) {
+            var event = new OrderPlacedEvent(
+                UUID.randomUUID().toString(),
+                "customer-" + random.nextInt(1000),
+                "product-" + random.nextInt(100),
+                1 + random.nextInt(5),
+                new BigDecimal("1500.00"),
+                LocalDateTime.now(),
+                UUID.randomUUID().toString()
+            );
+            payloads[i] = serializer.serialize(TOPIC, event);
+            if (random.nextDouble() < duplicateRatio) {
+                processed.add(event.orderId());
+            }
+        }
+        serializer.close();
+        
+        eager = new JacksonJsonDeserializer<>();
+        eager.configure(Map.of(
+            "spring.json.trusted.packages", "*",
+            "spring.json.use.type.headers", false,
+            "spring.json.value.default.type", OrderPlacedEvent.class.getName()
+        ), false);
+        lazy = new LazyRecordDeserializer<>(OrderPlacedEvent.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eager.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void eagerDecode(Blackhole blackhole) {
+        for (byte[] payload : payloads) {
+            OrderPlacedEvent event = eager.deserialize(TOPIC, payload);
+            blackhole.consume(event.orderDate());
+            if (!processed.contains(event.orderId())) {
+                blackhole.consume(event);
+            }
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void lazyScan(Blackhole blackhole) {
+        for (byte[] payload : payloads) {
+            LazyRecord<OrderPlacedEvent> record = lazy.deserialize(TOPIC, payload);
+            blackhole.consume(record.dateTimeField("orderDate"));
+            if (!processed.contains(record.field("orderId"))) {
+                blackhole.consume(record.value());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+
+// Filter of a notification listing - at most one attribute set, none for all notifications
+public record AuditQuery(String customerId, String status, String consumerMethod) {
+    
+    public static AuditQuery all() {
+        return new AuditQuery(null, null, null);
+    }
+    
+    public static AuditQuery byCustomerId(String customerId) {
+        return new AuditQuery(customerId, null, null);
+    }
+    
+    public static AuditQuery byStatus(String status) {
+        return new AuditQuery(null, status, null);
+    }
+    
+    public static AuditQuery byConsumerMethod(String consumerMethod) {
+        return new AuditQuery(null, null, consumerMethod);
+    }
+    
+    public boolean matches(NotificationEntity notification) {
+        return (customerId == null || customerId.equals(notification.getCustomerId()))
+            && (status == null || status.equals(notification.getStatus()))
+            && (consumerMethod == null || consumerMethod.equals(notification.getConsumerMethod()));
+    }
+}
@@ -0,0 +1,186 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of one notification in an audit segment:
+ *
+ * [length:int][crc32c:int] then length bytes of body:
+ * [id:long][previous:long][sentAt:long][createdAt:long][offset:long][partition:int]
+ * [orderId][customerId][notificationType][status][message][consumerGroup][consumerMethod][channelOutcomes]
+ *
+ * previous is the location of the order's previous record (-1 for none), so all records of an order can be
+ * walked from the newest. Times are epoch millis of the LocalDateTime read as UTC; strings are an unsigned short
+ * byte count (0xFFFF for null) and UTF-8. A zero length marks the end of a segment's records.
+ */
+final class AuditRecordCodec {
+
+    static final int HEADER_BYTES = 8;
+    static final long NO_LOCATION = -1;
+
+    private static final int ORDER_ID_POSITION = 44;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int MAX_STRING_BYTES = 0xFFFE;
+
+    private AuditRecordCodec() {
+    }
+
+    // Header and body, ready to be copied into a segment
+    static byte[] encode(NotificationEntity notification, long previous) {
+        byte[][] strings = {
+            utf8(notification.getOrderId()),
+            utf8(notification.getCustomerId()),
+            utf8(notification.getNotificationType()),
+            utf8(notification.getStatus()),
+            utf8(notification.getMessage()),
+            utf8(notification.getConsumerGroup()),
+            utf8(notification.getConsumerMethod()),
+            utf8(notification.getChannelOutcomes())
+        };
+        int bodyLength = ORDER_ID_POSITION;
+        for (byte[] string : strings) {
+            bodyLength += 2 + (string == null ? 0 : string.length);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.position(HEADER_BYTES);
+        record.putLong(notification.getId());
+        record.putLong(previous);
+        record.putLong(millis(notification.getSentAt()));
+        record.putLong(millis(notification.getCreatedAt()));
+        record.putLong(notification.getOffset() == null ? NULL_LONG : notification.getOffset());
+        record.putInt(notification.getPartition() == null ? NULL_INT : notification.getPartition());
+        for (byte[] string : strings) {
+            if (string == null) {
+                record.putShort((short) NULL_STRING);
+            } else {
+                record.putShort((short) string.length);
+                record.put(string);
+            }
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(0, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    // Length of the body at position, or -1 when there is no complete, intact record there
+    static int validBodyLength(ByteBuffer segment, int position, int limit) {
+        if (position + HEADER_BYTES > limit) {
+            return -1;
+        }
+        int length = segment.getInt(position);
+        if (length < ORDER_ID_POSITION || position + HEADER_BYTES + length > limit) {
+            return -1;
+        }
+        byte[] body = new byte[length];
+        segment.get(position + HEADER_BYTES, body);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue() == segment.getInt(position + 4) ? length : -1;
+    }
+
+    static int recordLength(ByteBuffer segment, int position) {
+        return HEADER_BYTES + segment.getInt(position);
+    }
+
+    static long id(ByteBuffer segment, int position) {
+        return segment.getLong(position + HEADER_BYTES);
+    }
+
+    static long previous(ByteBuffer segment, int position) {
+        return segment.getLong(position + HEADER_BYTES + 8);
+    }
+
+    static long createdAtMillis(ByteBuffer segment, int position) {
+        return segment.getLong(position + HEADER_BYTES + 24);
+    }
+
+    static String orderId(ByteBuffer segment, int position) {
+        return string(segment, position + HEADER_BYTES + ORDER_ID_POSITION);
+    }
+
+    static NotificationEntity decode(ByteBuffer segment, int position) {
+        int body = position + HEADER_BYTES;
+        var notification = new NotificationEntity();
+        notification.setId(segment.getLong(body));
+        notification.setSentAt(time(segment.getLong(body + 16)));
+        notification.setCreatedAt(time(segment.getLong(body + 24)));
+        long offset = segment.getLong(body + 32);
+        notification.setOffset(offset == NULL_LONG ? null : offset);
+        int partition = segment.getInt(body + 40);
+        notification.setPartition(partition == NULL_INT ? null : partition);
+
+        int cursor = body + ORDER_ID_POSITION;
+        String[] strings = new String[8];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = string(segment, cursor);
+            cursor += 2 + stringLength(segment, cursor);
+        }
+        notification.setOrderId(strings[0]);
+        notification.setCustomerId(strings[1]);
+        notification.setNotificationType(strings[2]);
+        notification.setStatus(strings[3]);
+        notification.setMessage(strings[4]);
+        notification.setConsumerGroup(strings[5]);
+        notification.setConsumerMethod(strings[6]);
+        notification.setChannelOutcomes(strings[7]);
+        return notification;
+    }
+
+    // 64-bit FNV-1a over the chars, never 0 (0 marks an empty index slot)
+    static long hash(String orderId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < orderId.length(); i++) {
+            hash ^= orderId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static String string(ByteBuffer segment, int position) {
+        int length = segment.getShort(position) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int stringLength(ByteBuffer segment, int position) {
+        int length = segment.getShort(position) & 0xFFFF;
+        return length == NULL_STRING ? 0 : length;
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Audit record field longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time == null ? NULL_TIME : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime time(long millis) {
+        return millis == NULL_TIME ? null : LocalDateTime.ofEpochSecond(
+            Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,115 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One fixed-size, memory-mapped file of audit records, named <number>-<first id>.seg. The number is part of every
+ * record location - the order links stored in records too - so it is kept in the name and never reassigned: a
+ * restart, after retention deleted older segments, reads each segment back under the number it was written with.
+ * Appends come from a single writer; readers use absolute reads below the volatile write position, which is published after the
+ * record bytes, so they never see a partial record. A file that does not end cleanly (crash mid-append) is cut
+ * back to its last intact record by recover().
+ */
+final class AuditSegment implements Closeable {
+
+    private static final String SUFFIX = ".seg";
+
+    final int number;
+    final Path path;
+    final MappedByteBuffer buffer;
+    private final FileChannel channel;
+    private volatile int writePosition;
+    private volatile long lastId = -1;
+    private volatile long newestCreatedAtMillis = Long.MIN_VALUE;
+
+    private AuditSegment(int number, Path path, FileChannel channel, int size) throws IOException {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    static AuditSegment create(Path directory, int number, long firstId, int size) throws IOException {
+        Path path = directory.resolve(String.format("%010d-%020d%s", number, firstId, SUFFIX));
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new AuditSegment(number, path, channel, size);
+    }
+
+    static AuditSegment open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        int number = Integer.parseInt(name.substring(0, name.indexOf('-')));
+        var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new AuditSegment(number, path, channel, (int) Files.size(path));
+    }
+
+    // Hands every intact record's position to onRecord, in order, and appends after the last of them
+    void recover(RecordVisitor onRecord) {
+        int position = 0;
+        int length;
+        while ((length = AuditRecordCodec.validBodyLength(buffer, position, buffer.capacity())) >= 0) {
+            appended(position);
+            onRecord.visit(this, position);
+            position += AuditRecordCodec.HEADER_BYTES + length;
+        }
+        // Zero the header that follows, so a torn record is not mistaken for a valid one later
+        for (int i = position; i < Math.min(buffer.capacity(), position + AuditRecordCodec.HEADER_BYTES); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        writePosition = position;
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    // Position of the record, or -1 when it does not fit
+    int append(byte[] record) {
+        int position = writePosition;
+        if (position + record.length > buffer.capacity()) {
+            return -1;
+        }
+        // Body and checksum first, length last - a torn write leaves a zero or mismatching length behind
+        buffer.put(position + 4, record, 4, record.length - 4);
+        buffer.put(position, record, 0, 4);
+        appended(position);
+        writePosition = position + record.length;
+        return position;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    long lastId() {
+        return lastId;
+    }
+
+    long newestCreatedAtMillis() {
+        return newestCreatedAtMillis;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void appended(int position) {
+        lastId = AuditRecordCodec.id(buffer, position);
+        newestCreatedAtMillis = Math.max(newestCreatedAtMillis, AuditRecordCodec.createdAtMillis(buffer, position));
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(AuditSegment segment, int position);
+    }
+}
@@ -0,0 +1,142 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.dto.NotificationCount;
+import in.codefarm.notification.service.as.consumer.dto.NotificationSentAt;
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.repository.NotificationRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// The notifications table through NotificationRepository
+@Component
+@ConditionalOnProperty(name = "notification.audit-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaNotificationAuditStore implements NotificationAuditStore {
+    
+    private static final int SENT_AT_PAGE_SIZE = 5000;
+    
+    private final NotificationRepository notificationRepository;
+    private final EntityManager entityManager;
+    
+    public JpaNotificationAuditStore(NotificationRepository notificationRepository, EntityManager entityManager) {
+        this.notificationRepository = notificationRepository;
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public NotificationEntity save(NotificationEntity notification) {
+        return notificationRepository.save(notification);
+    }
+    
+    @Override
+    public void saveAll(List<NotificationEntity> notifications) {
+        notificationRepository.saveAll(notifications);
+    }
+    
+    @Override
+    public Optional<NotificationEntity> findByOrderId(String orderId) {
+        return notificationRepository.findFirstByOrderIdOrderByIdDesc(orderId);
+    }
+    
+    @Override
+    public List<NotificationEntity> findByOrderIdIn(Collection<String> orderIds) {
+        return notificationRepository.findByOrderIdIn(orderIds);
+    }
+    
+    @Override
+    public boolean existsByOrderIdAndNotificationType(String orderId, String notificationType) {
+        return notificationRepository.existsByOrderIdAndNotificationType(orderId, notificationType);
+    }
+    
+    @Override
+    public List<NotificationEntity> findPage(AuditQuery query, long afterId, int limit) {
+        var page = PageRequest.of(0, limit);
+        if (query.customerId() != null) {
+            return notificationRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc(query.customerId(), afterId, page);
+        }
+        if (query.status() != null) {
+            return notificationRepository.findByStatusAndIdGreaterThanOrderByIdAsc(query.status(), afterId, page);
+        }
+        if (query.consumerMethod() != null) {
+            return notificationRepository.findByConsumerMethodAndIdGreaterThanOrderByIdAsc(query.consumerMethod(), afterId, page);
+        }
+        return notificationRepository.findByIdGreaterThanOrderByIdAsc(afterId, page);
+    }
+    
+    // Hands each row to the sink and then detaches it, so the persistence context never grows
+    @Override
+    @Transactional(readOnly = true)
+    public void stream(AuditQuery query, Consumer<NotificationEntity> sink) {
+        Stream<NotificationEntity> notifications;
+        if (query.customerId() != null) {
+            notifications = notificationRepository.streamByCustomerIdOrderByIdAsc(query.customerId());
+        } else if (query.status() != null) {
+            notifications = notificationRepository.streamByStatusOrderByIdAsc(query.status());
+        } else if (query.consumerMethod() != null) {
+            notifications = notificationRepository.streamByConsumerMethodOrderByIdAsc(query.consumerMethod());
+        } else {
+            notifications = notificationRepository.streamAll();
+        }
+        try (notifications) {
+            notifications.forEach(notification -> {
+                sink.accept(notification);
+                entityManager.detach(notification);
+            });
+        }
+    }
+    
+    @Override
+    public List<NotificationEntity> findAll(AuditQuery query) {
+        if (query.customerId() != null) {
+            return notificationRepository.findByCustomerId(query.customerId());
+        }
+        if (query.status() != null) {
+            return notificationRepository.findByStatus(query.status());
+        }
+        if (query.consumerMethod() != null) {
+            return notificationRepository.findByConsumerMethod(query.consumerMethod());
+        }
+        return notificationRepository.findAll();
+    }
+    
+    @Override
+    public long countByStatus(String status) {
+        return notificationRepository.countByStatus(status);
+    }
+    
+    @Override
+    public List<NotificationCount> countByAttributes() {
+        return notificationRepository.countByAttributes();
+    }
+    
+    // Keyset pages in id order
+    @Override
+    public void streamSentAt(String status, LocalDateTime since, Consumer<LocalDateTime> sink) {
+        long afterId = 0;
+        List<NotificationSentAt> page;
+        do {
+            page = notificationRepository.findSentAtAfter(status, since, afterId, PageRequest.of(0, SENT_AT_PAGE_SIZE));
+            for (NotificationSentAt sentAt : page) {
+                sink.accept(sentAt.sentAt());
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == SENT_AT_PAGE_SIZE);
+    }
+    
+    @Override
+    public List<ProcessedKey> findRecentOrderIds(String consumerGroup, int partition, LocalDateTime since, int limit) {
+        return notificationRepository.findRecentOrderIds(consumerGroup, partition, since, PageRequest.of(0, limit));
+    }
+}
@@ -0,0 +1,380 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.dto.NotificationCount;
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit log of notifications in memory-mapped segment files (notification.audit-store=mmap), in place
+ * of one eleven-column INSERT per record:
+ *
+ * - Records are compact binary (AuditRecordCodec), appended to the active segment by a single writer; when it is
+ *   full a new segment is started, with the next segment number and named after it and its first id
+ * - OrderIdIndex maps orderId to the newest record off-heap; each record links to the order's previous one
+ * - Segments whose newest record is older than retention-hours are deleted when a segment rolls
+ * - The active segment is forced to disk every force-interval-ms; a crash loses at most that much to an OS
+ *   failure, a process crash loses nothing already appended
+ * - On start every segment is scanned once, under the number in its file name, to rebuild the index and the
+ *   next id
+ *
+ * Listings scan the segments from the first one that can hold ids above the cursor and decode every record on
+ * the way, so they cost O(records scanned) - fine for audit reads, orderId lookups are the fast path. The stats
+ * rebuild and the dedupe warm-up on start are such scans too.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.audit-store", havingValue = "mmap")
+public class MappedNotificationAuditStore implements NotificationAuditStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedNotificationAuditStore.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Duration retention;
+    private final ConcurrentSkipListMap<Integer, AuditSegment> segments = new ConcurrentSkipListMap<>();
+    private final OrderIdIndex index;
+    private final Object writeLock = new Object();
+    private AuditSegment active;
+    private long nextId = 1;
+
+    public MappedNotificationAuditStore(
+        @Value("${notification.audit.mmap.directory:./data/audit}") Path directory,
+        @Value("${notification.audit.mmap.segment-bytes:67108864}") int segmentBytes,
+        @Value("${notification.audit.mmap.retention-hours:168}") long retentionHours,
+        @Value("${notification.audit.mmap.index-initial-capacity:65536}") int indexInitialCapacity
+    ) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.retention = Duration.ofHours(retentionHours);
+        this.index = new OrderIdIndex(indexInitialCapacity);
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit log in " + directory, e);
+        }
+    }
+
+    @Override
+    public NotificationEntity save(NotificationEntity notification) {
+        synchronized (writeLock) {
+            append(notification);
+        }
+        return notification;
+    }
+
+    @Override
+    public void saveAll(List<NotificationEntity> notifications) {
+        synchronized (writeLock) {
+            notifications.forEach(this::append);
+        }
+    }
+
+    @Override
+    public Optional<NotificationEntity> findByOrderId(String orderId) {
+        long location = locate(orderId);
+        return location == AuditRecordCodec.NO_LOCATION ? Optional.empty() : Optional.ofNullable(decode(location));
+    }
+
+    @Override
+    public List<NotificationEntity> findByOrderIdIn(Collection<String> orderIds) {
+        List<NotificationEntity> notifications = new ArrayList<>();
+        for (String orderId : orderIds) {
+            forEachOfOrder(orderId, notifications::add);
+        }
+        return notifications;
+    }
+
+    @Override
+    public boolean existsByOrderIdAndNotificationType(String orderId, String notificationType) {
+        boolean[] found = {false};
+        forEachOfOrder(orderId, notification -> found[0] |= notificationType.equals(notification.getNotificationType()));
+        return found[0];
+    }
+
+    @Override
+    public List<NotificationEntity> findPage(AuditQuery query, long afterId, int limit) {
+        List<NotificationEntity> page = new ArrayList<>(Math.min(limit, 1024));
+        for (AuditSegment segment : segments.values()) {
+            if (segment.lastId() <= afterId) {
+                continue;
+            }
+            int end = segment.writePosition();
+            for (int position = 0; position < end && page.size() < limit; ) {
+                if (AuditRecordCodec.id(segment.buffer, position) > afterId) {
+                    var notification = AuditRecordCodec.decode(segment.buffer, position);
+                    if (query.matches(notification)) {
+                        page.add(notification);
+                    }
+                }
+                position += AuditRecordCodec.recordLength(segment.buffer, position);
+            }
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void stream(AuditQuery query, Consumer<NotificationEntity> sink) {
+        for (AuditSegment segment : segments.values()) {
+            int end = segment.writePosition();
+            for (int position = 0; position < end; position += AuditRecordCodec.recordLength(segment.buffer, position)) {
+                var notification = AuditRecordCodec.decode(segment.buffer, position);
+                if (query.matches(notification)) {
+                    sink.accept(notification);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<NotificationEntity> findAll(AuditQuery query) {
+        List<NotificationEntity> notifications = new ArrayList<>();
+        stream(query, notifications::add);
+        return notifications;
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        long[] count = {0};
+        stream(AuditQuery.byStatus(status), notification -> count[0]++);
+        return count[0];
+    }
+
+    @Override
+    public List<NotificationCount> countByAttributes() {
+        record Attributes(String status, String consumerMethod, String consumerGroup, String notificationType) {
+        }
+        Map<Attributes, Long> counts = new HashMap<>();
+        stream(AuditQuery.all(), notification -> counts.merge(new Attributes(notification.getStatus(),
+            notification.getConsumerMethod(), notification.getConsumerGroup(), notification.getNotificationType()),
+            1L, Long::sum));
+        List<NotificationCount> rows = new ArrayList<>(counts.size());
+        counts.forEach((attributes, count) -> rows.add(new NotificationCount(attributes.status(),
+            attributes.consumerMethod(), attributes.consumerGroup(), attributes.notificationType(), count)));
+        return rows;
+    }
+
+    @Override
+    public void streamSentAt(String status, LocalDateTime since, Consumer<LocalDateTime> sink) {
+        stream(AuditQuery.byStatus(status), notification -> {
+            if (notification.getSentAt() != null && !notification.getSentAt().isBefore(since)) {
+                sink.accept(notification.getSentAt());
+            }
+        });
+    }
+
+    // Records are appended in createdAt order: keeps the last `limit` matches of a forward scan, skipping
+    // segments whose newest record is older than `since`
+    @Override
+    public List<ProcessedKey> findRecentOrderIds(String consumerGroup, int partition, LocalDateTime since, int limit) {
+        long sinceMillis = since.toInstant(ZoneOffset.UTC).toEpochMilli();
+        Deque<ProcessedKey> recent = new ArrayDeque<>();
+        for (AuditSegment segment : segments.values()) {
+            if (segment.newestCreatedAtMillis() < sinceMillis) {
+                continue;
+            }
+            int end = segment.writePosition();
+            for (int position = 0; position < end; position += AuditRecordCodec.recordLength(segment.buffer, position)) {
+                var notification = AuditRecordCodec.decode(segment.buffer, position);
+                if (consumerGroup.equals(notification.getConsumerGroup())
+                        && notification.getPartition() != null && notification.getPartition() == partition
+                        && !notification.getCreatedAt().isBefore(since)) {
+                    recent.addFirst(new ProcessedKey(notification.getOrderId(), notification.getCreatedAt()));
+                    if (recent.size() > limit) {
+                        recent.removeLast();
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(recent);
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long indexSizeInBytes() {
+        return index.sizeInBytes();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.audit.mmap.force-interval-ms:1000}")
+    public void force() {
+        AuditSegment segment = active;
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            active.force();
+            for (AuditSegment segment : segments.values()) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    log.warn("=== Audit Log: Could not close {} ===", segment.path, e);
+                }
+            }
+        }
+    }
+
+    // Caller holds writeLock
+    private void append(NotificationEntity notification) {
+        notification.setId(nextId++);
+        notification.setCreatedAt(LocalDateTime.now());
+        String orderId = notification.getOrderId();
+        long hash = AuditRecordCodec.hash(orderId);
+        long previous = index.find(hash, location -> isOrder(location, orderId));
+
+        byte[] record = AuditRecordCodec.encode(notification, previous);
+        int position = active.append(record);
+        if (position < 0) {
+            roll(notification.getId());
+            position = active.append(record);
+            if (position < 0) {
+                throw new IllegalArgumentException("Audit record of " + record.length + " bytes does not fit a segment");
+            }
+        }
+        long location = location(active.number, position);
+        index.put(hash, location, existing -> isOrder(existing, orderId), this::isLive);
+    }
+
+    private void roll(long firstId) {
+        active.force();
+        try {
+            active = AuditSegment.create(directory, active.number + 1, firstId, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create audit segment in " + directory, e);
+        }
+        segments.put(active.number, active);
+        applyRetention();
+    }
+
+    private void applyRetention() {
+        long cutoff = LocalDateTime.now().minus(retention).toInstant(ZoneOffset.UTC).toEpochMilli();
+        for (AuditSegment segment : segments.values()) {
+            if (segment == active || segment.newestCreatedAtMillis() >= cutoff) {
+                continue;
+            }
+            segments.remove(segment.number);
+            try {
+                segment.close();
+                Files.deleteIfExists(segment.path);
+                log.info("=== Audit Log: Deleted {} (past retention) ===", segment.path.getFileName());
+            } catch (IOException e) {
+                log.warn("=== Audit Log: Could not delete {} ===", segment.path, e);
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(AuditSegment::isSegment).sorted().toList();
+        }
+        long records = 0;
+        for (Path file : files) {
+            var segment = AuditSegment.open(file);
+            segments.put(segment.number, segment);
+            segment.recover((opened, position) -> {
+                String orderId = AuditRecordCodec.orderId(opened.buffer, position);
+                index.put(AuditRecordCodec.hash(orderId), location(opened.number, position),
+                    existing -> isOrder(existing, orderId), this::isLive);
+            });
+            nextId = Math.max(nextId, segment.lastId() + 1);
+            records += countRecords(segment);
+        }
+        if (segments.isEmpty()) {
+            active = AuditSegment.create(directory, 0, nextId, segmentBytes);
+            segments.put(active.number, active);
+        } else {
+            active = segments.lastEntry().getValue();
+            applyRetention();
+        }
+        log.info("=== Audit Log: {} segments, {} records, {} orders indexed, next id {} ===",
+            segments.size(), records, index.size(), nextId);
+    }
+
+    private long locate(String orderId) {
+        return index.find(AuditRecordCodec.hash(orderId), location -> isOrder(location, orderId));
+    }
+
+    // Newest first, following each record's link to the order's previous one
+    private void forEachOfOrder(String orderId, Consumer<NotificationEntity> action) {
+        long location = locate(orderId);
+        while (location != AuditRecordCodec.NO_LOCATION) {
+            AuditSegment segment = segments.get(segmentOf(location));
+            if (segment == null) {
+                return; // older records were dropped by retention
+            }
+            int position = positionOf(location);
+            action.accept(AuditRecordCodec.decode(segment.buffer, position));
+            location = AuditRecordCodec.previous(segment.buffer, position);
+        }
+    }
+
+    private NotificationEntity decode(long location) {
+        AuditSegment segment = segments.get(segmentOf(location));
+        return segment == null ? null : AuditRecordCodec.decode(segment.buffer, positionOf(location));
+    }
+
+    private boolean isOrder(long location, String orderId) {
+        AuditSegment segment = segments.get(segmentOf(location));
+        return segment != null && orderId.equals(AuditRecordCodec.orderId(segment.buffer, positionOf(location)));
+    }
+
+    private boolean isLive(long location) {
+        return segments.containsKey(segmentOf(location));
+    }
+
+    private static long countRecords(AuditSegment segment) {
+        long count = 0;
+        int end = segment.writePosition();
+        for (int position = 0; position < end; position += AuditRecordCodec.recordLength(segment.buffer, position)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static long location(int segment, int position) {
+        return ((long) segment << 32) | (position & 0xFFFFFFFFL);
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int positionOf(long location) {
+        return (int) location;
+    }
+}
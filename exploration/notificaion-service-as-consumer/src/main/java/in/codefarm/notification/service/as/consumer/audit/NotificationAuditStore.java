@@ -0,0 +1,51 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.dto.NotificationCount;
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Where NotificationService writes notifications and reads them back for the controller and the dedupe checks,
+ * and what NotificationStats and the dedupe caches rebuild from on start.
+ * notification.audit-store picks the implementation: jpa (default, the notifications table) or mmap
+ * (MappedNotificationAuditStore).
+ */
+public interface NotificationAuditStore {
+    
+    // Assigns id and createdAt
+    NotificationEntity save(NotificationEntity notification);
+    
+    void saveAll(List<NotificationEntity> notifications);
+    
+    // The order's notification - the newest one when there are several
+    Optional<NotificationEntity> findByOrderId(String orderId);
+    
+    List<NotificationEntity> findByOrderIdIn(Collection<String> orderIds);
+    
+    boolean existsByOrderIdAndNotificationType(String orderId, String notificationType);
+    
+    // Keyset page: matching notifications with id > afterId, in id order
+    List<NotificationEntity> findPage(AuditQuery query, long afterId, int limit);
+    
+    // Every matching notification in id order, without holding them all in memory
+    void stream(AuditQuery query, Consumer<NotificationEntity> sink);
+    
+    List<NotificationEntity> findAll(AuditQuery query);
+    
+    long countByStatus(String status);
+    
+    // Stats rebuild: one count per (status, consumerMethod, consumerGroup, notificationType)
+    List<NotificationCount> countByAttributes();
+    
+    // Stats rebuild: sentAt of the notifications with this status sent since a point in time
+    void streamSentAt(String status, LocalDateTime since, Consumer<LocalDateTime> sink);
+    
+    // Dedupe warm-up: order ids a group processed on a partition since a point in time, newest first
+    List<ProcessedKey> findRecentOrderIds(String consumerGroup, int partition, LocalDateTime since, int limit);
+}
@@ -0,0 +1,120 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing hash table from orderId to the location of the order's newest audit record, in a direct
+ * (off-heap) buffer: 16 bytes per slot - the 64-bit hash of the orderId and the location - and nothing on the
+ * Java heap per entry. Linear probing, doubled at 70% load.
+ *
+ * Only hashes are stored, so callers pass a predicate that checks the orderId at a location; a 64-bit hash
+ * collision then just costs one more probe. Entries whose record was dropped by retention fail that check and
+ * are left out when the table is next resized.
+ */
+final class OrderIdIndex {
+
+    private static final int SLOT_BYTES = 16;
+    private static final double MAX_LOAD = 0.7;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer slots;
+    private int mask;
+    private int used;
+
+    OrderIdIndex(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1);
+        allocate(capacity);
+    }
+
+    // Location for the hash whose record matches, or NO_LOCATION
+    long find(long hash, LongPredicate matches) {
+        lock.readLock().lock();
+        try {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long slotHash = slots.getLong(slot * SLOT_BYTES);
+                if (slotHash == 0) {
+                    return AuditRecordCodec.NO_LOCATION;
+                }
+                long location = slots.getLong(slot * SLOT_BYTES + 8);
+                if (slotHash == hash && matches.test(location)) {
+                    return location;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Points the key (identified by sameKey on the existing location) at a new location; live keeps entries on resize
+    void put(long hash, long location, LongPredicate sameKey, LongPredicate live) {
+        lock.writeLock().lock();
+        try {
+            if (used + 1 > (mask + 1) * MAX_LOAD) {
+                resize(live);
+            }
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long slotHash = slots.getLong(slot * SLOT_BYTES);
+                if (slotHash == 0) {
+                    slots.putLong(slot * SLOT_BYTES + 8, location);
+                    slots.putLong(slot * SLOT_BYTES, hash);
+                    used++;
+                    return;
+                }
+                if (slotHash == hash && sameKey.test(slots.getLong(slot * SLOT_BYTES + 8))) {
+                    slots.putLong(slot * SLOT_BYTES + 8, location);
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return slots.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Doubles the table while dropping entries whose record is gone
+    private void resize(LongPredicate live) {
+        ByteBuffer old = slots;
+        int oldCapacity = mask + 1;
+        allocate(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            long hash = old.getLong(i * SLOT_BYTES);
+            long location = old.getLong(i * SLOT_BYTES + 8);
+            if (hash == 0 || !live.test(location)) {
+                continue;
+            }
+            int slot = (int) hash & mask;
+            while (slots.getLong(slot * SLOT_BYTES) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putLong(slot * SLOT_BYTES, hash);
+            slots.putLong(slot * SLOT_BYTES + 8, location);
+            used++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        used = 0;
+    }
+}
@@ -0,0 +1,296 @@
+package in.codefarm.notification.service.as.consumer.backpressure;
+
+import in.codefarm.notification.service.as.consumer.dto.BackpressureState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses a listener container's partitions while its downstream is saturated, so it stops fetching work it cannot
+ * finish - async listeners would otherwise keep filling their in-flight slots and queues until the listener thread
+ * blocks on a full one. A paused container still polls (and gets nothing back), so it stays in the group - no
+ * rebalance.
+ *
+ * Only the async listeners are protected - the virtual-thread consumer (Scenario 9) and the dispatching consumer
+ * (Scenario 10), on virtualThreadKafkaListenerContainerFactory, the only factory with ProcessingTimeInterceptor.
+ * Their listener thread only hands records off, so a pause takes effect while the slow work runs elsewhere and the
+ * poll loop keeps going. A synchronous listener does its slow work on the poll thread: a pause would only apply
+ * from the next poll, after the records already returned, so it could not keep a slow poll under
+ * max.poll.interval.ms - that is up to max.poll.records. The synchronous factories are not watched.
+ *
+ * Two signals per consumer group, checked every check-interval-ms:
+ *
+ * 1. Hand-off time per record, an EWMA fed by ProcessingTimeInterceptor - pause above latency-high-ms,
+ *    resume below latency-low-ms
+ * 2. Fill of the group's QueueDepthSources (dispatcher queues, in-flight slots) - pause above queue-high,
+ *    resume below queue-low
+ *
+ * A pause lasts at least the current minimum (min-pause-ms, doubled up to max-pause-ms each time a container has
+ * to be paused again soon after resuming). A paused container produces no new timings, so once the minimum has
+ * passed without samples the pause is lifted as a probe; the next records decide whether it comes back.
+ *
+ * Only partitions paused here are resumed here - a partition paused by the retry-topic back off is left alone.
+ */
+@Component
+public class BackpressureController {
+    
+    private static final Logger log = LoggerFactory.getLogger(BackpressureController.class);
+    private static final long NEVER = Long.MIN_VALUE;
+    
+    private final KafkaListenerEndpointRegistry registry;
+    private final List<QueueDepthSource> queueDepthSources;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long latencyHighNanos;
+    private final long latencyLowNanos;
+    private final double queueHigh;
+    private final double queueLow;
+    private final long minPauseNanos;
+    private final long maxPauseNanos;
+    private final double ewmaAlpha;
+    
+    private final Map<String, ProcessingTime> processingTimes = new ConcurrentHashMap<>();
+    private final Map<String, ContainerState> containers = new ConcurrentHashMap<>();
+    
+    public BackpressureController(
+        KafkaListenerEndpointRegistry registry,
+        List<QueueDepthSource> queueDepthSources,
+        MeterRegistry meterRegistry,
+        @Value("${notification.backpressure.enabled:true}") boolean enabled,
+        @Value("${notification.backpressure.latency-high-ms:2000}") long latencyHighMs,
+        @Value("${notification.backpressure.latency-low-ms:500}") long latencyLowMs,
+        @Value("${notification.backpressure.queue-high:0.9}") double queueHigh,
+        @Value("${notification.backpressure.queue-low:0.5}") double queueLow,
+        @Value("${notification.backpressure.min-pause-ms:5000}") long minPauseMs,
+        @Value("${notification.backpressure.max-pause-ms:60000}") long maxPauseMs,
+        @Value("${notification.backpressure.ewma-alpha:0.2}") double ewmaAlpha
+    ) {
+        this.registry = registry;
+        this.queueDepthSources = queueDepthSources;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.latencyHighNanos = TimeUnit.MILLISECONDS.toNanos(latencyHighMs);
+        this.latencyLowNanos = TimeUnit.MILLISECONDS.toNanos(latencyLowMs);
+        this.queueHigh = queueHigh;
+        this.queueLow = queueLow;
+        this.minPauseNanos = TimeUnit.MILLISECONDS.toNanos(minPauseMs);
+        this.maxPauseNanos = TimeUnit.MILLISECONDS.toNanos(maxPauseMs);
+        this.ewmaAlpha = ewmaAlpha;
+    }
+    
+    // Called on the consumer threads by ProcessingTimeInterceptor
+    public void recordProcessingTime(String groupId, long nanosPerRecord) {
+        processingTimes.computeIfAbsent(groupId, ignored -> new ProcessingTime()).add(nanosPerRecord, ewmaAlpha);
+    }
+    
+    @Scheduled(fixedDelayString = "${notification.backpressure.check-interval-ms:1000}")
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (!container.isRunning() || container.getGroupId() == null) {
+                continue;
+            }
+            ContainerState state = containers.computeIfAbsent(container.getListenerId(),
+                listenerId -> new ContainerState(listenerId, container.getGroupId()));
+            ProcessingTime processingTime = processingTimes.get(state.groupId);
+            double queueFill = queueFill(state.groupId);
+            state.queueFill = queueFill;
+            
+            if (state.paused) {
+                pauseNewlyAssigned(container, state);
+                if (now - state.pausedAtNanos >= state.minPauseNanos
+                        && latencyRecovered(processingTime, state, now)
+                        && queueFill < queueLow) {
+                    resume(container, state, now);
+                }
+            } else {
+                String reason = null;
+                if (processingTime != null && processingTime.lastSampleNanos > state.resumedAtNanos
+                        && processingTime.ewmaNanos > latencyHighNanos) {
+                    reason = "latency";
+                } else if (queueFill > queueHigh) {
+                    reason = "queue";
+                }
+                if (reason != null) {
+                    pause(container, state, reason, processingTime, now);
+                }
+            }
+        }
+    }
+    
+    public List<BackpressureState> states() {
+        List<BackpressureState> states = new ArrayList<>(containers.size());
+        for (ContainerState state : containers.values()) {
+            ProcessingTime processingTime = processingTimes.get(state.groupId);
+            long pausedNanos = state.totalPausedNanos + (state.paused ? System.nanoTime() - state.pausedAtNanos : 0);
+            states.add(new BackpressureState(
+                state.listenerId,
+                state.groupId,
+                state.paused,
+                state.reason,
+                state.pausedSince,
+                state.pausedPartitions.stream().map(TopicPartition::toString).sorted().toList(),
+                processingTime == null ? 0 : processingTime.ewmaNanos / 1_000_000.0,
+                state.queueFill,
+                state.pauses,
+                TimeUnit.NANOSECONDS.toMillis(pausedNanos)
+            ));
+        }
+        return states;
+    }
+    
+    private void pause(MessageListenerContainer container, ContainerState state, String reason,
+                       ProcessingTime processingTime, long now) {
+        // Paused again soon after the last resume: the downstream has not recovered, wait longer this time
+        boolean relapse = state.resumedAtNanos != NEVER && now - state.resumedAtNanos < 2 * state.minPauseNanos;
+        state.minPauseNanos = relapse ? Math.min(maxPauseNanos, state.minPauseNanos * 2) : minPauseNanos;
+        
+        state.paused = true;
+        state.reason = reason;
+        state.pausedAtNanos = now;
+        state.pausedSince = LocalDateTime.now();
+        state.pauses++;
+        pauseNewlyAssigned(container, state);
+        Counter.builder("notification.backpressure.pauses")
+            .tag("listener", state.listenerId)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        log.warn("=== Backpressure: Pausing {} ({}): processing {} ms/record, queue {}% full, for at least {} ms ===",
+            state.listenerId,
+            reason,
+            processingTime == null ? 0 : TimeUnit.NANOSECONDS.toMillis((long) processingTime.ewmaNanos),
+            Math.round(state.queueFill * 100),
+            TimeUnit.NANOSECONDS.toMillis(state.minPauseNanos));
+    }
+    
+    private void resume(MessageListenerContainer container, ContainerState state, long now) {
+        for (TopicPartition partition : state.pausedPartitions) {
+            container.resumePartition(partition);
+        }
+        long pausedNanos = now - state.pausedAtNanos;
+        state.pausedPartitions.clear();
+        state.paused = false;
+        state.reason = null;
+        state.pausedSince = null;
+        state.resumedAtNanos = now;
+        state.totalPausedNanos += pausedNanos;
+        state.pauseDuration.record(Duration.ofNanos(pausedNanos));
+        log.info("=== Backpressure: Resuming {} after {} ms ===", state.listenerId, TimeUnit.NANOSECONDS.toMillis(pausedNanos));
+    }
+    
+    // Partitions assigned while paused (rebalance) start out paused too
+    private void pauseNewlyAssigned(MessageListenerContainer container, ContainerState state) {
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        if (assigned == null) {
+            return;
+        }
+        for (TopicPartition partition : assigned) {
+            if (!state.pausedPartitions.contains(partition) && !container.isPartitionPauseRequested(partition)) {
+                container.pausePartition(partition);
+                state.pausedPartitions.add(partition);
+            }
+        }
+        state.pausedPartitions.retainAll(assigned);
+    }
+    
+    // Below the low mark, or no timings for the whole minimum pause - then nothing is flowing and a probe decides
+    private boolean latencyRecovered(ProcessingTime processingTime, ContainerState state, long now) {
+        if (processingTime == null || processingTime.ewmaNanos < latencyLowNanos) {
+            return true;
+        }
+        if (now - processingTime.lastSampleNanos >= state.minPauseNanos) {
+            processingTime.restart();
+            return true;
+        }
+        return false;
+    }
+    
+    private double queueFill(String groupId) {
+        double fill = 0;
+        for (QueueDepthSource source : queueDepthSources) {
+            if (groupId.equals(source.groupId()) && source.capacity() > 0) {
+                fill = Math.max(fill, (double) source.depth() / source.capacity());
+            }
+        }
+        return fill;
+    }
+    
+    private static final class ProcessingTime {
+        private volatile double ewmaNanos;
+        private volatile long lastSampleNanos;
+        private boolean restart = true;
+        
+        synchronized void add(long nanos, double alpha) {
+            ewmaNanos = restart ? nanos : alpha * nanos + (1 - alpha) * ewmaNanos;
+            restart = false;
+            lastSampleNanos = System.nanoTime();
+        }
+        
+        // The next sample replaces the average instead of blending into a stale one
+        synchronized void restart() {
+            restart = true;
+        }
+    }
+    
+    private final class ContainerState {
+        private final String listenerId;
+        private final String groupId;
+        private final Set<TopicPartition> pausedPartitions = ConcurrentHashMap.newKeySet();
+        private final Timer pauseDuration;
+        private volatile boolean paused;
+        private volatile String reason;
+        private volatile LocalDateTime pausedSince;
+        private volatile double queueFill;
+        private volatile long pausedAtNanos;
+        private volatile long resumedAtNanos = NEVER;
+        private volatile long totalPausedNanos;
+        private volatile long pauses;
+        private long minPauseNanos = BackpressureController.this.minPauseNanos;
+        
+        private ContainerState(String listenerId, String groupId) {
+            this.listenerId = listenerId;
+            this.groupId = groupId;
+            Gauge.builder("notification.backpressure.paused", this, state -> state.paused ? 1 : 0)
+                .description("1 while the container's partitions are paused for backpressure")
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+            Gauge.builder("notification.backpressure.paused-partitions", this, state -> state.pausedPartitions.size())
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+            Gauge.builder("notification.backpressure.processing-time", this, state -> {
+                    ProcessingTime processingTime = processingTimes.get(state.groupId);
+                    return processingTime == null ? 0 : processingTime.ewmaNanos / 1_000_000.0;
+                })
+                .description("Moving average of listener processing time per record, ms")
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+            this.pauseDuration = Timer.builder("notification.backpressure.pause-duration")
+                .description("How long partitions stayed paused for backpressure")
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+        }
+    }
+}
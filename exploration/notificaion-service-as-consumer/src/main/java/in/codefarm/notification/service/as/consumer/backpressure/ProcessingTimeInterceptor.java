@@ -0,0 +1,31 @@
+package in.codefarm.notification.service.as.consumer.backpressure;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Times the listener call, per record, for BackpressureController. On the async listeners it sits on, that call is
+ * the hand-off - fast until in-flight slots or dispatcher queues are full, then as long as the wait for one. Failures
+ * count too. A shared instance serves all of a factory's consumer threads, so the start time is kept per thread.
+ */
+public class ProcessingTimeInterceptor<K, V> implements RecordInterceptor<K, V> {
+    
+    private final BackpressureController controller;
+    private final ThreadLocal<long[]> startNanos = ThreadLocal.withInitial(() -> new long[1]);
+    
+    public ProcessingTimeInterceptor(BackpressureController controller) {
+        this.controller = controller;
+    }
+    
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        startNanos.get()[0] = System.nanoTime();
+        return record;
+    }
+    
+    @Override
+    public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        controller.recordProcessingTime(consumer.groupMetadata().groupId(), System.nanoTime() - startNanos.get()[0]);
+    }
+}
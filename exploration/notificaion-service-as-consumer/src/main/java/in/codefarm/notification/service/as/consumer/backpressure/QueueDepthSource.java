@@ -0,0 +1,14 @@
+package in.codefarm.notification.service.as.consumer.backpressure;
+
+/**
+ * Work a listener has accepted but not finished - an internal queue or in-flight slots. BackpressureController
+ * pauses the partitions of groupId's container when depth / capacity crosses notification.backpressure.queue-high.
+ */
+public interface QueueDepthSource {
+    
+    String groupId();
+    
+    int depth();
+    
+    int capacity();
+}
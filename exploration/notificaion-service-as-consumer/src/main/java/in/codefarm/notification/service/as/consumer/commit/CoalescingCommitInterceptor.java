@@ -0,0 +1,33 @@
+package in.codefarm.notification.service.as.consumer.commit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Drives OffsetCommitCoalescer from the container: a commit check once the records of each poll have been
+ * processed, and a cap on the partition when a record fails.
+ */
+public class CoalescingCommitInterceptor<K, V> implements RecordInterceptor<K, V> {
+
+    private final OffsetCommitCoalescer coalescer;
+
+    public CoalescingCommitInterceptor(OffsetCommitCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        return record;
+    }
+
+    @Override
+    public void failure(ConsumerRecord<K, V> record, Exception exception, Consumer<K, V> consumer) {
+        coalescer.failed(consumer.groupMetadata().groupId(), record.topic(), record.partition(), record.offset());
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        coalescer.afterPoll(consumer);
+    }
+}
@@ -0,0 +1,238 @@
+package in.codefarm.notification.service.as.consumer.commit;
+
+import in.codefarm.notification.service.as.consumer.rebalance.RebalanceParticipant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns per-record acks into one commitAsync per max-records acks or max-interval-ms, whichever comes first.
+ *
+ * acknowledge() only moves the partition's committable offset forward - no broker round trip on the hot path.
+ * afterPoll() (CoalescingCommitInterceptor, once the records of a poll have been processed) commits the
+ * consumer's partitions when a bound is reached. Committing only between polls keeps envelopes whole: all
+ * records expanded from one envelope share its offset, and are all done by then.
+ *
+ * A failed record caps its partition at the record's offset, so nothing past it is committed until that offset is
+ * acked itself - acks of later records move the partition forward only up to it.
+ * On revocation - and on shutdown, when closing the consumer revokes everything - flush() hands the pending
+ * offsets to CompositeRebalanceListener, which commits them synchronously before the partitions go.
+ *
+ * Metrics per group: notification.commit.commits{mode} (commit rate), notification.commit.latency{mode},
+ * notification.commit.failures and notification.commit.redelivery-window - offsets processed but not yet
+ * committed, i.e. what a crash right now would redeliver.
+ */
+@Component
+public class OffsetCommitCoalescer implements RebalanceParticipant {
+
+    private static final Logger log = LoggerFactory.getLogger(OffsetCommitCoalescer.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxRecords;
+    private final long maxIntervalNanos;
+    private final Map<String, GroupOffsets> groups = new ConcurrentHashMap<>();
+
+    public OffsetCommitCoalescer(
+        MeterRegistry meterRegistry,
+        @Value("${notification.commit.max-records:1000}") int maxRecords,
+        @Value("${notification.commit.max-interval-ms:1000}") long maxIntervalMs
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxRecords = maxRecords;
+        this.maxIntervalNanos = Duration.ofMillis(maxIntervalMs).toNanos();
+    }
+
+    // Called by the listener, on the consumer thread, in place of Acknowledgment.acknowledge()
+    public void acknowledge(String groupId, String topic, int partition, long offset) {
+        group(groupId).partition(new TopicPartition(topic, partition)).acknowledged(offset);
+    }
+
+    public void failed(String groupId, String topic, int partition, long offset) {
+        group(groupId).partition(new TopicPartition(topic, partition)).failed(offset);
+    }
+
+    // Called on the consumer thread once the records of a poll have been processed
+    public void afterPoll(Consumer<?, ?> consumer) {
+        GroupOffsets group = groups.get(consumer.groupMetadata().groupId());
+        if (group == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        int uncommittedAcks = 0;
+        long oldestAck = now;
+        for (TopicPartition partition : consumer.assignment()) {
+            PartitionOffsets offsets = group.partitions.get(partition);
+            if (offsets != null && offsets.uncommittedAcks > 0) {
+                uncommittedAcks += offsets.uncommittedAcks;
+                oldestAck = Math.min(oldestAck, offsets.firstUncommittedNanos);
+            }
+        }
+        if (uncommittedAcks == 0 || (uncommittedAcks < maxRecords && now - oldestAck < maxIntervalNanos)) {
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> commit = group.committable(consumer.assignment());
+        if (commit.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        consumer.commitAsync(commit, (committed, e) -> {
+            group.latency("async").record(Duration.ofNanos(System.nanoTime() - start));
+            if (e != null) {
+                // Not retried - the next commit carries the same or higher offsets
+                group.failures.increment();
+                log.warn("=== Commit Coalescer: Async commit of {} failed: {} ===", committed, e.getMessage());
+                return;
+            }
+            committed.forEach(group::committed);
+        });
+        group.commits("async").increment();
+    }
+
+    // Revoked: whatever was acked but not committed yet is committed synchronously by the rebalance listener
+    @Override
+    public Map<TopicPartition, OffsetAndMetadata> flush(String groupId, Collection<TopicPartition> revoked) {
+        GroupOffsets group = groups.get(groupId);
+        if (group == null) {
+            return Map.of();
+        }
+        Map<TopicPartition, OffsetAndMetadata> commit = group.committable(revoked);
+        if (!commit.isEmpty()) {
+            commit.forEach(group::committed);
+            group.commits("sync").increment();
+            log.info("=== Commit Coalescer: Committing {} on revocation ===", commit);
+        }
+        return commit;
+    }
+
+    @Override
+    public void release(String groupId, Collection<TopicPartition> partitions) {
+        GroupOffsets group = groups.get(groupId);
+        if (group != null) {
+            partitions.forEach(group.partitions::remove);
+        }
+    }
+
+    private GroupOffsets group(String groupId) {
+        return groups.computeIfAbsent(groupId, GroupOffsets::new);
+    }
+
+    private class GroupOffsets {
+
+        private final String groupId;
+        private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+        private final Counter failures;
+
+        GroupOffsets(String groupId) {
+            this.groupId = groupId;
+            this.failures = Counter.builder("notification.commit.failures")
+                .tag("group", groupId)
+                .register(meterRegistry);
+            Gauge.builder("notification.commit.redelivery-window", this, GroupOffsets::redeliveryWindow)
+                .description("Offsets processed but not yet committed")
+                .tag("group", groupId)
+                .register(meterRegistry);
+        }
+
+        PartitionOffsets partition(TopicPartition partition) {
+            return partitions.computeIfAbsent(partition, ignored -> new PartitionOffsets());
+        }
+
+        // Starts a new window for the partitions whose committable offset is ahead of the committed one
+        Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> assigned) {
+            Map<TopicPartition, OffsetAndMetadata> commit = new HashMap<>();
+            for (TopicPartition partition : assigned) {
+                PartitionOffsets offsets = partitions.get(partition);
+                if (offsets == null) {
+                    continue;
+                }
+                offsets.uncommittedAcks = 0;
+                if (offsets.committable > offsets.committed) {
+                    commit.put(partition, new OffsetAndMetadata(offsets.committable));
+                }
+            }
+            return commit;
+        }
+
+        void committed(TopicPartition partition, OffsetAndMetadata offset) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null) {
+                offsets.committed = Math.max(offsets.committed, offset.offset());
+            }
+        }
+
+        double redeliveryWindow() {
+            long window = 0;
+            for (PartitionOffsets offsets : partitions.values()) {
+                if (offsets.committed >= 0) {
+                    window += Math.max(0, offsets.committable - offsets.committed);
+                }
+            }
+            return window;
+        }
+
+        Counter commits(String mode) {
+            return Counter.builder("notification.commit.commits")
+                .tag("group", groupId)
+                .tag("mode", mode)
+                .register(meterRegistry);
+        }
+
+        Timer latency(String mode) {
+            return Timer.builder("notification.commit.latency")
+                .tag("group", groupId)
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        }
+    }
+
+    // Written by the owning consumer thread only; volatile for the gauge
+    private static class PartitionOffsets {
+
+        private volatile long committable = -1;
+        private volatile long committed = -1;
+        // Highest acked offset + 1, and the offsets that failed and have not been acked since
+        private long acked = -1;
+        private final TreeSet<Long> failedOffsets = new TreeSet<>();
+        private int uncommittedAcks;
+        private long firstUncommittedNanos;
+
+        void acknowledged(long offset) {
+            acked = Math.max(acked, offset + 1);
+            failedOffsets.remove(offset);
+            // Acks past a failed offset wait behind it
+            committable = failedOffsets.isEmpty() ? acked : Math.min(acked, failedOffsets.first());
+            if (committed < 0) {
+                // First ack since assignment - the group's position is at or before this record
+                committed = offset;
+            }
+            if (uncommittedAcks++ == 0) {
+                firstUncommittedNanos = System.nanoTime();
+            }
+        }
+
+        void failed(long offset) {
+            failedOffsets.add(offset);
+            if (committable > offset) {
+                committable = offset;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package in.codefarm.notification.service.as.consumer.config;
+
+import in.codefarm.notification.service.as.consumer.audit.NotificationAuditStore;
+import in.codefarm.notification.service.as.consumer.dedupe.PartitionDedupeCache;
+import in.codefarm.notification.service.as.consumer.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+
+// One dedupe cache per idempotent consumer group - see PartitionDedupeCache
+@Configuration
+public class DedupeCacheConfig {
+
+    @Value("${notification.dedupe.window-minutes:30}")
+    private long windowMinutes;
+
+    @Value("${notification.dedupe.max-entries-per-partition:100000}")
+    private int maxEntriesPerPartition;
+
+    @Value("${notification.dedupe.clock-skew-seconds:60}")
+    private long clockSkewSeconds;
+
+    // PaymentServiceConsumer.consumeOrderPlacedEvent
+    @Bean
+    public PartitionDedupeCache paymentOrderDedupeCache(NotificationAuditStore notificationAuditStore) {
+        return orderIdCache("payment-service-order-group", notificationAuditStore);
+    }
+
+    // NotificationServiceConsumer.consumeIdempotently
+    @Bean
+    public PartitionDedupeCache idempotentOrderDedupeCache(NotificationAuditStore notificationAuditStore) {
+        return orderIdCache("notification-service-idempotent-group", notificationAuditStore);
+    }
+
+    // PaymentServiceConsumer.consumePaymentProcessedEvent
+    @Bean
+    public PartitionDedupeCache paymentDedupeCache(PaymentRepository paymentRepository) {
+        String groupId = "payment-service-payment-group";
+        return new PartitionDedupeCache(
+            groupId,
+            "payments",
+            Duration.ofMinutes(windowMinutes),
+            maxEntriesPerPartition,
+            Duration.ofSeconds(clockSkewSeconds),
+            (partition, since, limit) ->
+                paymentRepository.findRecentPaymentIds(groupId, partition, since, PageRequest.of(0, limit))
+        );
+    }
+
+    // Warmed up from the audit store, so from the mapped log too when it replaces the table
+    private PartitionDedupeCache orderIdCache(String groupId, NotificationAuditStore notificationAuditStore) {
+        return new PartitionDedupeCache(
+            groupId,
+            "orders",
+            Duration.ofMinutes(windowMinutes),
+            maxEntriesPerPartition,
+            Duration.ofSeconds(clockSkewSeconds),
+            (partition, since, limit) ->
+                notificationAuditStore.findRecentOrderIds(groupId, partition, since, limit)
+        );
+    }
+}
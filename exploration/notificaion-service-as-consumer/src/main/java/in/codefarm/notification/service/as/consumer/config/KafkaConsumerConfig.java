@@ -1,21 +1,39 @@
 package in.codefarm.notification.service.as.consumer.config;
 
+import in.codefarm.notification.service.as.consumer.backpressure.BackpressureController;
+import in.codefarm.notification.service.as.consumer.backpressure.ProcessingTimeInterceptor;
+import in.codefarm.notification.service.as.consumer.commit.CoalescingCommitInterceptor;
+import in.codefarm.notification.service.as.consumer.commit.OffsetCommitCoalescer;
+import in.codefarm.notification.service.as.consumer.envelope.EnvelopeExpandingConsumerPostProcessor;
+import in.codefarm.notification.service.as.consumer.envelope.EnvelopeExpandingConsumerPostProcessor.Commits;
+import in.codefarm.notification.service.as.consumer.envelope.OrderEnvelopeDeserializer;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import in.codefarm.notification.service.as.consumer.lazy.LazyRecord;
+import in.codefarm.notification.service.as.consumer.lazy.LazyRecordDeserializer;
+import in.codefarm.notification.service.as.consumer.monitor.EndToEndLatencyRecorder;
+import in.codefarm.notification.service.as.consumer.monitor.LatencyRecordingInterceptor;
+import in.codefarm.notification.service.as.consumer.rebalance.CompositeRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 @Configuration
 public class KafkaConsumerConfig {
@@ -23,13 +41,27 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Run the poll loops of the order container factories on virtual threads
+    @Value("${notification.listener.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    // Static membership: when set, every container gets group.instance.id = <instance-id>-<listener id>[-n], so a
+    // restart within static-session-timeout-ms gets its old partitions back without a rebalance.
+    // Must be unique per process - e.g. the pod name of a StatefulSet. Empty keeps dynamic membership.
+    @Value("${notification.consumer.instance-id:}")
+    private String instanceId;
+
+    @Value("${notification.consumer.static-session-timeout-ms:60000}")
+    private int staticSessionTimeoutMs;
+
     // Base consumer factory configuration
     private Map<String, Object> baseConsumerConfigs() {
         Map<String, Object> configProps = new HashMap<>();
 
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JacksonJsonDeserializer.class);
+        // JSON as before, plus envelope records from the order service (expanded by orderConsumerFactory)
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderEnvelopeDeserializer.class);
 
         // JSON deserializer configuration
         configProps.put("spring.json.trusted.packages", "*");
@@ -50,11 +82,24 @@ public class KafkaConsumerConfig {
         // Max poll interval
         configProps.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000);
 
-        configProps.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, List.of(CooperativeStickyAssignor.class)); //todo
+        // Incremental rebalances: only the partitions that move are revoked, and CompositeRebalanceListener flushes
+        // and commits just those before they go
+        configProps.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, List.of(CooperativeStickyAssignor.class));
 
         return configProps;
     }
 
+    // Order consumer factories unpack envelopes in poll(), so listeners always get one OrderPlacedEvent per record.
+    // commits says when the containers on top commit - see EnvelopeExpandingConsumerPostProcessor.
+    private DefaultKafkaConsumerFactory<String, OrderPlacedEvent> orderConsumerFactory(
+            Map<String, Object> configProps,
+            Commits commits
+    ) {
+        DefaultKafkaConsumerFactory<String, OrderPlacedEvent> factory = new DefaultKafkaConsumerFactory<>(configProps);
+        factory.addPostProcessor(new EnvelopeExpandingConsumerPostProcessor<>(commits));
+        return factory;
+    }
+
     // Consumer factory for auto-commit (default)
     @Bean
     public ConsumerFactory<String, OrderPlacedEvent> autoCommitConsumerFactory() {
@@ -65,7 +110,7 @@ public class KafkaConsumerConfig {
         configProps.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-group");
 
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        return orderConsumerFactory(configProps, Commits.BETWEEN_POLLS);
     }
 
     // Consumer factory for manual commit
@@ -77,7 +122,7 @@ public class KafkaConsumerConfig {
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-manual-group");
 
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        return orderConsumerFactory(configProps, Commits.BETWEEN_POLLS);
     }
 
     // Consumer factory for batch consumption
@@ -85,64 +130,256 @@ public class KafkaConsumerConfig {
     public ConsumerFactory<String, OrderPlacedEvent> batchConsumerFactory() {
         Map<String, Object> configProps = baseConsumerConfigs();
 
-        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
-        configProps.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+        // The container commits (AckMode BATCH, after each poll), so the error handler's partial commit is the only one
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-batch-group");
         configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100); // Larger batch
 
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        // The error handler commits in the middle of a poll - BatchNotificationConsumer reports failures at the
+        // first order of their envelope
+        return orderConsumerFactory(configProps, Commits.PER_RECORD);
+    }
+
+    // Consumer factory for the key-ordered parallel consumer - offsets are committed by its processor
+    @Bean
+    public ConsumerFactory<String, OrderPlacedEvent> parallelConsumerFactory() {
+        Map<String, Object> configProps = baseConsumerConfigs();
+
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-parallel-group");
+
+        return orderConsumerFactory(configProps, Commits.PER_RECORD);
+    }
+
+    // Consumer factory for the virtual-thread consumer - acks follow each record's CompletableFuture
+    @Bean
+    public ConsumerFactory<String, OrderPlacedEvent> virtualThreadConsumerFactory() {
+        Map<String, Object> configProps = baseConsumerConfigs();
+
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-virtual-thread-group");
+
+        return orderConsumerFactory(configProps, Commits.PER_RECORD);
+    }
+
+    // Auto-commit consumer factory whose values are LazyRecords: bytes at poll time, JSON decoded by the listener
+    // only for records that are not duplicates. Envelopes are still expanded, one LazyRecord per order.
+    @Bean
+    public ConsumerFactory<String, Object> lazyOrderConsumerFactory() {
+        Map<String, Object> configProps = baseConsumerConfigs();
+
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        configProps.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+
+        DefaultKafkaConsumerFactory<String, Object> factory = new DefaultKafkaConsumerFactory<>(
+            configProps,
+            new StringDeserializer(),
+            new OrderEnvelopeDeserializer(new LazyRecordDeserializer<>(OrderPlacedEvent.class))
+        );
+        factory.addPostProcessor(new EnvelopeExpandingConsumerPostProcessor<>(Commits.BETWEEN_POLLS));
+        return factory;
     }
 
     // Container factory for auto-commit
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> kafkaListenerContainerFactory(
-            ConsumerFactory<String, OrderPlacedEvent> autoCommitConsumerFactory
+            ConsumerFactory<String, OrderPlacedEvent> autoCommitConsumerFactory,
+            CompositeRebalanceListener rebalanceListener,
+            EndToEndLatencyRecorder endToEndLatencyRecorder
     ) {
         ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(autoCommitConsumerFactory);
         factory.setConcurrency(3); // 3 consumer threads
+        applyThreadMode(factory, "auto-commit-");
+        applyRebalanceHandling(factory, rebalanceListener);
+        factory.setRecordInterceptor(new LatencyRecordingInterceptor<>(endToEndLatencyRecorder));
+        requireEnvelopeCommits(factory);
         return factory;
     }
 
-    // Container factory for manual commit
+    // Container factory for listeners taking LazyRecord<OrderPlacedEvent> - otherwise the same as auto-commit
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> lazyOrderKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> lazyOrderConsumerFactory,
+            CompositeRebalanceListener rebalanceListener,
+            EndToEndLatencyRecorder endToEndLatencyRecorder
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(lazyOrderConsumerFactory);
+        factory.setConcurrency(3);
+        applyThreadMode(factory, "lazy-order-");
+        applyRebalanceHandling(factory, rebalanceListener);
+        factory.setRecordInterceptor(new LatencyRecordingInterceptor<>(endToEndLatencyRecorder));
+        requireEnvelopeCommits(factory);
+        return factory;
+    }
+
+    // Container factory for manual commit: listeners ack through OffsetCommitCoalescer, which commits asynchronously
+    // every notification.commit.max-records / max-interval-ms. MANUAL without an Acknowledgment means the container
+    // itself never commits; the coalescer's pending offsets are committed synchronously on revocation.
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> manualCommitKafkaListenerContainerFactory(
-            ConsumerFactory<String, OrderPlacedEvent> manualCommitConsumerFactory
+            ConsumerFactory<String, OrderPlacedEvent> manualCommitConsumerFactory,
+            CompositeRebalanceListener rebalanceListener,
+            OffsetCommitCoalescer offsetCommitCoalescer,
+            EndToEndLatencyRecorder endToEndLatencyRecorder
     ) {
         ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(manualCommitConsumerFactory);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         factory.setConcurrency(3);
+        applyThreadMode(factory, "manual-commit-");
+        applyRebalanceHandling(factory, rebalanceListener);
+        factory.setRecordInterceptor(new CompositeRecordInterceptor<>(
+            new LatencyRecordingInterceptor<>(endToEndLatencyRecorder),
+            new CoalescingCommitInterceptor<>(offsetCommitCoalescer)
+        ));
+        requireEnvelopeCommits(factory);
         return factory;
     }
 
     // Container factory for batch consumption
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> batchKafkaListenerContainerFactory(
-            ConsumerFactory<String, OrderPlacedEvent> batchConsumerFactory
+            ConsumerFactory<String, OrderPlacedEvent> batchConsumerFactory,
+            CompositeRebalanceListener rebalanceListener,
+            EndToEndLatencyRecorder endToEndLatencyRecorder
     ) {
         ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(batchConsumerFactory);
         factory.setBatchListener(true); // Enable batch mode
         factory.setConcurrency(3);
+        applyThreadMode(factory, "batch-");
+        applyRebalanceHandling(factory, rebalanceListener);
+        // On BatchListenerFailedException: commit the records before the failed index, retry from it twice, then skip it.
+        // Otherwise the whole batch is committed once the listener returns.
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, 2L));
+        // A skipped order is not committed on its own - the rest of its envelope shares the offset and is redelivered
+        errorHandler.setAckAfterHandle(false);
+        factory.setCommonErrorHandler(errorHandler);
+        factory.setBatchInterceptor(new LatencyRecordingInterceptor<>(endToEndLatencyRecorder));
+        requireEnvelopeCommits(factory, errorHandler);
         return factory;
     }
 
-    // Consumer factory for payments (generic Object to handle PaymentProcessedEvent)
+    // Container factory for listeners that return a CompletableFuture completed on a virtual thread:
+    // the record is acked when its future completes, and out-of-order acks are committed once contiguous.
+    // No end-to-end latency interceptor - the listener returns before the record is processed. The only factory
+    // under BackpressureController: ProcessingTimeInterceptor times the hand-off, which waits once the listener's
+    // in-flight slots or dispatcher queues are full.
     @Bean
-    public ConsumerFactory<String, Object> paymentConsumerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> virtualThreadKafkaListenerContainerFactory(
+            ConsumerFactory<String, OrderPlacedEvent> virtualThreadConsumerFactory,
+            CompositeRebalanceListener rebalanceListener,
+            BackpressureController backpressureController
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(virtualThreadConsumerFactory);
+        factory.setConcurrency(1); // in-flight records, not consumer threads, carry the parallelism
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.getContainerProperties().setListenerTaskExecutor(virtualThreadExecutor("virtual-thread-"));
+        factory.setRecordInterceptor(new ProcessingTimeInterceptor<>(backpressureController));
+        // VirtualThreadNotificationConsumer waits for the revoked partitions' in-flight records before the commit
+        applyRebalanceHandling(factory, rebalanceListener);
+        requireEnvelopeCommits(factory);
+        return factory;
+    }
+
+    // Orders expanded from one envelope share its offset. A container that commits per record must sit on a consumer
+    // factory that marks them (Commits.PER_RECORD), or the envelope's offset is committed after its first order.
+    static void requireEnvelopeCommits(ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+        requireEnvelopeCommits(factory, null);
+    }
+
+    // errorHandler is the factory's common error handler, null for the container's default DefaultErrorHandler
+    static void requireEnvelopeCommits(ConcurrentKafkaListenerContainerFactory<?, ?> factory, CommonErrorHandler errorHandler) {
+        ContainerProperties properties = factory.getContainerProperties();
+        ContainerProperties.AckMode ackMode = properties.getAckMode();
+        String commitsPerRecord = null;
+        if (properties.isAsyncAcks()
+                || ackMode == ContainerProperties.AckMode.RECORD
+                || ackMode == ContainerProperties.AckMode.MANUAL_IMMEDIATE) {
+            commitsPerRecord = "ackMode " + ackMode + ", asyncAcks " + properties.isAsyncAcks();
+        } else if (errorHandlerCommits(factory, errorHandler)) {
+            commitsPerRecord = "its error handler commits part of a poll";
+        }
+        if (commitsPerRecord == null) {
+            return;
+        }
+        for (var postProcessor : factory.getConsumerFactory().getPostProcessors()) {
+            if (postProcessor instanceof EnvelopeExpandingConsumerPostProcessor<?, ?> expanding
+                    && expanding.commits() != Commits.PER_RECORD) {
+                throw new IllegalStateException("Container factory commits per record (" + commitsPerRecord
+                    + ") but its consumer factory expands envelopes with " + expanding.commits()
+                    + " - use Commits.PER_RECORD and hold acks with EnvelopeCompletions");
+            }
+        }
+    }
+
+    // DefaultErrorHandler on a batch listener commits the records before a BatchListenerFailedException's index.
+    // With ackAfterHandle, a container that commits itself (no auto-commit, no manual acks) commits a recovered record.
+    private static boolean errorHandlerCommits(
+            ConcurrentKafkaListenerContainerFactory<?, ?> factory,
+            CommonErrorHandler errorHandler
+    ) {
+        if (Boolean.TRUE.equals(factory.isBatchListener())
+                && (errorHandler == null || errorHandler instanceof DefaultErrorHandler)) {
+            return true;
+        }
+        ContainerProperties.AckMode ackMode = factory.getContainerProperties().getAckMode();
+        boolean containerCommits = !factory.getConsumerFactory().isAutoCommit()
+            && ackMode != ContainerProperties.AckMode.MANUAL
+            && ackMode != ContainerProperties.AckMode.MANUAL_IMMEDIATE;
+        return containerCommits && (errorHandler == null || errorHandler.isAckAfterHandle());
+    }
+
+    // Revoke: flush participants and commit synchronously; assign: warm caches before the first fetch.
+    // Plus static membership when notification.consumer.instance-id is set.
+    private <K, V> void applyRebalanceHandling(
+            ConcurrentKafkaListenerContainerFactory<K, V> factory,
+            CompositeRebalanceListener rebalanceListener
+    ) {
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+        if (instanceId.isBlank()) {
+            return;
+        }
+        factory.setContainerCustomizer(container -> {
+            // The factory shares one Properties object between its containers - copy before adding the id
+            Properties consumerProperties = new Properties();
+            consumerProperties.putAll(container.getContainerProperties().getKafkaConsumerProperties());
+            // The listener id keeps containers of one group apart (e.g. retry topics); the container adds -n per thread
+            consumerProperties.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, instanceId + "-" + container.getListenerId());
+            // Long enough to cover a restart, so the broker keeps the member's partitions in the meantime
+            consumerProperties.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, String.valueOf(staticSessionTimeoutMs));
+            container.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        });
+    }
+
+    private void applyThreadMode(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String threadNamePrefix) {
+        if (virtualThreads) {
+            factory.getContainerProperties().setListenerTaskExecutor(virtualThreadExecutor(threadNamePrefix));
+        }
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    // Consumer factory for payments: values are LazyRecord<PaymentProcessedEvent>, decoded by the listener once the
+    // payment id has passed the dedupe check
+    @Bean
+    public ConsumerFactory<String, LazyRecord<PaymentProcessedEvent>> paymentConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JacksonJsonDeserializer.class);
-        configProps.put("spring.json.trusted.packages", "*");
-        configProps.put("spring.json.use.type.headers", false);
-        configProps.put("spring.json.value.default.type","in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent");
-
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
         configProps.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 3000);
@@ -153,18 +390,26 @@ public class KafkaConsumerConfig {
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-payment-group");
         configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        return new DefaultKafkaConsumerFactory<>(
+            configProps,
+            new StringDeserializer(),
+            new LazyRecordDeserializer<>(PaymentProcessedEvent.class)
+        );
     }
     
     // Container factory for payments
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> paymentKafkaListenerContainerFactory(
-        ConsumerFactory<String, Object> paymentConsumerFactory
+    public ConcurrentKafkaListenerContainerFactory<String, LazyRecord<PaymentProcessedEvent>> paymentKafkaListenerContainerFactory(
+        ConsumerFactory<String, LazyRecord<PaymentProcessedEvent>> paymentConsumerFactory,
+        CompositeRebalanceListener rebalanceListener,
+        EndToEndLatencyRecorder endToEndLatencyRecorder
     ) {
-        ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
+        ConcurrentKafkaListenerContainerFactory<String, LazyRecord<PaymentProcessedEvent>> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(paymentConsumerFactory);
         factory.setConcurrency(2);
+        applyRebalanceHandling(factory, rebalanceListener);
+        factory.setRecordInterceptor(new LatencyRecordingInterceptor<>(endToEndLatencyRecorder));
         return factory;
     }
 }
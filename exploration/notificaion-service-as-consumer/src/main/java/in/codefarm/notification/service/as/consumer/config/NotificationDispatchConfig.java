@@ -0,0 +1,33 @@
+package in.codefarm.notification.service.as.consumer.config;
+
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationChannel;
+import in.codefarm.notification.service.as.consumer.dispatch.StubNotificationProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Stub providers for the dispatcher - replace with real provider beans to go live
+@Configuration
+@ConditionalOnProperty(name = "notification.dispatch.enabled", havingValue = "true")
+public class NotificationDispatchConfig {
+
+    @Value("${notification.dispatch.stub.latency-ms:200}")
+    private long latencyMs;
+
+    @Bean
+    public StubNotificationProvider emailProvider(@Value("${notification.dispatch.stub.email-max-batch:100}") int maxBatch) {
+        return new StubNotificationProvider(NotificationChannel.EMAIL, latencyMs, maxBatch);
+    }
+
+    // Most SMS gateways take one message per call
+    @Bean
+    public StubNotificationProvider smsProvider(@Value("${notification.dispatch.stub.sms-max-batch:1}") int maxBatch) {
+        return new StubNotificationProvider(NotificationChannel.SMS, latencyMs, maxBatch);
+    }
+
+    @Bean
+    public StubNotificationProvider pushProvider(@Value("${notification.dispatch.stub.push-max-batch:500}") int maxBatch) {
+        return new StubNotificationProvider(NotificationChannel.PUSH, latencyMs, maxBatch);
+    }
+}
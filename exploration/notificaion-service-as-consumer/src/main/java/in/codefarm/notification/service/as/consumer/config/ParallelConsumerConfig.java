@@ -0,0 +1,33 @@
+package in.codefarm.notification.service.as.consumer.config;
+
+import in.codefarm.notification.service.as.consumer.consumer.ParallelNotificationConsumer;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+// Container for ParallelNotificationConsumer: batches in, commits left entirely to its processor
+@Configuration
+@ConditionalOnProperty(name = "notification.parallel.enabled", havingValue = "true")
+public class ParallelConsumerConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> parallelKafkaListenerContainerFactory(
+            ConsumerFactory<String, OrderPlacedEvent> parallelConsumerFactory,
+            ParallelNotificationConsumer parallelNotificationConsumer
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(parallelConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(1); // parallelism comes from the processor's lanes
+        // MANUAL without ever acknowledging: the container never commits, the processor does
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(parallelNotificationConsumer.processor());
+        KafkaConsumerConfig.requireEnvelopeCommits(factory);
+        return factory;
+    }
+}
@@ -0,0 +1,166 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scenario 3: Batch Consumption (notification.batch-listener.enabled=true)
+ *
+ * One idempotency query and one insert transaction per poll instead of a lookup and a commit per record. A failed
+ * order keeps what succeeded before it and is reported with BatchListenerFailedException, so the error handler of
+ * batchKafkaListenerContainerFactory retries from that order - from the first order of its envelope, if it came
+ * in one.
+ *
+ * Scenario 3b, the original loop with a transaction per record, listens in its own group when
+ * notification.batch-listener.per-record-baseline=true - the baseline for Scenario 3's records/sec. Both log
+ * their records/sec per poll; BatchNotificationConsumerBenchmarkTest compares them on the same orders.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.batch-listener.enabled", havingValue = "true")
+public class BatchNotificationConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchNotificationConsumer.class);
+    private static final String CONSUMER_GROUP = "notification-service-batch-group";
+    private static final String PER_RECORD_CONSUMER_GROUP = "notification-service-batch-per-record-group";
+
+    private final NotificationService notificationService;
+
+    public BatchNotificationConsumer(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeBatch(
+        @Payload List<OrderPlacedEvent> events,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
+        @Header(KafkaHeaders.OFFSET) List<Long> offsets
+    ) {
+        log.info("=== Batch Consumer: Received batch of {} orders ===", events.size());
+        long startNanos = System.nanoTime();
+
+        // Also catches an order repeated within the same poll
+        Set<String> notifiedOrderIds = notificationService.findNotifiedOrderIds(
+            events.stream().map(OrderPlacedEvent::orderId).toList());
+
+        List<NotificationEntity> notifications = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            OrderPlacedEvent event = events.get(i);
+            if (!notifiedOrderIds.add(event.orderId())) {
+                log.debug("Batch Consumer: Order {} already notified - skipping", event.orderId());
+                continue;
+            }
+
+            try {
+                notificationService.sendEmailNotification(event);
+            } catch (Exception e) {
+                // Keep what succeeded before the failure. The error handler commits the records before the failed
+                // index - reported at the envelope's first order, so the envelope's offset stays uncommitted and its
+                // orders already saved are skipped as duplicates when it is redelivered
+                log.error("=== Batch Consumer: Error processing order {} at index {} ===", event.orderId(), i, e);
+                notificationService.saveNotifications(notifications);
+                throw new BatchListenerFailedException("Failed to process order " + event.orderId(), e,
+                    envelopeStart(partitions, offsets, i));
+            }
+
+            notifications.add(new NotificationEntity(
+                event.orderId(),
+                event.customerId(),
+                "EMAIL",
+                "SENT",
+                "Order confirmation email sent (batch)",
+                partitions.get(i),
+                offsets.get(i),
+                CONSUMER_GROUP,
+                "batch"
+            ));
+        }
+        notificationService.saveNotifications(notifications);
+
+        logThroughput("Batch Consumer", events.size(), notifications.size(), startNanos);
+    }
+
+    // Scenario 3b: Batch Consumption, Per-Record Persistence
+    @KafkaListener(
+        topics = "orders",
+        groupId = PER_RECORD_CONSUMER_GROUP,
+        containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "${notification.batch-listener.per-record-baseline:false}"
+    )
+    public void consumeBatchPerRecord(
+        @Payload List<OrderPlacedEvent> events,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
+        @Header(KafkaHeaders.OFFSET) List<Long> offsets
+    ) {
+        log.info("=== Per-Record Batch Consumer: Received batch of {} orders ===", events.size());
+        long startNanos = System.nanoTime();
+
+        int saved = 0;
+        for (int i = 0; i < events.size(); i++) {
+            OrderPlacedEvent event = events.get(i);
+            int partition = partitions.get(i);
+            long offset = offsets.get(i);
+
+            log.info("=== Per-Record Batch Consumer: Processing order {} from partition {}, offset {} ===",
+                event.orderId(), partition, offset);
+
+            try {
+                // Send notification
+                notificationService.sendEmailNotification(event);
+
+                // Save to database
+                notificationService.saveNotification(
+                    event,
+                    "EMAIL",
+                    "SENT",
+                    "Order confirmation email sent (batch, per record)",
+                    partition,
+                    offset,
+                    PER_RECORD_CONSUMER_GROUP,
+                    "batch-per-record"
+                );
+                saved++;
+
+            } catch (Exception e) {
+                log.error("=== Per-Record Batch Consumer: Error processing order {} in batch ===", event.orderId(), e);
+            }
+        }
+
+        logThroughput("Per-Record Batch Consumer", events.size(), saved, startNanos);
+    }
+
+    // Orders expanded from one envelope share its partition and offset, and are adjacent in the batch
+    private static int envelopeStart(List<Integer> partitions, List<Long> offsets, int index) {
+        int start = index;
+        while (start > 0
+                && partitions.get(start - 1).equals(partitions.get(index))
+                && offsets.get(start - 1).equals(offsets.get(index))) {
+            start--;
+        }
+        return start;
+    }
+
+    private void logThroughput(String consumer, int received, int saved, long startNanos) {
+        long elapsedMicros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        log.info("=== {}: {} records, {} saved in {} ms ({} records/sec) ===",
+            consumer, received, saved, elapsedMicros / 1000, received * 1_000_000L / elapsedMicros);
+    }
+}
@@ -0,0 +1,154 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.backpressure.QueueDepthSource;
+import in.codefarm.notification.service.as.consumer.dispatch.DeliveredNotificationWriter;
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationChannel;
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationDispatcher;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.envelope.EnvelopeCompletions;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.rebalance.InFlightRecords;
+import in.codefarm.notification.service.as.consumer.rebalance.RebalanceParticipant;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Scenario 10: Dispatching Consumer (notification.dispatch.enabled=true)
+ *
+ * Queues one notification per configured channel on NotificationDispatcher and returns straight away; the record
+ * is acked when every channel has been delivered and saved (with orders from one envelope, once every order of
+ * the envelope has). DeliveredNotificationWriter batches the saves, off the dispatcher's sender threads.
+ * Channels already saved for the order are skipped, so a redelivery after a partial failure only retries what is
+ * missing. The fullest channel queue is reported to BackpressureController, so the container is paused before
+ * dispatch starts waiting on enqueue-timeout-ms.
+ * On revocation, deliveries still pending for the revoked partitions are waited for before the container commits.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.dispatch.enabled", havingValue = "true")
+public class DispatchingNotificationConsumer implements QueueDepthSource, RebalanceParticipant {
+    
+    private static final Logger log = LoggerFactory.getLogger(DispatchingNotificationConsumer.class);
+    private static final String CONSUMER_GROUP = "notification-service-dispatch-group";
+    
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationService notificationService;
+    private final DeliveredNotificationWriter deliveredNotificationWriter;
+    private final List<NotificationChannel> channels;
+    private final InFlightRecords inFlightRecords = new InFlightRecords();
+    private final EnvelopeCompletions envelopeCompletions = new EnvelopeCompletions();
+    private final Duration flushTimeout;
+    
+    public DispatchingNotificationConsumer(
+        NotificationDispatcher notificationDispatcher,
+        NotificationService notificationService,
+        DeliveredNotificationWriter deliveredNotificationWriter,
+        @Value("${notification.dispatch.channels:EMAIL,SMS,PUSH}") List<NotificationChannel> channels,
+        @Value("${notification.rebalance.flush-timeout-ms:20000}") long flushTimeoutMs
+    ) {
+        this.notificationDispatcher = notificationDispatcher;
+        this.notificationService = notificationService;
+        this.deliveredNotificationWriter = deliveredNotificationWriter;
+        this.channels = channels;
+        this.flushTimeout = Duration.ofMillis(flushTimeoutMs);
+    }
+    
+    // Same async-ack container as Scenario 9
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "virtualThreadKafkaListenerContainerFactory"
+    )
+    public CompletableFuture<Void> consume(
+        @Payload OrderPlacedEvent event,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset,
+        ConsumerRecord<?, ?> record
+    ) {
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
+        inFlightRecords.begin(topicPartition);
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(channels.size());
+        for (NotificationChannel channel : channels) {
+            if (notificationService.existsForChannel(event.orderId(), channel.name())) {
+                continue;
+            }
+            // Runs on the channel's sender thread - only queues the save
+            deliveries.add(notificationDispatcher.dispatch(channel, event)
+                .thenCompose(ignored -> deliveredNotificationWriter.submit(new NotificationEntity(
+                    event.orderId(),
+                    event.customerId(),
+                    channel.name(),
+                    "SENT",
+                    "Order confirmation sent via " + channel + " (dispatcher)",
+                    partition,
+                    offset,
+                    CONSUMER_GROUP,
+                    "dispatcher"
+                ))));
+        }
+        
+        var delivered = CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new))
+            .whenComplete((ignored, e) -> {
+                inFlightRecords.end(topicPartition);
+                if (e != null) {
+                    log.error("=== Dispatching Consumer: Delivery failed for order {} ===", event.orderId(), e);
+                }
+            });
+        // Orders from one envelope share its offset - acked together once the last of them is delivered
+        return envelopeCompletions.hold(record, delivered);
+    }
+
+    // Revoked partitions: wait for their records still in flight, so the container's revoke commit covers them
+    @Override
+    public Map<TopicPartition, OffsetAndMetadata> flush(String groupId, Collection<TopicPartition> revoked) {
+        if (CONSUMER_GROUP.equals(groupId)) {
+            int abandoned = inFlightRecords.awaitDrained(revoked, flushTimeout);
+            if (abandoned > 0) {
+                log.warn("=== Dispatching Consumer: {} records still in flight on revoked {} - the next owner will redeliver them ===",
+                    abandoned, revoked);
+            }
+        }
+        return Map.of();
+    }
+    
+    @Override
+    public void release(String groupId, Collection<TopicPartition> partitions) {
+        if (CONSUMER_GROUP.equals(groupId)) {
+            inFlightRecords.forget(partitions);
+            envelopeCompletions.forget(partitions);
+        }
+    }
+    
+    @Override
+    public String groupId() {
+        return CONSUMER_GROUP;
+    }
+    
+    @Override
+    public int depth() {
+        return notificationDispatcher.maxQueueDepth();
+    }
+    
+    @Override
+    public int capacity() {
+        return notificationDispatcher.queueCapacity();
+    }
+}
@@ -0,0 +1,84 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.commit.OffsetCommitCoalescer;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scenario 2: Manual Commit Consumer (notification.manual-commit.enabled=true)
+ *
+ * Acks go to OffsetCommitCoalescer: one async commit per notification.commit.max-records / max-interval-ms
+ * instead of commit work for every record, and a sync commit when partitions are revoked. A record that throws is
+ * not acked; CoalescingCommitInterceptor caps its partition at it until it is processed again and acked.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.manual-commit.enabled", havingValue = "true")
+public class ManualCommitNotificationConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ManualCommitNotificationConsumer.class);
+    private static final String CONSUMER_GROUP = "notification-service-manual-group";
+
+    private final NotificationService notificationService;
+    private final OffsetCommitCoalescer offsetCommitCoalescer;
+
+    public ManualCommitNotificationConsumer(
+        NotificationService notificationService,
+        OffsetCommitCoalescer offsetCommitCoalescer
+    ) {
+        this.notificationService = notificationService;
+        this.offsetCommitCoalescer = offsetCommitCoalescer;
+    }
+
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "manualCommitKafkaListenerContainerFactory"
+    )
+    public void consumeManualCommit(
+        @Payload OrderPlacedEvent event,
+        @Header(KafkaHeaders.RECEIVED_KEY) String key,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset
+    ) throws Throwable {
+        log.info("=== Manual Commit Consumer: Received OrderPlacedEvent ===");
+        log.info("Order ID: {}, Customer: {}, Partition: {}, Offset: {}",
+            event.orderId(), event.customerId(), partition, offset);
+
+        try {
+            // Send notification
+            notificationService.sendEmailNotification(event);
+
+            // Save to database
+            notificationService.saveNotification(
+                event,
+                "EMAIL",
+                "SENT",
+                "Order confirmation email sent (manual commit)",
+                partition,
+                offset,
+                CONSUMER_GROUP,
+                "manual-commit"
+            );
+
+            // Mark the offset committable after successful processing - committed with the next coalesced commit
+            offsetCommitCoalescer.acknowledge(CONSUMER_GROUP, topic, partition, offset);
+
+            log.info("=== Manual Commit Consumer: Order processed and offset acknowledged - Offset: {} ===",
+                offset);
+
+        } catch (Exception e) {
+            log.error("=== Manual Commit Consumer: Error processing order {} ===", event.orderId(), e);
+            // Don't acknowledge - message will be reprocessed
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationChannel;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.fanout.ChannelOutcome;
+import in.codefarm.notification.service.as.consumer.fanout.MultiChannelNotifier;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Scenario 12: Multi-Channel Consumer (notification.multi-channel.enabled=true)
+ *
+ * Sends every configured channel for an event concurrently through MultiChannelNotifier and saves one MULTI row
+ * per event, with the per-channel results in channelOutcomes. Status is SENT when every channel was delivered,
+ * FAILED when none was, PARTIAL otherwise. The record takes as long as the slowest channel, at most
+ * notification.multi-channel.deadline-ms.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.multi-channel.enabled", havingValue = "true")
+public class MultiChannelNotificationConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiChannelNotificationConsumer.class);
+    private static final String CONSUMER_GROUP = "notification-service-multi-channel-group";
+
+    private final MultiChannelNotifier multiChannelNotifier;
+    private final NotificationService notificationService;
+    private final List<NotificationChannel> channels;
+
+    public MultiChannelNotificationConsumer(
+        MultiChannelNotifier multiChannelNotifier,
+        NotificationService notificationService,
+        @Value("${notification.multi-channel.channels:EMAIL,SMS,PUSH}") List<NotificationChannel> channels
+    ) {
+        this.multiChannelNotifier = multiChannelNotifier;
+        this.notificationService = notificationService;
+        this.channels = channels;
+    }
+
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consume(
+        @Payload OrderPlacedEvent event,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset
+    ) throws InterruptedException {
+        List<ChannelOutcome> outcomes = multiChannelNotifier.send(event, channels);
+
+        long sent = outcomes.stream().filter(outcome -> outcome.status() == ChannelOutcome.Status.SENT).count();
+        String status = sent == outcomes.size() ? "SENT" : sent == 0 ? "FAILED" : "PARTIAL";
+        var notification = new NotificationEntity(
+            event.orderId(),
+            event.customerId(),
+            "MULTI",
+            status,
+            "Order confirmation on " + sent + " of " + outcomes.size() + " channels",
+            partition,
+            offset,
+            CONSUMER_GROUP,
+            "multi-channel"
+        );
+        notification.setChannelOutcomes(outcomes.stream().map(ChannelOutcome::summary).collect(Collectors.joining(",")));
+        notificationService.saveNotifications(List.of(notification));
+
+        log.info("=== Multi-Channel Consumer: Order {} {} - {} ===", event.orderId(), status, notification.getChannelOutcomes());
+    }
+}
@@ -1,5 +1,6 @@
 package in.codefarm.notification.service.as.consumer.consumer;
 
+import in.codefarm.notification.service.as.consumer.dedupe.PartitionDedupeCache;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.exception.OrderIsInvalid;
 import in.codefarm.notification.service.as.consumer.exception.TransientDownstreamException;
@@ -12,13 +13,11 @@ import org.springframework.kafka.annotation.RetryableTopic;
 import org.springframework.kafka.annotation.TopicPartition;
 import org.springframework.kafka.retrytopic.DltStrategy;
 import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
-import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
 import java.util.Map;
 
 //@Component
@@ -28,9 +27,14 @@ public class NotificationServiceConsumer {
     private static final String CONSUMER_GROUP = "notification-service-group";
     
     private final NotificationService notificationService;
+    private final PartitionDedupeCache idempotentOrderDedupeCache;
     
-    public NotificationServiceConsumer(NotificationService notificationService) {
+    public NotificationServiceConsumer(
+        NotificationService notificationService,
+        PartitionDedupeCache idempotentOrderDedupeCache
+    ) {
         this.notificationService = notificationService;
+        this.idempotentOrderDedupeCache = idempotentOrderDedupeCache;
     }
     
     // Scenario 1: Auto-Commit Consumer (Default)
@@ -82,96 +86,9 @@ public class NotificationServiceConsumer {
         }
     }
     
-    // Scenario 2: Manual Commit Consumer
-    @KafkaListener(
-        topics = "orders",
-        groupId = "notification-service-manual-group",
-        containerFactory = "manualCommitKafkaListenerContainerFactory"
-    )
-    public void consumeManualCommit(
-        @Payload OrderPlacedEvent event,
-        @Header(KafkaHeaders.RECEIVED_KEY) String key,
-        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-        @Header(KafkaHeaders.OFFSET) long offset,
-        Acknowledgment acknowledgment
-    ) throws Throwable{
-        log.info("=== Manual Commit Consumer: Received OrderPlacedEvent ===");
-        log.info("Order ID: {}, Customer: {}, Partition: {}, Offset: {}", 
-            event.orderId(), event.customerId(), partition, offset);
-        
-        try {
-            // Send notification
-            notificationService.sendEmailNotification(event);
-            
-            // Save to database
-            notificationService.saveNotification(
-                event,
-                "EMAIL",
-                "SENT",
-                "Order confirmation email sent (manual commit)",
-                partition,
-                offset,
-                "notification-service-manual-group",
-                "manual-commit"
-            );
-            
-            // Explicitly commit offset after successful processing
-            acknowledgment.acknowledge();
-            
-            log.info("=== Manual Commit Consumer: Order processed and offset committed - Offset: {} ===", 
-                offset);
-            
-        } catch (Exception e) {
-            log.error("=== Manual Commit Consumer: Error processing order {} ===", event.orderId(), e);
-            // Don't acknowledge - message will be reprocessed
-            throw e;
-        }
-    }
+    // Scenario 2: Manual Commit Consumer - see ManualCommitNotificationConsumer
     
-    // Scenario 3: Batch Consumption
-//    @KafkaListener(
-//        topics = "orders",
-//        groupId = "notification-service-batch-group",
-//        containerFactory = "batchKafkaListenerContainerFactory"
-//    )
-    public void consumeBatch(
-        @Payload List<OrderPlacedEvent> events,
-        @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
-        @Header(KafkaHeaders.OFFSET) List<Long> offsets
-    ) throws Throwable{
-        log.info("=== Batch Consumer: Received batch of {} orders ===", events.size());
-        
-        for (int i = 0; i < events.size(); i++) {
-            OrderPlacedEvent event = events.get(i);
-            int partition = partitions.get(i);
-            long offset = offsets.get(i);
-            
-            log.info("=== Batch Consumer: Processing order {} from partition {}, offset {} ===",
-                event.orderId(), partition, offset);
-            
-            try {
-                // Send notification
-                notificationService.sendEmailNotification(event);
-                
-                // Save to database
-                notificationService.saveNotification(
-                    event,
-                    "EMAIL",
-                    "SENT",
-                    "Order confirmation email sent (batch)",
-                    partition,
-                    offset,
-                    "notification-service-batch-group",
-                    "batch"
-                );
-                
-            } catch (Exception e) {
-                log.error("=== Batch Consumer: Error processing order {} in batch ===", event.orderId(), e);
-            }
-        }
-        
-        log.info("=== Batch Consumer: Batch processing complete for {} orders ===", events.size());
-    }
+    // Scenario 3: Batch Consumption - see BatchNotificationConsumer
     
     // Scenario 4: Consume from Specific Partitions
     @KafkaListener(
@@ -333,14 +250,14 @@ public class NotificationServiceConsumer {
     public void consumeIdempotently(
         @Payload OrderPlacedEvent event,
         @Header(KafkaHeaders.RECEIVED_KEY) String key,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
         @Header(KafkaHeaders.OFFSET) long offset
     ) throws Throwable{
         log.info("=== Idempotent Consumer: Received OrderPlacedEvent: {} ===", event.orderId());
         
-        // Idempotency check - check if notification already sent for this order
-        var existingNotification = notificationService.findByOrderId(event.orderId());
-        
-        if (existingNotification.isPresent()) {
+        // Idempotency check - the partition's dedupe cache answers recent orders, older ones go to the DB
+        if (idempotentOrderDedupeCache.isDuplicate(partition, event.orderId(), event.orderDate(),
+                orderId -> notificationService.findByOrderId(orderId).isPresent())) {
             log.warn("=== Idempotent Consumer: Order {} already processed - skipping (idempotency) ===",
                 event.orderId());
             return; // Skip duplicate
@@ -354,11 +271,12 @@ public class NotificationServiceConsumer {
                 "EMAIL",
                 "SENT",
                 "Order confirmation email sent (idempotent)",
-                null,
+                partition,
                 offset,
                 "notification-service-idempotent-group",
                 "idempotent"
             );
+            idempotentOrderDedupeCache.record(partition, event.orderId());
             
             log.info("=== Idempotent Consumer: Order {} processed successfully ===", event.orderId());
             
@@ -0,0 +1,106 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.parallel.KeyOrderedParallelProcessor;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Scenario 8: Key-Ordered Parallel Consumer (notification.parallel.enabled=true)
+ *
+ * One consumer thread polls; KeyOrderedParallelProcessor runs the records on `workers` lanes, ordered per
+ * orderId or customerId (notification.parallel.ordering-key) and committed up to the lowest unfinished offset.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.parallel.enabled", havingValue = "true")
+public class ParallelNotificationConsumer {
+    
+    private static final Logger log = LoggerFactory.getLogger(ParallelNotificationConsumer.class);
+    public static final String CONSUMER_GROUP = "notification-service-parallel-group";
+    
+    private final NotificationService notificationService;
+    private final KeyOrderedParallelProcessor<String, OrderPlacedEvent> processor;
+    
+    public ParallelNotificationConsumer(
+        NotificationService notificationService,
+        @Value("${notification.parallel.workers:16}") int workers,
+        @Value("${notification.parallel.max-in-flight:1000}") int maxInFlight,
+        @Value("${notification.parallel.ordering-key:orderId}") String orderingKey,
+        @Value("${notification.parallel.max-attempts:3}") int maxAttempts,
+        @Value("${notification.parallel.retry-backoff-ms:500}") long retryBackoffMs,
+        @Value("${notification.parallel.revoke-timeout-seconds:20}") long revokeTimeoutSeconds
+    ) {
+        this.notificationService = notificationService;
+        Function<ConsumerRecord<String, OrderPlacedEvent>, Object> keyOf = "customerId".equals(orderingKey)
+            ? record -> record.value() != null ? record.value().customerId() : null
+            : record -> record.value() != null ? record.value().orderId() : record.key();
+        this.processor = new KeyOrderedParallelProcessor<>(
+            "parallel-notification",
+            workers,
+            maxInFlight,
+            keyOf,
+            this::handle,
+            maxAttempts,
+            retryBackoffMs,
+            Duration.ofSeconds(revokeTimeoutSeconds)
+        );
+        log.info("=== Parallel Consumer: {} workers, ordered by {}, max {} in flight ===", workers, orderingKey, maxInFlight);
+    }
+    
+    // Rebalance listener of parallelKafkaListenerContainerFactory
+    public KeyOrderedParallelProcessor<String, OrderPlacedEvent> processor() {
+        return processor;
+    }
+    
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "parallelKafkaListenerContainerFactory"
+    )
+    public void consume(List<ConsumerRecord<String, OrderPlacedEvent>> records, Consumer<?, ?> consumer) {
+        log.debug("Parallel Consumer: Dispatching {} records", records.size());
+        processor.process(records, consumer);
+    }
+    
+    @PreDestroy
+    public void close() {
+        processor.close();
+    }
+    
+    // Runs on a lane - other keys proceed meanwhile
+    private void handle(ConsumerRecord<String, OrderPlacedEvent> record) {
+        OrderPlacedEvent event = record.value();
+        if (event == null) {
+            return;
+        }
+        // Redelivery after a rebalance is possible for records that were in flight
+        if (notificationService.findByOrderId(event.orderId()).isPresent()) {
+            log.debug("Parallel Consumer: Order {} already notified - skipping", event.orderId());
+            return;
+        }
+        
+        notificationService.sendEmailNotification(event);
+        notificationService.saveNotification(
+            event,
+            "EMAIL",
+            "SENT",
+            "Order confirmation email sent (parallel)",
+            record.partition(),
+            record.offset(),
+            CONSUMER_GROUP,
+            "parallel"
+        );
+    }
+}
@@ -1,7 +1,9 @@
 package in.codefarm.notification.service.as.consumer.consumer;
 
+import in.codefarm.notification.service.as.consumer.dedupe.PartitionDedupeCache;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import in.codefarm.notification.service.as.consumer.lazy.LazyRecord;
 import in.codefarm.notification.service.as.consumer.service.NotificationService;
 import in.codefarm.notification.service.as.consumer.service.PaymentService;
 import org.slf4j.Logger;
@@ -21,41 +23,55 @@ public class PaymentServiceConsumer {
     
     private final NotificationService notificationService;
     private final PaymentService paymentService;
+    private final PartitionDedupeCache paymentOrderDedupeCache;
+    private final PartitionDedupeCache paymentDedupeCache;
     
     public PaymentServiceConsumer(
         NotificationService notificationService,
-        PaymentService paymentService
+        PaymentService paymentService,
+        PartitionDedupeCache paymentOrderDedupeCache,
+        PartitionDedupeCache paymentDedupeCache
     ) {
         this.notificationService = notificationService;
         this.paymentService = paymentService;
+        this.paymentOrderDedupeCache = paymentOrderDedupeCache;
+        this.paymentDedupeCache = paymentDedupeCache;
     }
     
     /**
      * Consumer for OrderPlacedEvent - Idempotent processing
-     * This consumer demonstrates idempotent processing to handle duplicates gracefully
+     * This consumer demonstrates idempotent processing to handle duplicates gracefully.
+     * The record arrives undecoded: orderId and orderDate are scanned from the JSON for the dedupe check, and only
+     * new orders are bound to an OrderPlacedEvent - replays are mostly duplicates and never pay for a full decode.
      */
     @KafkaListener(
         topics = "orders",
         groupId = ORDER_CONSUMER_GROUP,
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "lazyOrderKafkaListenerContainerFactory"
     )
     public void consumeOrderPlacedEvent(
-        @Payload OrderPlacedEvent event,
+        @Payload LazyRecord<OrderPlacedEvent> record,
         @Header(KafkaHeaders.RECEIVED_KEY) String key,
         @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
         @Header(KafkaHeaders.OFFSET) long offset
     ) {
-        log.info("Order received - OrderId: {}, TransactionId: {}, Customer: {}", 
-            event.orderId(), event.transactionId(), event.customerId());
+        String orderId = record.field("orderId");
+        if (orderId == null) {
+            // Not the usual layout - fall back to the full decode
+            orderId = record.value().orderId();
+        }
+        log.info("Order received - OrderId: {}", orderId);
         
-        // Idempotency check - check if already processed
-        var existingNotification = notificationService.findByOrderId(event.orderId());
-        if (existingNotification.isPresent()) {
-            log.warn("Order {} already processed - skipping (idempotency). TransactionId: {}", 
-                event.orderId(), event.transactionId());
+        // Idempotency check - the partition's dedupe cache answers recent orders, older ones go to the DB
+        if (paymentOrderDedupeCache.isDuplicate(partition, orderId, record.dateTimeField("orderDate"),
+                id -> notificationService.findByOrderId(id).isPresent())) {
+            log.warn("Order {} already processed - skipping (idempotency)", orderId);
             return;
         }
         
+        OrderPlacedEvent event = record.value();
+        log.info("Order accepted - OrderId: {}, TransactionId: {}, Customer: {}",
+            event.orderId(), event.transactionId(), event.customerId());
         try {
             notificationService.sendEmailNotification(event);
             notificationService.saveNotification(
@@ -68,6 +84,7 @@ public class PaymentServiceConsumer {
                 ORDER_CONSUMER_GROUP,
                 "idempotent-order-consumer"
             );
+            paymentOrderDedupeCache.record(partition, event.orderId());
             log.info("Order processed - OrderId: {}, TransactionId: {}", event.orderId(), event.transactionId());
         } catch (Exception e) {
             log.error("Error processing order {} - TransactionId: {}", event.orderId(), event.transactionId(), e);
@@ -87,25 +104,32 @@ public class PaymentServiceConsumer {
         containerFactory = "paymentKafkaListenerContainerFactory"
     )
     public void consumePaymentProcessedEvent(
-        @Payload PaymentProcessedEvent event,
+        @Payload LazyRecord<PaymentProcessedEvent> record,
         @Header(KafkaHeaders.RECEIVED_KEY) String key,
         @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
         @Header(KafkaHeaders.OFFSET) long offset
     ) {
-        log.info("Payment received - PaymentId: {}, OrderId: {}, TransactionId: {}, Amount: {}", 
-            event.paymentId(), event.orderId(), event.transactionId(), event.amount());
+        // Same as orders: dedupe on the scanned paymentId, decode only new payments
+        String paymentId = record.field("paymentId");
+        if (paymentId == null) {
+            paymentId = record.value().paymentId();
+        }
+        log.info("Payment received - PaymentId: {}", paymentId);
         
-        // Idempotency check - check if payment already processed
-        var existingPayment = paymentService.findPaymentByPaymentId(event.paymentId());
-        if (existingPayment.isPresent()) {
-            log.warn("Payment {} already processed - skipping (idempotency). TransactionId: {}", 
-                event.paymentId(), event.transactionId());
+        // Idempotency check - the partition's dedupe cache answers recent payments, older ones go to the DB
+        if (paymentDedupeCache.isDuplicate(partition, paymentId, record.dateTimeField("processedAt"),
+                id -> paymentService.findPaymentByPaymentId(id).isPresent())) {
+            log.warn("Payment {} already processed - skipping (idempotency)", paymentId);
             return;
         }
         
+        PaymentProcessedEvent event = record.value();
+        log.info("Payment accepted - PaymentId: {}, OrderId: {}, TransactionId: {}, Amount: {}",
+            event.paymentId(), event.orderId(), event.transactionId(), event.amount());
         try {
             // Save payment to database
             paymentService.savePayment(event, partition, offset, PAYMENT_CONSUMER_GROUP);
+            paymentDedupeCache.record(partition, event.paymentId());
             
             // Check for inconsistency: payment exists but order might not
             // Note: This is a best-effort check. Order event might arrive later (different topic/partition)
@@ -0,0 +1,127 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.exception.OrderIsInvalid;
+import in.codefarm.notification.service.as.consumer.exception.TransientDownstreamException;
+import in.codefarm.notification.service.as.consumer.retry.RetryTierMetrics;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.BackOff;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scenario 11: Non-Blocking Retries (notification.retry-topics.enabled=true)
+ *
+ * A failed record is republished to a delay topic and the partition moves on, instead of the error handler
+ * retrying it in place while everything behind it waits:
+ *
+ * orders -> orders-retry-1000 -> orders-retry-10000 -> orders-retry-60000 -> orders-dlt
+ *
+ * TransientDownstreamException walks the tiers; OrderIsInvalid will not succeed on a retry and goes straight to
+ * the DLT. Ordering per key is given up for failed records - a retried notification can arrive after a later one.
+ * Counts per tier and outcome are in RetryTierMetrics.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.retry-topics.enabled", havingValue = "true")
+public class RetryingNotificationConsumer {
+    
+    private static final Logger log = LoggerFactory.getLogger(RetryingNotificationConsumer.class);
+    private static final String CONSUMER_GROUP = "notification-service-retry-group";
+    private static final int MAX_MESSAGE_LENGTH = 255;
+    
+    private final NotificationService notificationService;
+    private final RetryTierMetrics retryTierMetrics;
+    
+    public RetryingNotificationConsumer(NotificationService notificationService, RetryTierMetrics retryTierMetrics) {
+        this.notificationService = notificationService;
+        this.retryTierMetrics = retryTierMetrics;
+    }
+    
+    // attempts = first delivery + one per tier; delays 1s, 10s, then 100s capped to 60s.
+    // The delay is part of each retry topic's name, so changing the tiers means new topics.
+    @RetryableTopic(
+        attempts = "${notification.retry.attempts:4}",
+        backOff = @BackOff(
+            delayString = "${notification.retry.first-delay-ms:1000}",
+            multiplierString = "${notification.retry.multiplier:10}",
+            maxDelayString = "${notification.retry.max-delay-ms:60000}"
+        ),
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_DELAY_VALUE,
+        dltStrategy = DltStrategy.FAIL_ON_ERROR,
+        exclude = {OrderIsInvalid.class},
+        traversingCauses = "true"
+    )
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consume(
+        @Payload OrderPlacedEvent event,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset
+    ) throws OrderIsInvalid {
+        String tier = RetryTierMetrics.tierOf(topic);
+        try {
+            notificationService.sendNotication(event.orderId(), event.customerId());
+        } catch (TransientDownstreamException e) {
+            retryTierMetrics.attempt(tier, "transient");
+            log.warn("=== Retrying Consumer: Order {} failed in tier {}, passing it on ===", event.orderId(), tier);
+            throw e;
+        } catch (OrderIsInvalid e) {
+            retryTierMetrics.attempt(tier, "invalid");
+            throw e;
+        }
+        
+        notificationService.saveNotification(
+            event,
+            "EMAIL",
+            "SENT",
+            "Order confirmation email sent (tier " + tier + ")",
+            partition,
+            offset,
+            CONSUMER_GROUP,
+            "retryTopics"
+        );
+        retryTierMetrics.attempt(tier, "sent");
+    }
+    
+    @DltHandler
+    public void handleDlt(
+        @Payload OrderPlacedEvent event,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset,
+        @Header(name = KafkaHeaders.DLT_EXCEPTION_FQCN, required = false) String exceptionClass,
+        @Header(name = KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, required = false) String causeClass,
+        @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) String exceptionMessage
+    ) {
+        // The listener's exception usually arrives wrapped in ListenerExecutionFailedException
+        String failedWith = causeClass != null ? causeClass : exceptionClass;
+        String reason = failedWith == null ? "unknown" : failedWith.substring(failedWith.lastIndexOf('.') + 1);
+        retryTierMetrics.deadLettered(reason);
+        log.error("=== Retrying Consumer: Order {} dead-lettered ({}): {} ===", event.orderId(), reason, exceptionMessage);
+        
+        String message = reason + ": " + exceptionMessage;
+        notificationService.saveNotification(
+            event,
+            "EMAIL",
+            "FAILED",
+            message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message,
+            partition,
+            offset,
+            CONSUMER_GROUP,
+            "retryTopicsDlt"
+        );
+    }
+}
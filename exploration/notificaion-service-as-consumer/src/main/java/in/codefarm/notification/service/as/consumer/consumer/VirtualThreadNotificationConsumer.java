@@ -0,0 +1,189 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.backpressure.QueueDepthSource;
+import in.codefarm.notification.service.as.consumer.envelope.EnvelopeCompletions;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.rebalance.InFlightRecords;
+import in.codefarm.notification.service.as.consumer.rebalance.RebalanceParticipant;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scenario 9: Virtual-Thread Consumer (notification.virtual-listener.enabled=true)
+ *
+ * The listener thread only hands each record to a virtual thread and returns its future; the provider call
+ * blocks the virtual thread, not the container. Up to max-in-flight records of this container are in progress;
+ * past that the listener thread waits for a slot. The container acks a record once its future completes - for
+ * orders that came in one envelope, once all of them have completed, as they share the envelope's offset.
+ *
+ * Throughput tops out near max-in-flight / downstream latency - every 10 s the measured rate is logged next to
+ * that ceiling, so runs with different notification.downstream.latency-ms values can be compared;
+ * VirtualThreadNotificationConsumerBenchmarkTest sweeps them and tabulates records/sec.
+ * Slots in use are reported to BackpressureController, which pauses the container before it blocks on a full set.
+ * On revocation the records of the revoked partitions still in flight are waited for (up to
+ * notification.rebalance.flush-timeout-ms) before the container commits.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.virtual-listener.enabled", havingValue = "true")
+public class VirtualThreadNotificationConsumer implements QueueDepthSource, RebalanceParticipant {
+    
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadNotificationConsumer.class);
+    private static final String CONSUMER_GROUP = "notification-service-virtual-thread-group";
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    
+    private final NotificationService notificationService;
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxInFlight;
+    private final Semaphore slots;
+    private final LongAdder completed = new LongAdder();
+    private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime());
+    private final InFlightRecords inFlightRecords = new InFlightRecords();
+    private final EnvelopeCompletions envelopeCompletions = new EnvelopeCompletions();
+    private final Duration flushTimeout;
+    
+    public VirtualThreadNotificationConsumer(
+        NotificationService notificationService,
+        @Value("${notification.virtual-listener.max-in-flight:200}") int maxInFlight,
+        @Value("${notification.rebalance.flush-timeout-ms:20000}") long flushTimeoutMs
+    ) {
+        this.notificationService = notificationService;
+        this.maxInFlight = maxInFlight;
+        this.slots = new Semaphore(maxInFlight);
+        this.flushTimeout = Duration.ofMillis(flushTimeoutMs);
+    }
+    
+    @KafkaListener(
+        topics = "orders",
+        groupId = CONSUMER_GROUP,
+        containerFactory = "virtualThreadKafkaListenerContainerFactory"
+    )
+    public CompletableFuture<Void> consume(
+        @Payload OrderPlacedEvent event,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset,
+        ConsumerRecord<?, ?> record
+    ) throws InterruptedException {
+        slots.acquire();
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
+        inFlightRecords.begin(topicPartition);
+        try {
+            var processed = CompletableFuture.runAsync(() -> process(event, partition, offset), virtualThreads)
+                .whenComplete((ignored, e) -> {
+                    inFlightRecords.end(topicPartition);
+                    slots.release();
+                    if (e != null) {
+                        log.error("=== Virtual-Thread Consumer: Error processing order {} ===", event.orderId(), e);
+                    } else {
+                        completed.increment();
+                        reportThroughput();
+                    }
+                });
+            // Orders from one envelope share its offset - acked together once the last of them is done
+            return envelopeCompletions.hold(record, processed);
+        } catch (RuntimeException e) {
+            inFlightRecords.end(topicPartition);
+            slots.release(); // executor rejected the task
+            throw e;
+        }
+    }
+
+    // Revoked partitions: wait for their records still in flight, so the container's revoke commit covers them
+    @Override
+    public Map<TopicPartition, OffsetAndMetadata> flush(String groupId, Collection<TopicPartition> revoked) {
+        if (CONSUMER_GROUP.equals(groupId)) {
+            int abandoned = inFlightRecords.awaitDrained(revoked, flushTimeout);
+            if (abandoned > 0) {
+                log.warn("=== Virtual-Thread Consumer: {} records still in flight on revoked {} - the next owner will redeliver them ===",
+                    abandoned, revoked);
+            }
+        }
+        return Map.of();
+    }
+    
+    @Override
+    public void release(String groupId, Collection<TopicPartition> partitions) {
+        if (CONSUMER_GROUP.equals(groupId)) {
+            inFlightRecords.forget(partitions);
+            envelopeCompletions.forget(partitions);
+        }
+    }
+    
+    @Override
+    public String groupId() {
+        return CONSUMER_GROUP;
+    }
+    
+    @Override
+    public int depth() {
+        return maxInFlight - slots.availablePermits();
+    }
+    
+    @Override
+    public int capacity() {
+        return maxInFlight;
+    }
+    
+    @PreDestroy
+    public void close() {
+        virtualThreads.close();
+    }
+    
+    private void process(OrderPlacedEvent event, int partition, long offset) {
+        try {
+            notificationService.sendEmailViaProvider(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted sending email for order " + event.orderId(), e);
+        }
+        notificationService.saveNotification(
+            event,
+            "EMAIL",
+            "SENT",
+            "Order confirmation email sent (virtual thread)",
+            partition,
+            offset,
+            CONSUMER_GROUP,
+            "virtual-thread"
+        );
+    }
+    
+    private void reportThroughput() {
+        long now = System.nanoTime();
+        long last = lastReportNanos.get();
+        if (now - last < REPORT_INTERVAL_NANOS || !lastReportNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long records = completed.sumThenReset();
+        long latencyMs = Math.max(1, notificationService.downstreamLatencyMs());
+        log.info("=== Virtual-Thread Consumer: {} records/sec (downstream latency {} ms, in flight {}/{}, ceiling ~{} records/sec) ===",
+            records * TimeUnit.SECONDS.toNanos(1) / (now - last),
+            latencyMs,
+            maxInFlight - slots.availablePermits(),
+            maxInFlight,
+            maxInFlight * 1000L / latencyMs);
+    }
+}
@@ -0,0 +1,30 @@
+package in.codefarm.notification.service.as.consumer.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor for keyset pages: the last id of the previous page, base64url-encoded
+final class KeysetCursor {
+    
+    private static final String PREFIX = "id:";
+    
+    private KeysetCursor() {
+    }
+    
+    static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    // No cursor means the first page; anything that does not decode is rejected
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        if (!decoded.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return Long.parseLong(decoded.substring(PREFIX.length()));
+    }
+}
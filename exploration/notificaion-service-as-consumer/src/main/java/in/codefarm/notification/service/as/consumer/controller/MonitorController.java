@@ -0,0 +1,53 @@
+package in.codefarm.notification.service.as.consumer.controller;
+
+import in.codefarm.notification.service.as.consumer.backpressure.BackpressureController;
+import in.codefarm.notification.service.as.consumer.dto.BackpressureState;
+import in.codefarm.notification.service.as.consumer.dto.ConsumerLagResponse;
+import in.codefarm.notification.service.as.consumer.dto.LatencySummary;
+import in.codefarm.notification.service.as.consumer.monitor.ConsumerLagMonitor;
+import in.codefarm.notification.service.as.consumer.monitor.EndToEndLatencyRecorder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/monitor")
+public class MonitorController {
+    
+    private final ConsumerLagMonitor consumerLagMonitor;
+    private final EndToEndLatencyRecorder endToEndLatencyRecorder;
+    private final BackpressureController backpressureController;
+    
+    public MonitorController(
+        ConsumerLagMonitor consumerLagMonitor,
+        EndToEndLatencyRecorder endToEndLatencyRecorder,
+        BackpressureController backpressureController
+    ) {
+        this.consumerLagMonitor = consumerLagMonitor;
+        this.endToEndLatencyRecorder = endToEndLatencyRecorder;
+        this.backpressureController = backpressureController;
+    }
+    
+    // Last scheduled snapshot; refresh=true reads the offsets now
+    @GetMapping("/lag")
+    public ResponseEntity<ConsumerLagResponse> lag(@RequestParam(defaultValue = "false") boolean refresh) {
+        if (refresh) {
+            consumerLagMonitor.refresh();
+        }
+        return ResponseEntity.ok(consumerLagMonitor.latest());
+    }
+    
+    @GetMapping("/latency")
+    public ResponseEntity<List<LatencySummary>> latency() {
+        return ResponseEntity.ok(endToEndLatencyRecorder.summaries());
+    }
+    
+    @GetMapping("/backpressure")
+    public ResponseEntity<List<BackpressureState>> backpressure() {
+        return ResponseEntity.ok(backpressureController.states());
+    }
+}
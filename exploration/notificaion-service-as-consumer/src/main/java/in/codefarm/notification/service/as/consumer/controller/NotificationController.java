@@ -2,34 +2,72 @@ package in.codefarm.notification.service.as.consumer.controller;
 
 import in.codefarm.notification.service.as.consumer.dto.ConsistencyCheckResponse;
 import in.codefarm.notification.service.as.consumer.dto.InconsistencyResponse;
+import in.codefarm.notification.service.as.consumer.dto.NotificationStatsResponse;
 import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
 import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
 import in.codefarm.notification.service.as.consumer.service.NotificationService;
 import in.codefarm.notification.service.as.consumer.service.PaymentService;
+import in.codefarm.notification.service.as.consumer.stats.NotificationStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final NotificationService notificationService;
     private final PaymentService paymentService;
+    private final NotificationStats notificationStats;
+    private final ObjectWriter streamWriter;
+    private final int defaultPageSize;
+    private final int maxPageSize;
     
     public NotificationController(
         NotificationService notificationService,
-        PaymentService paymentService
+        PaymentService paymentService,
+        NotificationStats notificationStats,
+        JsonMapper jsonMapper,
+        @Value("${notification.listing.default-page-size:100}") int defaultPageSize,
+        @Value("${notification.listing.max-page-size:1000}") int maxPageSize
     ) {
         this.notificationService = notificationService;
         this.paymentService = paymentService;
+        this.notificationStats = notificationStats;
+        // Let the response buffer decide when to flush instead of flushing after every element
+        this.streamWriter = jsonMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
     
+    // Listings are keyset pages on id: pass the X-Next-Cursor of one response as ?cursor= to get the next.
+    // The /stream variants return the whole result as one JSON array, written row by row.
+    
     @GetMapping
-    public ResponseEntity<List<NotificationEntity>> getAllNotifications() {
-        return ResponseEntity.ok(notificationService.findAll());
+    public ResponseEntity<List<NotificationEntity>> getAllNotifications(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return page(cursor, limit, notificationService::findPage, NotificationEntity::getId);
+    }
+    
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllNotifications() {
+        return stream(notificationService::streamAll);
     }
     
     @GetMapping("/order/{orderId}")
@@ -41,31 +79,59 @@ public class NotificationController {
     
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<List<NotificationEntity>> getNotificationsByCustomerId(
-        @PathVariable String customerId
+        @PathVariable String customerId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
-        return ResponseEntity.ok(notificationService.findByCustomerId(customerId));
+        return page(cursor, limit,
+            (afterId, size) -> notificationService.findPageByCustomerId(customerId, afterId, size),
+            NotificationEntity::getId);
+    }
+    
+    @GetMapping("/customer/{customerId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamNotificationsByCustomerId(@PathVariable String customerId) {
+        return stream(sink -> notificationService.streamByCustomerId(customerId, sink));
     }
     
     @GetMapping("/status/{status}")
     public ResponseEntity<List<NotificationEntity>> getNotificationsByStatus(
-        @PathVariable String status
+        @PathVariable String status,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
-        return ResponseEntity.ok(notificationService.findByStatus(status));
+        return page(cursor, limit,
+            (afterId, size) -> notificationService.findPageByStatus(status, afterId, size),
+            NotificationEntity::getId);
+    }
+    
+    @GetMapping("/status/{status}/stream")
+    public ResponseEntity<StreamingResponseBody> streamNotificationsByStatus(@PathVariable String status) {
+        return stream(sink -> notificationService.streamByStatus(status, sink));
     }
     
     @GetMapping("/method/{consumerMethod}")
     public ResponseEntity<List<NotificationEntity>> getNotificationsByConsumerMethod(
-        @PathVariable String consumerMethod
+        @PathVariable String consumerMethod,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
-        return ResponseEntity.ok(notificationService.findByConsumerMethod(consumerMethod));
+        return page(cursor, limit,
+            (afterId, size) -> notificationService.findPageByConsumerMethod(consumerMethod, afterId, size),
+            NotificationEntity::getId);
     }
     
+    @GetMapping("/method/{consumerMethod}/stream")
+    public ResponseEntity<StreamingResponseBody> streamNotificationsByConsumerMethod(@PathVariable String consumerMethod) {
+        return stream(sink -> notificationService.streamByConsumerMethod(consumerMethod, sink));
+    }
+    
+    // Served from in-memory counters - see NotificationStats
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Long>> getNotificationStats() {
-        var total = (long) notificationService.findAll().size();
-        var sent = notificationService.countByStatus("SENT");
-        var failed = notificationService.countByStatus("FAILED");
-        var pending = notificationService.countByStatus("PENDING");
+        var total = notificationStats.total();
+        var sent = notificationStats.countByStatus("SENT");
+        var failed = notificationStats.countByStatus("FAILED");
+        var pending = notificationStats.countByStatus("PENDING");
         
         return ResponseEntity.ok(Map.of(
             "total", total,
@@ -75,14 +141,27 @@ public class NotificationController {
         ));
     }
     
+    @GetMapping("/stats/breakdown")
+    public ResponseEntity<NotificationStatsResponse> getNotificationStatsBreakdown() {
+        return ResponseEntity.ok(notificationStats.snapshot());
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Notification Service is running!");
     }
     
     @GetMapping("/payments")
-    public ResponseEntity<List<PaymentEntity>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.findAllPayments());
+    public ResponseEntity<List<PaymentEntity>> getAllPayments(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return page(cursor, limit, paymentService::findPaymentPage, PaymentEntity::getId);
+    }
+    
+    @GetMapping("/payments/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        return stream(paymentService::streamAllPayments);
     }
     
     @GetMapping("/payments/order/{orderId}")
@@ -141,5 +220,46 @@ public class NotificationController {
             message
         ));
     }
+    
+    // Fetches one row more than asked for, so the next cursor is only sent when another page exists
+    private <T> ResponseEntity<List<T>> page(
+        String cursor,
+        Integer limit,
+        BiFunction<Long, Integer, List<T>> query,
+        ToLongFunction<T> idOf
+    ) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        long afterId;
+        try {
+            afterId = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        List<T> rows = query.apply(afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return ResponseEntity.ok(rows);
+        }
+        List<T> page = rows.subList(0, pageSize);
+        return ResponseEntity.ok()
+            .header(NEXT_CURSOR_HEADER, KeysetCursor.encode(idOf.applyAsLong(page.get(pageSize - 1))))
+            .body(page);
+    }
+    
+    // Writes a JSON array element by element from a DB cursor - memory stays flat whatever the result size
+    private <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = streamWriter.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                source.accept(row -> streamWriter.writeValue(generator, row));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
 }
-
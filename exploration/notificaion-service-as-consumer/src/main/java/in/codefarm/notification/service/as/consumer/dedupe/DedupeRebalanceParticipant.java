@@ -0,0 +1,52 @@
+package in.codefarm.notification.service.as.consumer.dedupe;
+
+import in.codefarm.notification.service.as.consumer.rebalance.RebalanceParticipant;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Warms and drops PartitionDedupeCache partitions as the owning consumer gains and loses them. One participant
+ * serves every container; each cache only reacts to its own group and topic.
+ */
+@Component
+public class DedupeRebalanceParticipant implements RebalanceParticipant {
+    
+    private final List<PartitionDedupeCache> caches;
+    
+    public DedupeRebalanceParticipant(List<PartitionDedupeCache> caches) {
+        this.caches = caches;
+    }
+    
+    @Override
+    public void warm(String groupId, Collection<TopicPartition> assigned) {
+        forEachCache(groupId, assigned, PartitionDedupeCache::assigned);
+    }
+    
+    @Override
+    public void release(String groupId, Collection<TopicPartition> partitions) {
+        forEachCache(groupId, partitions, PartitionDedupeCache::revoked);
+    }
+    
+    private void forEachCache(
+        String groupId,
+        Collection<TopicPartition> partitions,
+        BiConsumer<PartitionDedupeCache, List<Integer>> action
+    ) {
+        for (PartitionDedupeCache cache : caches) {
+            if (!cache.groupId().equals(groupId)) {
+                continue;
+            }
+            List<Integer> cachePartitions = partitions.stream()
+                .filter(partition -> partition.topic().equals(cache.topic()))
+                .map(TopicPartition::partition)
+                .toList();
+            if (!cachePartitions.isEmpty()) {
+                action.accept(cache, cachePartitions);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package in.codefarm.notification.service.as.consumer.dedupe;
+
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Recently processed keys of one consumer group on one topic, per assigned partition, so idempotency checks
+ * do not need a DB read for every record.
+ *
+ * For each partition the cache holds every key processed since coveredSince: warmed from the DB when the
+ * partition is assigned, kept current by record(), dropped when it is revoked. A duplicate was first processed
+ * after its event was created, so for an event newer than coveredSince a miss proves the key is new. Older
+ * events - and partitions this instance does not own - fall through to the DB.
+ *
+ * Entries expire after the window, or oldest-first once a partition holds max-entries; both move coveredSince
+ * forward. Event times are shifted back by the allowed clock skew between services.
+ */
+public class PartitionDedupeCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(PartitionDedupeCache.class);
+    
+    public enum Lookup { SEEN, NEW, UNKNOWN }
+    
+    @FunctionalInterface
+    public interface WarmLoader {
+        // Keys processed on the partition since the given time, newest first, at most limit
+        List<ProcessedKey> load(int partition, LocalDateTime since, int limit);
+    }
+    
+    private final String groupId;
+    private final String topic;
+    private final long windowMillis;
+    private final int maxEntriesPerPartition;
+    private final long clockSkewMillis;
+    private final WarmLoader warmLoader;
+    private final Map<Integer, PartitionKeys> partitions = new ConcurrentHashMap<>();
+    
+    public PartitionDedupeCache(
+        String groupId,
+        String topic,
+        Duration window,
+        int maxEntriesPerPartition,
+        Duration clockSkew,
+        WarmLoader warmLoader
+    ) {
+        this.groupId = groupId;
+        this.topic = topic;
+        this.windowMillis = window.toMillis();
+        this.maxEntriesPerPartition = maxEntriesPerPartition;
+        this.clockSkewMillis = clockSkew.toMillis();
+        this.warmLoader = warmLoader;
+    }
+    
+    public String groupId() {
+        return groupId;
+    }
+    
+    public String topic() {
+        return topic;
+    }
+    
+    public void assigned(Collection<Integer> assignedPartitions) {
+        for (int partition : assignedPartitions) {
+            long since = System.currentTimeMillis() - windowMillis;
+            List<ProcessedKey> recent = warmLoader.load(partition, toLocalDateTime(since), maxEntriesPerPartition);
+            
+            // Hitting the limit means older keys were left out - coverage starts after the oldest one loaded
+            long coveredSince = recent.size() < maxEntriesPerPartition
+                ? since
+                : toMillis(recent.get(recent.size() - 1).processedAt()) + 1;
+            PartitionKeys keys = new PartitionKeys(coveredSince);
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                keys.put(recent.get(i).key(), toMillis(recent.get(i).processedAt()));
+            }
+            partitions.put(partition, keys);
+            log.info("=== Dedupe Cache: {} {}-{} warmed with {} keys ===", groupId, topic, partition, recent.size());
+        }
+    }
+    
+    public void revoked(Collection<Integer> revokedPartitions) {
+        for (int partition : revokedPartitions) {
+            if (partitions.remove(partition) != null) {
+                log.info("=== Dedupe Cache: {} {}-{} dropped ===", groupId, topic, partition);
+            }
+        }
+    }
+    
+    public Lookup lookup(int partition, String key, LocalDateTime eventTime) {
+        PartitionKeys keys = partitions.get(partition);
+        if (keys == null) {
+            return Lookup.UNKNOWN;
+        }
+        long eventMillis = eventTime != null ? toMillis(eventTime) - clockSkewMillis : Long.MIN_VALUE;
+        return keys.lookup(key, eventMillis, System.currentTimeMillis());
+    }
+    
+    // Cache answer when it has one, otherwise existsInDb - a key found there is cached so it is not read twice
+    public boolean isDuplicate(int partition, String key, LocalDateTime eventTime, Predicate<String> existsInDb) {
+        Lookup lookup = lookup(partition, key, eventTime);
+        if (lookup != Lookup.UNKNOWN) {
+            return lookup == Lookup.SEEN;
+        }
+        boolean exists = existsInDb.test(key);
+        if (exists) {
+            record(partition, key);
+        }
+        return exists;
+    }
+    
+    // Call once the key's processing is committed
+    public void record(int partition, String key) {
+        PartitionKeys keys = partitions.get(partition);
+        if (keys != null) {
+            keys.put(key, System.currentTimeMillis());
+        }
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+    
+    // Keys in processing-time order; a partition is only touched by the consumer thread that owns it
+    private final class PartitionKeys {
+        private final LinkedHashMap<String, Long> processedAt = new LinkedHashMap<>();
+        private long coveredSince;
+        
+        private PartitionKeys(long coveredSince) {
+            this.coveredSince = coveredSince;
+        }
+        
+        private synchronized Lookup lookup(String key, long eventMillis, long now) {
+            expire(now);
+            if (processedAt.containsKey(key)) {
+                return Lookup.SEEN;
+            }
+            return eventMillis >= coveredSince ? Lookup.NEW : Lookup.UNKNOWN;
+        }
+        
+        private synchronized void put(String key, long millis) {
+            processedAt.putIfAbsent(key, millis);
+            while (processedAt.size() > maxEntriesPerPartition) {
+                evictEldest();
+            }
+        }
+        
+        private void expire(long now) {
+            coveredSince = Math.max(coveredSince, now - windowMillis);
+            while (!processedAt.isEmpty() && processedAt.values().iterator().next() < coveredSince) {
+                evictEldest();
+            }
+        }
+        
+        private void evictEldest() {
+            var iterator = processedAt.entrySet().iterator();
+            long eldest = iterator.next().getValue();
+            iterator.remove();
+            coveredSince = Math.max(coveredSince, eldest + 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package in.codefarm.notification.service.as.consumer.dispatch;
+
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves delivered notifications off the dispatcher's sender threads, so a sender goes back to its channel queue as
+ * soon as the provider call returns.
+ *
+ * submit() only queues. One writer thread saves whatever has queued since its last save with a single
+ * NotificationService.saveNotifications call (one transaction), up to save-batch-size at a time. Each future
+ * completes once its transaction commits, or fails with it.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.dispatch.enabled", havingValue = "true")
+public class DeliveredNotificationWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveredNotificationWriter.class);
+
+    private record PendingSave(NotificationEntity notification, CompletableFuture<Void> saved) {
+    }
+
+    private final NotificationService notificationService;
+    private final int batchSize;
+    // Not bounded itself: it only holds what the dispatcher's bounded channel queues have already delivered
+    private final BlockingQueue<PendingSave> queue = new LinkedBlockingQueue<>();
+    private final Thread writer = new Thread(this::writeLoop, "dispatch-writer");
+    private volatile boolean running;
+
+    public DeliveredNotificationWriter(
+        NotificationService notificationService,
+        @Value("${notification.dispatch.save-batch-size:500}") int batchSize
+    ) {
+        this.notificationService = notificationService;
+        this.batchSize = batchSize;
+    }
+
+    public CompletableFuture<Void> submit(NotificationEntity notification) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Notification writer is not running"));
+        }
+        var pending = new PendingSave(notification, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.saved();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer.start();
+        log.info("=== Dispatcher: Saving delivered notifications in batches of up to {} ===", batchSize);
+    }
+
+    // Saves what is still queued before returning - the dispatcher has stopped by now
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingSave left;
+        while ((left = queue.poll()) != null) {
+            left.saved().completeExceptionally(new IllegalStateException("Notification writer stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Below the dispatcher: started before it, stopped after it, so its last deliveries are still saved
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 300;
+    }
+
+    private void writeLoop() {
+        List<PendingSave> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSave first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                save(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void save(List<PendingSave> batch) {
+        List<NotificationEntity> notifications = new ArrayList<>(batch.size());
+        batch.forEach(pending -> notifications.add(pending.notification()));
+        try {
+            notificationService.saveNotifications(notifications);
+        } catch (RuntimeException e) {
+            log.warn("=== Dispatcher: Saving {} delivered notifications failed - {} ===", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.saved().completeExceptionally(e));
+            return;
+        }
+        batch.forEach(pending -> pending.saved().complete(null));
+    }
+}
@@ -0,0 +1,7 @@
+package in.codefarm.notification.service.as.consumer.dispatch;
+
+public enum NotificationChannel {
+    EMAIL,
+    SMS,
+    PUSH
+}
@@ -0,0 +1,232 @@
+package in.codefarm.notification.service.as.consumer.dispatch;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decouples listeners from provider calls (notification.dispatch.enabled=true).
+ *
+ * Each channel has a bounded queue drained by `senders` threads. A sender takes whatever is queued, waits at most
+ * max-wait-ms for the batch to fill up to batch-size (capped by the provider's maxBatchSize), makes one provider
+ * call and completes the future of every notification in it. A full queue makes dispatch wait up to
+ * enqueue-timeout-ms and then fail, which pushes back on the listener instead of growing the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.dispatch.enabled", havingValue = "true")
+public class NotificationDispatcher implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    
+    private final Map<NotificationChannel, ChannelQueue> channels = new EnumMap<>(NotificationChannel.class);
+    private final int queueCapacity;
+    private final long enqueueTimeoutMs;
+    private volatile boolean running;
+    
+    public NotificationDispatcher(
+        List<NotificationProvider> providers,
+        @Value("${notification.dispatch.queue-capacity:10000}") int queueCapacity,
+        @Value("${notification.dispatch.batch-size:100}") int batchSize,
+        @Value("${notification.dispatch.max-wait-ms:20}") long maxWaitMs,
+        @Value("${notification.dispatch.senders-per-channel:4}") int sendersPerChannel,
+        @Value("${notification.dispatch.enqueue-timeout-ms:5000}") long enqueueTimeoutMs
+    ) {
+        for (NotificationProvider provider : providers) {
+            channels.put(provider.channel(), new ChannelQueue(
+                provider,
+                queueCapacity,
+                Math.max(1, Math.min(batchSize, provider.maxBatchSize())),
+                TimeUnit.MILLISECONDS.toNanos(maxWaitMs),
+                sendersPerChannel
+            ));
+        }
+        this.queueCapacity = queueCapacity;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+    }
+    
+    public CompletableFuture<Void> dispatch(NotificationChannel channel, OrderPlacedEvent event) {
+        ChannelQueue queue = channels.get(channel);
+        if (queue == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("No provider for channel " + channel));
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Dispatcher is not running"));
+        }
+        
+        var pending = new PendingNotification(event, new CompletableFuture<>());
+        try {
+            if (!queue.queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(channel + " queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return pending.future();
+    }
+    
+    // Depth of the fullest channel queue - the one the listener will block on first
+    public int maxQueueDepth() {
+        int depth = 0;
+        for (ChannelQueue queue : channels.values()) {
+            depth = Math.max(depth, queue.queue.size());
+        }
+        return depth;
+    }
+    
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        channels.values().forEach(ChannelQueue::start);
+        channels.values().forEach(queue -> log.info("=== Dispatcher: {} - batch size {}, {} senders ===",
+            queue.provider.channel(), queue.batchSize, queue.senders.size()));
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        channels.values().forEach(ChannelQueue::stop);
+        log.info("=== Dispatcher: Stopped ===");
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Below the listener containers: started before them, stopped after them
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+    
+    private record PendingNotification(OrderPlacedEvent event, CompletableFuture<Void> future) {
+    }
+    
+    private final class ChannelQueue {
+        private final NotificationProvider provider;
+        private final BlockingQueue<PendingNotification> queue;
+        private final int batchSize;
+        private final long maxWaitNanos;
+        private final List<Thread> senders;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+        private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime());
+        
+        private ChannelQueue(NotificationProvider provider, int capacity, int batchSize, long maxWaitNanos, int senders) {
+            this.provider = provider;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.batchSize = batchSize;
+            this.maxWaitNanos = maxWaitNanos;
+            this.senders = new ArrayList<>(senders);
+            for (int i = 0; i < senders; i++) {
+                this.senders.add(new Thread(this::drainLoop, "dispatch-" + provider.channel().name().toLowerCase() + "-" + i));
+            }
+        }
+        
+        private void start() {
+            senders.forEach(Thread::start);
+        }
+        
+        private void stop() {
+            senders.forEach(Thread::interrupt);
+            for (Thread sender : senders) {
+                try {
+                    sender.join(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            PendingNotification left;
+            while ((left = queue.poll()) != null) {
+                left.future().completeExceptionally(new IllegalStateException("Dispatcher stopped"));
+            }
+        }
+        
+        private void drainLoop() {
+            List<PendingNotification> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    PendingNotification first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                    
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < batchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        PendingNotification next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                    send(batch);
+                } catch (InterruptedException e) {
+                    batch.forEach(pending -> pending.future().completeExceptionally(e));
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+        
+        private void send(List<PendingNotification> batch) throws InterruptedException {
+            List<OrderPlacedEvent> events = new ArrayList<>(batch.size());
+            batch.forEach(pending -> events.add(pending.event()));
+            try {
+                provider.send(events);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("=== Dispatcher: {} batch of {} failed - {} ===", provider.channel(), batch.size(), e.getMessage());
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+                return;
+            }
+            batch.forEach(pending -> pending.future().complete(null));
+            delivered.add(batch.size());
+            calls.increment();
+            report();
+        }
+        
+        private void report() {
+            long now = System.nanoTime();
+            long last = lastReportNanos.get();
+            if (now - last < REPORT_INTERVAL_NANOS || !lastReportNanos.compareAndSet(last, now)) {
+                return;
+            }
+            long sent = delivered.sumThenReset();
+            long providerCalls = calls.sumThenReset();
+            log.info("=== Dispatcher: {} {} notifications/sec, {} per provider call, {} queued ===",
+                provider.channel(),
+                sent * TimeUnit.SECONDS.toNanos(1) / (now - last),
+                providerCalls > 0 ? sent / providerCalls : 0,
+                queue.size());
+        }
+    }
+}
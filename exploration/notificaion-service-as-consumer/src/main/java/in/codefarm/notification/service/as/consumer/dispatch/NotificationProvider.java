@@ -0,0 +1,17 @@
+package in.codefarm.notification.service.as.consumer.dispatch;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+
+import java.util.List;
+
+// Delivery backend for one channel; NotificationDispatcher calls send from its sender threads
+public interface NotificationProvider {
+    
+    NotificationChannel channel();
+    
+    // Most notifications one send call accepts - 1 for providers without a bulk API
+    int maxBatchSize();
+    
+    // All-or-nothing: throwing fails every notification in the batch
+    void send(List<OrderPlacedEvent> events) throws Exception;
+}
@@ -0,0 +1,39 @@
+package in.codefarm.notification.service.as.consumer.dispatch;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+// Local stand-in for a provider: every call costs latencyMs, whatever the batch size
+public class StubNotificationProvider implements NotificationProvider {
+    
+    private static final Logger log = LoggerFactory.getLogger(StubNotificationProvider.class);
+    
+    private final NotificationChannel channel;
+    private final long latencyMs;
+    private final int maxBatchSize;
+    
+    public StubNotificationProvider(NotificationChannel channel, long latencyMs, int maxBatchSize) {
+        this.channel = channel;
+        this.latencyMs = latencyMs;
+        this.maxBatchSize = maxBatchSize;
+    }
+    
+    @Override
+    public NotificationChannel channel() {
+        return channel;
+    }
+    
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    @Override
+    public void send(List<OrderPlacedEvent> events) throws InterruptedException {
+        Thread.sleep(latencyMs);
+        log.debug("Stub {} provider: delivered {} notifications", channel, events.size());
+    }
+}
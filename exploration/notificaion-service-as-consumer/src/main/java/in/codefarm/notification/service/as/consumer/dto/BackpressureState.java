@@ -0,0 +1,18 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record BackpressureState(
+    String listenerId,
+    String groupId,
+    boolean paused,
+    String reason,
+    LocalDateTime pausedSince,
+    List<String> pausedPartitions,
+    double processingTimeMs,
+    double queueFill,
+    long pauses,
+    long totalPausedMs
+) {
+}
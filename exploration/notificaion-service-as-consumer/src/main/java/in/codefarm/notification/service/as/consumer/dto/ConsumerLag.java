@@ -0,0 +1,11 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+public record ConsumerLag(
+    String group,
+    String topic,
+    int partition,
+    long committedOffset,
+    long endOffset,
+    long lag
+) {
+}
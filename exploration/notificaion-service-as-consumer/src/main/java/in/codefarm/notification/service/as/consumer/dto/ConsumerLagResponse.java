@@ -0,0 +1,12 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public record ConsumerLagResponse(
+    LocalDateTime checkedAt,
+    Map<String, Long> totalLagByGroup,
+    List<ConsumerLag> partitions
+) {
+}
@@ -0,0 +1,14 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+public record LatencySummary(
+    String group,
+    String topic,
+    String source,
+    long count,
+    double meanMs,
+    double p50Ms,
+    double p95Ms,
+    double p99Ms,
+    double maxMs
+) {
+}
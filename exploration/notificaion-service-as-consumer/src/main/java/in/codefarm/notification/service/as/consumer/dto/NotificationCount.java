@@ -0,0 +1,11 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+// Row of the startup stats rebuild: how many notifications share these four attributes
+public record NotificationCount(
+    String status,
+    String consumerMethod,
+    String consumerGroup,
+    String notificationType,
+    long count
+) {
+}
@@ -0,0 +1,9 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import java.time.LocalDateTime;
+
+public record NotificationSentAt(
+    Long id,
+    LocalDateTime sentAt
+) {
+}
@@ -0,0 +1,14 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import java.util.Map;
+
+public record NotificationStatsResponse(
+    long total,
+    Map<String, Long> byStatus,
+    Map<String, Long> byConsumerMethod,
+    Map<String, Long> byConsumerGroup,
+    Map<String, Long> byNotificationType,
+    double sentPerSecondLastMinute,
+    double sentPerSecondLastHour
+) {
+}
@@ -0,0 +1,10 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import java.time.LocalDateTime;
+
+// A key (order id, payment id) a consumer group already processed, and when
+public record ProcessedKey(
+    String key,
+    LocalDateTime processedAt
+) {
+}
@@ -4,11 +4,20 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_order_id", columnList = "order_id"),
+    @Index(name = "idx_notifications_group_partition_created", columnList = "consumer_group, kafka_partition, created_at"),
+    // Keyset listings filter on one column and page on id
+    @Index(name = "idx_notifications_customer_id", columnList = "customer_id, id"),
+    @Index(name = "idx_notifications_status", columnList = "status, id"),
+    @Index(name = "idx_notifications_consumer_method", columnList = "consumer_method, id")
+})
 public class NotificationEntity {
     
+    // Sequence ids (allocated in blocks of 50) let Hibernate batch the inserts; IDENTITY disables JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
     
     private String orderId;
@@ -27,6 +36,10 @@ public class NotificationEntity {
     private String consumerGroup;
     private String consumerMethod;  // Which consumer method processed this
     
+    // Multi-channel rows only: per-channel result, e.g. "EMAIL=SENT:512ms,SMS=TIMED_OUT:1000ms,PUSH=SENT:103ms"
+    @Column(length = 512)
+    private String channelOutcomes;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -148,5 +161,13 @@ public class NotificationEntity {
     public void setConsumerMethod(String consumerMethod) {
         this.consumerMethod = consumerMethod;
     }
+    
+    public String getChannelOutcomes() {
+        return channelOutcomes;
+    }
+    
+    public void setChannelOutcomes(String channelOutcomes) {
+        this.channelOutcomes = channelOutcomes;
+    }
 }
 
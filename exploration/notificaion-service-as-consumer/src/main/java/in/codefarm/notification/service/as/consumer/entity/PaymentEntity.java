@@ -5,7 +5,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_payment_id", columnList = "payment_id"),
+    @Index(name = "idx_payments_order_id", columnList = "order_id"),
+    @Index(name = "idx_payments_group_partition_created", columnList = "consumer_group, kafka_partition, created_at")
+})
 public class PaymentEntity {
     
     @Id
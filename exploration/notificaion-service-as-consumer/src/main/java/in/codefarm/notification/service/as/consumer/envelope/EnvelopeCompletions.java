@@ -0,0 +1,73 @@
+package in.codefarm.notification.service.as.consumer.envelope;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds back the completion of every order expanded from one envelope until the last of them is done, for
+ * listeners whose container acks each record when its future completes (async acks).
+ *
+ * All orders of an envelope share its offset, so the first one to be acked would commit offset + 1 while its
+ * siblings are still running, and a crash then would lose them. With hold() the container sees all of an
+ * envelope's futures complete together, after the slowest one. Records that were not in an envelope pass through.
+ */
+public class EnvelopeCompletions {
+
+    private record OffsetKey(TopicPartition partition, long offset) {
+    }
+
+    private static final class Pending {
+        final AtomicInteger remaining;
+        final CompletableFuture<Void> allDone = new CompletableFuture<>();
+
+        Pending(int entries) {
+            this.remaining = new AtomicInteger(entries);
+        }
+    }
+
+    private final Map<OffsetKey, Pending> pending = new ConcurrentHashMap<>();
+
+    // A future that completes like entry, but not before every order of the record's envelope has completed
+    public <T> CompletableFuture<T> hold(ConsumerRecord<?, ?> record, CompletableFuture<T> entry) {
+        int entries = entries(record);
+        if (entries <= 1) {
+            return entry;
+        }
+        var key = new OffsetKey(new TopicPartition(record.topic(), record.partition()), record.offset());
+        Pending envelope = pending.computeIfAbsent(key, ignored -> new Pending(entries));
+
+        CompletableFuture<T> held = new CompletableFuture<>();
+        entry.whenComplete((value, failure) -> {
+            if (envelope.remaining.decrementAndGet() == 0) {
+                pending.remove(key, envelope);
+                envelope.allDone.complete(null);
+            }
+            envelope.allDone.whenComplete((ignored, unused) -> {
+                if (failure != null) {
+                    held.completeExceptionally(failure);
+                } else {
+                    held.complete(value);
+                }
+            });
+        });
+        return held;
+    }
+
+    // Revoked partitions: a redelivery of the same offsets to this instance starts a fresh count
+    public void forget(Collection<TopicPartition> partitions) {
+        pending.keySet().removeIf(key -> partitions.contains(key.partition()));
+    }
+
+    static int entries(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(EnvelopeExpandingConsumerPostProcessor.ENTRIES_HEADER);
+        return header != null ? ByteBuffer.wrap(header.value()).getInt() : 1;
+    }
+}
@@ -0,0 +1,130 @@
+package in.codefarm.notification.service.as.consumer.envelope;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.ConsumerPostProcessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps the consumer so poll() returns one record per order even when the producer sent envelopes.
+ *
+ * Expanded records keep the envelope's partition, offset, timestamp and headers (minus the envelope header)
+ * and get the entry's key, so listeners cannot tell the difference. Offsets are still per envelope, so a commit
+ * covers every order in it - the whole envelope is redelivered after a crash only if nothing commits its offset
+ * before the last of its orders is done:
+ *
+ * - BETWEEN_POLLS: the container or OffsetCommitCoalescer commits only once the records of a poll have been
+ *   processed (auto-commit, AckMode BATCH / TIME / COUNT, MANUAL with the coalescer). Nothing else to do.
+ * - PER_RECORD: offsets are committed as records complete (AckMode RECORD / MANUAL_IMMEDIATE, async acks, a
+ *   processor committing in the middle of a poll, an error handler committing the records before a failed one).
+ *   Expanded records also carry ENTRIES_HEADER, and the listener must hold the envelope's acks until all its
+ *   orders complete - see EnvelopeCompletions - or report a failure at the envelope's first order.
+ *
+ * KafkaConsumerConfig refuses to build a per-record container on a BETWEEN_POLLS consumer factory.
+ */
+public class EnvelopeExpandingConsumerPostProcessor<K, V> implements ConsumerPostProcessor<K, V> {
+
+    // Number of orders that share the expanded record's offset (4-byte int), read by EnvelopeCompletions
+    public static final String ENTRIES_HEADER = "order-envelope-entries";
+
+    public enum Commits {
+        BETWEEN_POLLS,
+        PER_RECORD
+    }
+
+    private final Commits commits;
+
+    public EnvelopeExpandingConsumerPostProcessor() {
+        this(Commits.BETWEEN_POLLS);
+    }
+
+    public EnvelopeExpandingConsumerPostProcessor(Commits commits) {
+        this.commits = commits;
+    }
+
+    public Commits commits() {
+        return commits;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Consumer<K, V> apply(Consumer<K, V> consumer) {
+        return (Consumer<K, V>) Proxy.newProxyInstance(
+            Consumer.class.getClassLoader(),
+            new Class<?>[]{Consumer.class},
+            (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(consumer, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if ("poll".equals(method.getName()) && result instanceof ConsumerRecords) {
+                    return expand((ConsumerRecords<K, V>) result);
+                }
+                return result;
+            });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ConsumerRecords<K, V> expand(ConsumerRecords<K, V> records) {
+        boolean hasEnvelope = false;
+        for (ConsumerRecord<K, V> record : records) {
+            if (record.value() instanceof OrderEnvelope) {
+                hasEnvelope = true;
+                break;
+            }
+        }
+        if (!hasEnvelope) {
+            return records;
+        }
+        
+        Map<TopicPartition, List<ConsumerRecord<K, V>>> expanded = new HashMap<>();
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<K, V>> partitionRecords = new ArrayList<>();
+            for (ConsumerRecord<K, V> record : records.records(partition)) {
+                if (!(record.value() instanceof OrderEnvelope<?> envelope)) {
+                    partitionRecords.add(record);
+                    continue;
+                }
+                RecordHeaders headers = new RecordHeaders();
+                for (Header header : record.headers()) {
+                    if (!OrderEnvelopeDeserializer.ENVELOPE_HEADER.equals(header.key())) {
+                        headers.add(header);
+                    }
+                }
+                if (commits == Commits.PER_RECORD) {
+                    headers.add(ENTRIES_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(envelope.values().size()).array());
+                }
+                for (int i = 0; i < envelope.values().size(); i++) {
+                    partitionRecords.add(new ConsumerRecord<>(
+                        record.topic(),
+                        record.partition(),
+                        record.offset(),
+                        record.timestamp(),
+                        record.timestampType(),
+                        -1,
+                        -1,
+                        (K) envelope.keys().get(i),
+                        (V) envelope.values().get(i),
+                        headers,
+                        record.leaderEpoch()
+                    ));
+                }
+            }
+            expanded.put(partition, partitionRecords);
+        }
+        return new ConsumerRecords<>(expanded, records.nextOffsets());
+    }
+}
@@ -0,0 +1,10 @@
+package in.codefarm.notification.service.as.consumer.envelope;
+
+import java.util.List;
+
+// Decoded envelope record - keys.get(i) belongs to values.get(i)
+public record OrderEnvelope<T>(
+    List<String> keys,
+    List<T> values
+) {
+}
@@ -0,0 +1,82 @@
+package in.codefarm.notification.service.as.consumer.envelope;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value deserializer for topics that may carry envelope records from the order service.
+ *
+ * Plain records go to the delegate - the JacksonJsonDeserializer by default, LazyRecordDeserializer for the lazy
+ * factories. Records with the order-envelope header are decoded into an OrderEnvelope (each entry through the
+ * same delegate), which
+ * EnvelopeExpandingConsumerPostProcessor turns back into one record per order before listeners see them.
+ *
+ * Layout: int magic ("OENV") | byte version | int count | count x (int keyEnd, int valueEnd) | entry bytes
+ */
+public class OrderEnvelopeDeserializer implements Deserializer<Object> {
+    
+    public static final String ENVELOPE_HEADER = "order-envelope";
+    private static final int MAGIC = 0x4F454E56;
+    private static final byte VERSION = 1;
+    private static final int FIXED_HEADER = Integer.BYTES + 1 + Integer.BYTES;
+    
+    private final Deserializer<?> delegate;
+    
+    public OrderEnvelopeDeserializer() {
+        this(new JacksonJsonDeserializer<>());
+    }
+    
+    public OrderEnvelopeDeserializer(Deserializer<?> delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+    
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+    
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || headers.lastHeader(ENVELOPE_HEADER) == null) {
+            return delegate.deserialize(topic, headers, data);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.remaining() < FIXED_HEADER || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new SerializationException("Record on " + topic + " has an envelope header but no envelope payload");
+        }
+        int count = buffer.getInt();
+        int dataStart = FIXED_HEADER + count * 2 * Integer.BYTES;
+        
+        List<String> keys = new ArrayList<>(count);
+        List<Object> values = new ArrayList<>(count);
+        int entryStart = 0;
+        for (int i = 0; i < count; i++) {
+            int keyEnd = buffer.getInt();
+            int valueEnd = buffer.getInt();
+            keys.add(new String(data, dataStart + entryStart, keyEnd - entryStart, StandardCharsets.UTF_8));
+            values.add(delegate.deserialize(topic, Arrays.copyOfRange(data, dataStart + keyEnd, dataStart + valueEnd)));
+            entryStart = valueEnd;
+        }
+        return new OrderEnvelope<>(keys, values);
+    }
+    
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
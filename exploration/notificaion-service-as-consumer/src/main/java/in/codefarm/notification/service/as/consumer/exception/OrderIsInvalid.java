@@ -1,6 +1,6 @@
 package in.codefarm.notification.service.as.consumer.exception;
 
-public class OrderIsInvalid extends Throwable {
+public class OrderIsInvalid extends Exception {
     public OrderIsInvalid(String message) {
         super(message);
     }
@@ -0,0 +1,23 @@
+package in.codefarm.notification.service.as.consumer.fanout;
+
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationChannel;
+
+// Result of one channel of a multi-channel send; error is null unless FAILED
+public record ChannelOutcome(
+    NotificationChannel channel,
+    Status status,
+    long elapsedMs,
+    String error
+) {
+    
+    public enum Status {
+        SENT,
+        FAILED,
+        TIMED_OUT  // still running at the deadline, cancelled
+    }
+    
+    // "EMAIL=SENT:512ms" - one entry of NotificationEntity.channelOutcomes
+    public String summary() {
+        return channel + "=" + status + ":" + elapsedMs + "ms";
+    }
+}
@@ -0,0 +1,114 @@
+package in.codefarm.notification.service.as.consumer.fanout;
+
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationChannel;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends one event on several channels at once: each channel runs on its own virtual thread, and all of them share
+ * one deadline (notification.multi-channel.deadline-ms) - ExecutorService.invokeAll with a timeout. Channels still
+ * running at the deadline are cancelled, which interrupts their threads, and reported TIMED_OUT. A failing channel
+ * does not cancel the others.
+ *
+ * An event therefore takes as long as its slowest channel (capped at the deadline) rather than the sum of them.
+ *
+ * Metrics: notification.multi-channel.latency per event, notification.multi-channel.outcomes{channel, outcome}.
+ */
+@Service
+@ConditionalOnProperty(name = "notification.multi-channel.enabled", havingValue = "true")
+public class MultiChannelNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiChannelNotifier.class);
+
+    private final NotificationService notificationService;
+    private final MeterRegistry meterRegistry;
+    private final Duration deadline;
+    private final Timer eventLatency;
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MultiChannelNotifier(
+        NotificationService notificationService,
+        MeterRegistry meterRegistry,
+        @Value("${notification.multi-channel.deadline-ms:1000}") long deadlineMs
+    ) {
+        this.notificationService = notificationService;
+        this.meterRegistry = meterRegistry;
+        this.deadline = Duration.ofMillis(deadlineMs);
+        this.eventLatency = Timer.builder("notification.multi-channel.latency")
+            .description("Time to send one event on all of its channels")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    // Outcomes in channel order; returns once every channel has finished or been cancelled
+    public List<ChannelOutcome> send(OrderPlacedEvent event, List<NotificationChannel> channels) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Callable<ChannelOutcome>> deliveries = new ArrayList<>(channels.size());
+        for (NotificationChannel channel : channels) {
+            deliveries.add(() -> deliver(channel, event));
+        }
+
+        // Returns at the deadline at the latest, with the stragglers cancelled
+        List<Future<ChannelOutcome>> results = virtualThreads.invokeAll(deliveries, deadline.toNanos(), TimeUnit.NANOSECONDS);
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        List<ChannelOutcome> outcomes = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            Future<ChannelOutcome> result = results.get(i);
+            outcomes.add(result.state() == Future.State.SUCCESS
+                ? result.resultNow()
+                : new ChannelOutcome(channels.get(i), ChannelOutcome.Status.TIMED_OUT, elapsedMs, null));
+        }
+
+        eventLatency.record(Duration.ofNanos(System.nanoTime() - start));
+        for (ChannelOutcome outcome : outcomes) {
+            Counter.builder("notification.multi-channel.outcomes")
+                .tag("channel", outcome.channel().name())
+                .tag("outcome", outcome.status().name())
+                .register(meterRegistry)
+                .increment();
+        }
+        return outcomes;
+    }
+
+    @PreDestroy
+    public void close() {
+        virtualThreads.close();
+    }
+
+    // Provider errors become a FAILED outcome; only an interrupt (cancellation) escapes the delivery
+    private ChannelOutcome deliver(NotificationChannel channel, OrderPlacedEvent event) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            notificationService.sendViaProvider(channel, event);
+            return new ChannelOutcome(channel, ChannelOutcome.Status.SENT, elapsedMs(start), null);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("=== Multi-Channel: {} failed for order {}: {} ===", channel, event.orderId(), e.getMessage());
+            return new ChannelOutcome(channel, ChannelOutcome.Status.FAILED, elapsedMs(start), e.getMessage());
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    }
+}
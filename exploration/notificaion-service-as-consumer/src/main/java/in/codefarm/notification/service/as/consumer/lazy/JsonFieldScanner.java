@@ -0,0 +1,154 @@
+package in.codefarm.notification.service.as.consumer.lazy;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls one top-level field out of a JSON object without building a tree or binding a type.
+ *
+ * Walks the bytes once, tracking only string boundaries and nesting depth, and stops at the first top-level key that
+ * matches - for the events here the id is one of the first fields, so most of the payload is never looked at.
+ * Field names are compared as ASCII; values may be any UTF-8 string.
+ */
+final class JsonFieldScanner {
+    
+    private JsonFieldScanner() {
+    }
+    
+    // String contents, or the literal text of a number / boolean; null when missing, null, an object or an array
+    static String topLevelField(byte[] json, String name) {
+        int i = skipWhitespace(json, 0);
+        if (i >= json.length || json[i] != '{') {
+            return null;
+        }
+        
+        int depth = 0;
+        boolean inValue = false;
+        while (i < json.length) {
+            byte b = json[i];
+            if (b == '"') {
+                int end = stringEnd(json, i + 1);
+                if (end < 0) {
+                    return null;
+                }
+                if (depth == 1 && !inValue) {
+                    boolean match = equalsAscii(json, i + 1, end, name);
+                    i = skipWhitespace(json, end + 1);
+                    if (i >= json.length || json[i] != ':') {
+                        return null;
+                    }
+                    i = skipWhitespace(json, i + 1);
+                    if (match) {
+                        return readValue(json, i);
+                    }
+                    inValue = true;
+                    continue;
+                }
+                i = end + 1;
+                continue;
+            }
+            switch (b) {
+                case '{', '[' -> depth++;
+                case '}', ']' -> depth--;
+                case ',' -> {
+                    if (depth == 1) {
+                        inValue = false;
+                    }
+                }
+                default -> {
+                }
+            }
+            i++;
+        }
+        return null;
+    }
+    
+    private static String readValue(byte[] json, int i) {
+        if (i >= json.length) {
+            return null;
+        }
+        byte b = json[i];
+        if (b == '"') {
+            int end = stringEnd(json, i + 1);
+            return end < 0 ? null : decodeString(json, i + 1, end);
+        }
+        if (b == '{' || b == '[' || b == 'n') {
+            return null;
+        }
+        int end = i;
+        while (end < json.length && json[end] != ',' && json[end] != '}' && json[end] != ']' && !isWhitespace(json[end])) {
+            end++;
+        }
+        return new String(json, i, end - i, StandardCharsets.US_ASCII);
+    }
+    
+    // Index of the closing quote of a string whose contents start at from, or -1 if it is not terminated
+    private static int stringEnd(byte[] json, int from) {
+        for (int i = from; i < json.length; i++) {
+            if (json[i] == '\\') {
+                i++;
+            } else if (json[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static boolean equalsAscii(byte[] json, int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (json[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String decodeString(byte[] json, int start, int end) {
+        boolean escaped = false;
+        for (int i = start; i < end && !escaped; i++) {
+            escaped = json[i] == '\\';
+        }
+        String raw = new String(json, start, end - start, StandardCharsets.UTF_8);
+        return escaped ? unescape(raw) : raw;
+    }
+    
+    private static String unescape(String raw) {
+        StringBuilder out = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 >= raw.length()) {
+                out.append(c);
+                continue;
+            }
+            char next = raw.charAt(++i);
+            switch (next) {
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    if (i + 4 < raw.length()) {
+                        out.append((char) Integer.parseInt(raw, i + 1, i + 5, 16));
+                        i += 4;
+                    }
+                }
+                default -> out.append(next);
+            }
+        }
+        return out.toString();
+    }
+    
+    private static int skipWhitespace(byte[] json, int i) {
+        while (i < json.length && isWhitespace(json[i])) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -0,0 +1,57 @@
+package in.codefarm.notification.service.as.consumer.lazy;
+
+import tools.jackson.databind.ObjectReader;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A record value kept as the raw JSON bytes. Single fields can be read with a token scan (field, dateTimeField),
+ * and the full object is only bound on the first value() call - so a listener can drop a duplicate after
+ * reading just its id.
+ *
+ * Not thread-safe; one listener thread owns a record.
+ */
+public final class LazyRecord<T> {
+    
+    private final byte[] raw;
+    private final ObjectReader reader;
+    private T value;
+    
+    LazyRecord(byte[] raw, ObjectReader reader) {
+        this.raw = raw;
+        this.reader = reader;
+    }
+    
+    public byte[] raw() {
+        return raw;
+    }
+    
+    public String field(String name) {
+        return JsonFieldScanner.topLevelField(raw, name);
+    }
+    
+    // ISO-8601 only; null if missing or written some other way (e.g. as a timestamp array)
+    public LocalDateTime dateTimeField(String name) {
+        String text = field(name);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    public T value() {
+        if (value == null) {
+            value = reader.readValue(raw);
+        }
+        return value;
+    }
+    
+    public boolean isDecoded() {
+        return value != null;
+    }
+}
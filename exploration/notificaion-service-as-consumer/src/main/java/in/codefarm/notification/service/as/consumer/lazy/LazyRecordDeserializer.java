@@ -0,0 +1,28 @@
+package in.codefarm.notification.service.as.consumer.lazy;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Value deserializer that does no JSON work at poll time - it wraps the bytes in a LazyRecord bound to the target
+ * type. Unknown properties are ignored on the eventual decode, as with the JacksonJsonDeserializer it replaces.
+ */
+public class LazyRecordDeserializer<T> implements Deserializer<LazyRecord<T>> {
+    
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+    
+    private final ObjectReader reader;
+    
+    public LazyRecordDeserializer(Class<T> type) {
+        this.reader = JSON_MAPPER.readerFor(type);
+    }
+    
+    @Override
+    public LazyRecord<T> deserialize(String topic, byte[] data) {
+        return data == null ? null : new LazyRecord<>(data, reader);
+    }
+}
@@ -0,0 +1,148 @@
+package in.codefarm.notification.service.as.consumer.monitor;
+
+import in.codefarm.notification.service.as.consumer.dto.ConsumerLag;
+import in.codefarm.notification.service.as.consumer.dto.ConsumerLagResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListOffsetsOptions;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.IsolationLevel;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer lag per group and partition, computed from the broker rather than from inside the consumers, so groups
+ * that are stopped or stuck still show up:
+ *
+ * 1. List the consumer groups whose id starts with one of notification.monitor.group-prefixes
+ * 2. listConsumerGroupOffsets for all of them in one request
+ * 3. listOffsets(latest, read_committed) for every partition they have committed
+ *
+ * lag = end offset - committed offset. Exposed as notification.consumer.lag{group, topic, partition} and
+ * /api/monitor/lag, refreshed every notification.monitor.lag-interval-ms.
+ */
+@Component
+@EnableScheduling
+public class ConsumerLagMonitor {
+    
+    private static final Logger log = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+    public static final String METRIC = "notification.consumer.lag";
+    
+    private final Admin admin;
+    private final List<String> groupPrefixes;
+    private final long timeoutMs;
+    private final MultiGauge lagGauge;
+    
+    private volatile ConsumerLagResponse latest = new ConsumerLagResponse(null, Map.of(), List.of());
+    
+    public ConsumerLagMonitor(
+        KafkaAdmin kafkaAdmin,
+        MeterRegistry meterRegistry,
+        @Value("${notification.monitor.group-prefixes:notification-service-,payment-service-}") List<String> groupPrefixes,
+        @Value("${notification.monitor.timeout-ms:10000}") long timeoutMs
+    ) {
+        this.admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        this.groupPrefixes = groupPrefixes;
+        this.timeoutMs = timeoutMs;
+        this.lagGauge = MultiGauge.builder(METRIC)
+            .description("Records between a group's committed offset and the end of the partition")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(
+        initialDelayString = "${notification.monitor.lag-interval-ms:30000}",
+        fixedDelayString = "${notification.monitor.lag-interval-ms:30000}"
+    )
+    public void refresh() {
+        try {
+            latest = computeLag();
+            lagGauge.register(latest.partitions().stream()
+                .map(lag -> MultiGauge.Row.of(
+                    Tags.of("group", lag.group(), "topic", lag.topic(), "partition", String.valueOf(lag.partition())),
+                    lag.lag()))
+                .toList(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Keep the last snapshot; the broker may just be unavailable
+            log.warn("=== Lag Monitor: Could not read offsets: {} ===", e.getMessage());
+        }
+    }
+    
+    public ConsumerLagResponse latest() {
+        return latest;
+    }
+    
+    ConsumerLagResponse computeLag() throws Exception {
+        Map<String, ListConsumerGroupOffsetsSpec> groups = new HashMap<>();
+        for (ConsumerGroupListing listing : admin.listConsumerGroups().all().get(timeoutMs, TimeUnit.MILLISECONDS)) {
+            if (groupPrefixes.stream().anyMatch(listing.groupId()::startsWith)) {
+                groups.put(listing.groupId(), new ListConsumerGroupOffsetsSpec());
+            }
+        }
+        if (groups.isEmpty()) {
+            return new ConsumerLagResponse(LocalDateTime.now(), Map.of(), List.of());
+        }
+        
+        ListConsumerGroupOffsetsResult committedResult = admin.listConsumerGroupOffsets(groups);
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committedByGroup = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> endQuery = new HashMap<>();
+        for (String group : groups.keySet()) {
+            Map<TopicPartition, OffsetAndMetadata> committed =
+                committedResult.partitionsToOffsetAndMetadata(group).get(timeoutMs, TimeUnit.MILLISECONDS);
+            committedByGroup.put(group, committed);
+            committed.keySet().forEach(partition -> endQuery.put(partition, OffsetSpec.latest()));
+        }
+        
+        // read_committed: the payments topic is transactional, and markers are not lag
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = admin
+            .listOffsets(endQuery, new ListOffsetsOptions(IsolationLevel.READ_COMMITTED))
+            .all()
+            .get(timeoutMs, TimeUnit.MILLISECONDS);
+        
+        List<ConsumerLag> partitions = new ArrayList<>();
+        Map<String, Long> totalLagByGroup = new TreeMap<>();
+        committedByGroup.forEach((group, committed) -> committed.forEach((partition, offset) -> {
+            ListOffsetsResult.ListOffsetsResultInfo end = endOffsets.get(partition);
+            if (offset == null || end == null) {
+                return;
+            }
+            long lag = Math.max(0, end.offset() - offset.offset());
+            partitions.add(new ConsumerLag(group, partition.topic(), partition.partition(), offset.offset(), end.offset(), lag));
+            totalLagByGroup.merge(group, lag, Long::sum);
+        }));
+        partitions.sort(Comparator.comparing(ConsumerLag::group)
+            .thenComparing(ConsumerLag::topic)
+            .thenComparingInt(ConsumerLag::partition));
+        
+        return new ConsumerLagResponse(LocalDateTime.now(), totalLagByGroup, partitions);
+    }
+    
+    @PreDestroy
+    void close() {
+        admin.close();
+    }
+}
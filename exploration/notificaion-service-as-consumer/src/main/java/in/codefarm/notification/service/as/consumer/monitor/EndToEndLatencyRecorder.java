@@ -0,0 +1,120 @@
+package in.codefarm.notification.service.as.consumer.monitor;
+
+import in.codefarm.notification.service.as.consumer.dto.LatencySummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.TimestampType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produce-to-process latency of every record the listeners finish, as timers tagged by group, topic and source:
+ *
+ * notification.e2e.latency{source=producer}  now - "intercepted-at" header (stamped by the order service's MyProducerInterceptor)
+ * notification.e2e.latency{source=broker}    now - record timestamp (CreateTime or LogAppendTime, as the topic is set up)
+ *
+ * Percentile histograms go to the metrics endpoint; p50/p95/p99 are also computed in-process for /api/monitor/latency.
+ * Both sources compare clocks of different hosts, so skew shows up here - negative values are recorded as 0.
+ */
+@Component
+public class EndToEndLatencyRecorder {
+    
+    public static final String METRIC = "notification.e2e.latency";
+    public static final String INTERCEPTED_AT_HEADER = "intercepted-at";
+    
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(10);
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    
+    public EndToEndLatencyRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public void record(String group, ConsumerRecord<?, ?> record) {
+        long now = System.currentTimeMillis();
+        
+        Header interceptedAt = record.headers().lastHeader(INTERCEPTED_AT_HEADER);
+        if (interceptedAt != null) {
+            long producedAt = parseAsciiLong(interceptedAt.value());
+            if (producedAt > 0) {
+                timer(group, record.topic(), "producer").record(Math.max(0, now - producedAt), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE && record.timestamp() > 0) {
+            timer(group, record.topic(), "broker").record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    public List<LatencySummary> summaries() {
+        List<LatencySummary> summaries = new ArrayList<>(timers.size());
+        timers.forEach((key, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double p50 = 0;
+            double p95 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                double ms = value.value(TimeUnit.MILLISECONDS);
+                if (value.percentile() == 0.5) {
+                    p50 = ms;
+                } else if (value.percentile() == 0.95) {
+                    p95 = ms;
+                } else if (value.percentile() == 0.99) {
+                    p99 = ms;
+                }
+            }
+            summaries.add(new LatencySummary(
+                key.group(),
+                key.topic(),
+                key.source(),
+                snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                p50,
+                p95,
+                p99,
+                snapshot.max(TimeUnit.MILLISECONDS)
+            ));
+        });
+        return summaries;
+    }
+    
+    private Timer timer(String group, String topic, String source) {
+        return timers.computeIfAbsent(new TimerKey(group, topic, source), key -> Timer.builder(METRIC)
+            .description("Time from produce to the end of listener processing")
+            .tag("group", key.group())
+            .tag("topic", key.topic())
+            .tag("source", key.source())
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .maximumExpectedValue(MAX_EXPECTED)
+            .register(meterRegistry));
+    }
+    
+    // The producer writes the millis as ASCII digits (OrderRecordHeaders.asciiLong); -1 when it is not a number
+    static long parseAsciiLong(byte[] value) {
+        if (value == null || value.length == 0 || value.length > 19) {
+            return -1;
+        }
+        long result = 0;
+        for (byte b : value) {
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            result = result * 10 + (b - '0');
+        }
+        return result;
+    }
+    
+    private record TimerKey(String group, String topic, String source) {
+    }
+}
@@ -0,0 +1,43 @@
+package in.codefarm.notification.service.as.consumer.monitor;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Records end-to-end latency when the listener returns successfully - set as the record or batch interceptor of a
+ * container factory. Failed deliveries are not timed; they are retried or dead-lettered and timed when they succeed.
+ */
+public class LatencyRecordingInterceptor<K, V> implements RecordInterceptor<K, V>, BatchInterceptor<K, V> {
+    
+    private final EndToEndLatencyRecorder recorder;
+    
+    public LatencyRecordingInterceptor(EndToEndLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        return record;
+    }
+    
+    @Override
+    public void success(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        recorder.record(consumer.groupMetadata().groupId(), record);
+    }
+    
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        return records;
+    }
+    
+    @Override
+    public void success(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        String group = consumer.groupMetadata().groupId();
+        for (ConsumerRecord<K, V> record : records) {
+            recorder.record(group, record);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package in.codefarm.notification.service.as.consumer.parallel;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Processes the records of each poll on `workers` single-threaded lanes. A record's lane is picked from its
+ * ordering key, so records with the same key run one after another in offset order while different keys run in
+ * parallel - throughput follows the worker count instead of the partition count.
+ *
+ * Must be the container's rebalance listener and be fed from a batch listener with auto-commit off and no acks:
+ * it commits itself, on the consumer thread, up to the lowest offset still in flight (see OffsetTracker).
+ * At most max-in-flight records are queued; beyond that the consumer thread waits, committing as lanes drain.
+ * The whole poll is registered before the first record is queued, so such a commit never passes an offset whose
+ * records are not all registered yet - orders expanded from one envelope share its offset.
+ */
+public class KeyOrderedParallelProcessor<K, V> implements ConsumerAwareRebalanceListener, AutoCloseable {
+    
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedParallelProcessor.class);
+    
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+        void handle(ConsumerRecord<K, V> record) throws Exception;
+    }
+    
+    private final String name;
+    private final ExecutorService[] lanes;
+    private final Semaphore slots;
+    private final Function<ConsumerRecord<K, V>, Object> orderingKey;
+    private final RecordHandler<K, V> handler;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final Duration revokeTimeout;
+    private final OffsetTracker offsetTracker = new OffsetTracker();
+    private final LongAdder failed = new LongAdder();
+    
+    public KeyOrderedParallelProcessor(
+        String name,
+        int workers,
+        int maxInFlight,
+        Function<ConsumerRecord<K, V>, Object> orderingKey,
+        RecordHandler<K, V> handler,
+        int maxAttempts,
+        long retryBackoffMs,
+        Duration revokeTimeout
+    ) {
+        this.name = name;
+        this.lanes = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            String threadName = name + "-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+        }
+        this.slots = new Semaphore(maxInFlight);
+        this.orderingKey = orderingKey;
+        this.handler = handler;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.revokeTimeout = revokeTimeout;
+    }
+    
+    // Consumer thread only
+    public void process(List<ConsumerRecord<K, V>> records, Consumer<?, ?> consumer) {
+        int skipped = 0;
+        long[] generations = new long[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<K, V> record = records.get(i);
+            generations[i] = offsetTracker.register(new TopicPartition(record.topic(), record.partition()), record.offset());
+        }
+        for (int i = 0; i < records.size(); i++) {
+            if (generations[i] == OffsetTracker.ALREADY_COMPLETED) {
+                skipped++; // completed by the previous owner
+                continue;
+            }
+            ConsumerRecord<K, V> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            long generation = generations[i];
+            acquireSlot(consumer);
+            lanes[laneFor(record)].execute(() -> run(record, partition, generation));
+        }
+        if (skipped > 0) {
+            log.info("=== {}: Skipped {} records already completed before the rebalance ===", name, skipped);
+        }
+        commit(consumer);
+    }
+    
+    public long failedRecords() {
+        return failed.sum();
+    }
+    
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        for (TopicPartition partition : partitions) {
+            offsetTracker.assigned(partition, committed.get(partition));
+        }
+    }
+    
+    // Give in-flight records of the revoked partitions a chance to finish, then commit where they got to
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        long deadline = System.nanoTime() + revokeTimeout.toNanos();
+        while (offsetTracker.inFlight(partitions) > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int abandoned = offsetTracker.inFlight(partitions);
+        if (abandoned > 0) {
+            log.warn("=== {}: {} records still in flight on revoked {} - the next owner will redeliver them ===",
+                name, abandoned, partitions);
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.remove(partitions);
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+    }
+    
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        offsetTracker.remove(partitions); // no longer ours to commit
+    }
+    
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                lane.awaitTermination(revokeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    // Records without a key have no order to keep - spread them by offset
+    private int laneFor(ConsumerRecord<K, V> record) {
+        Object key = orderingKey.apply(record);
+        long hash = key != null ? key.hashCode() : record.offset();
+        return (int) Math.floorMod(hash, (long) lanes.length);
+    }
+    
+    private void acquireSlot(Consumer<?, ?> consumer) {
+        try {
+            while (!slots.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                commit(consumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(name + " interrupted while waiting for a free slot", e);
+        }
+    }
+    
+    // Lane thread: retries in place so later records of the same key keep waiting behind it
+    private void run(ConsumerRecord<K, V> record, TopicPartition partition, long generation) {
+        boolean finished = false;
+        try {
+            for (int attempt = 1; !finished; attempt++) {
+                try {
+                    handler.handle(record);
+                    finished = true;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        failed.increment();
+                        log.error("=== {}: Giving up on {}@{} after {} attempts ===", name, partition, record.offset(), attempt, e);
+                        finished = true;
+                    } else {
+                        log.warn("=== {}: Attempt {} failed for {}@{} - retrying ===", name, attempt, partition, record.offset());
+                        Thread.sleep(retryBackoffMs * attempt);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // shutting down - leave the offset uncommitted so it is redelivered
+        } finally {
+            if (finished) {
+                offsetTracker.complete(partition, generation, record.offset());
+            }
+            slots.release();
+        }
+    }
+    
+    private void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.commitReady(consumer.assignment());
+        if (offsets.isEmpty()) {
+            return;
+        }
+        consumer.commitAsync(offsets, (committed, e) -> {
+            if (e != null) {
+                log.warn("=== {}: Offset commit failed for {} - {} ===", name, committed.keySet(), e.getMessage());
+            }
+        });
+    }
+}
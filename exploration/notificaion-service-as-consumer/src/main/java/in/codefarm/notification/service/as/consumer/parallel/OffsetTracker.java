@@ -0,0 +1,163 @@
+package in.codefarm.notification.service.as.consumer.parallel;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commit bookkeeping for records that complete out of order.
+ *
+ * Per partition only the offsets still in flight are kept. The committable offset is the lowest of them, or one
+ * past the highest offset seen when nothing is in flight - gaps (compaction, transaction markers) never block it.
+ * Offsets that already completed above the committable one travel with the commit as a bitmap in the offset
+ * metadata, so the next owner of the partition can skip them instead of processing them again.
+ *
+ * Each assignment of a partition gets a new generation. Completions carry the generation they were registered
+ * under, so a record abandoned on revocation cannot complete an offset of a later assignment.
+ */
+class OffsetTracker {
+    
+    private static final String METADATA_PREFIX = "done:";
+    // Base64 of 3000 bytes stays under the broker's default 4096-byte offset.metadata.max.bytes
+    private static final int MAX_BITMAP_BITS = 3000 * 8;
+    
+    // register() result for an offset the previous owner already completed
+    static final long ALREADY_COMPLETED = -1;
+    
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    
+    // Picks up the completed-above bitmap the previous owner committed, if any
+    void assigned(TopicPartition partition, OffsetAndMetadata committed) {
+        partitions.put(partition, new PartitionOffsets(generations.incrementAndGet(), committed));
+    }
+    
+    // The generation to complete the offset under, or ALREADY_COMPLETED - the record must not be processed again
+    long register(TopicPartition partition, long offset) {
+        PartitionOffsets offsets = partitions.computeIfAbsent(
+            partition, p -> new PartitionOffsets(generations.incrementAndGet(), null));
+        return offsets.register(offset) ? offsets.generation : ALREADY_COMPLETED;
+    }
+    
+    // Ignored when the partition was revoked (and maybe assigned again) since the offset was registered
+    void complete(TopicPartition partition, long generation, long offset) {
+        PartitionOffsets offsets = partitions.get(partition);
+        if (offsets != null && offsets.generation == generation) {
+            offsets.complete(offset);
+        }
+    }
+    
+    int inFlight(Collection<TopicPartition> ofPartitions) {
+        int inFlight = 0;
+        for (TopicPartition partition : ofPartitions) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null) {
+                inFlight += offsets.inFlight();
+            }
+        }
+        return inFlight;
+    }
+    
+    // Offsets that moved since the last call, limited to the given (owned) partitions
+    Map<TopicPartition, OffsetAndMetadata> commitReady(Collection<TopicPartition> owned) {
+        Map<TopicPartition, OffsetAndMetadata> ready = new HashMap<>();
+        for (TopicPartition partition : owned) {
+            PartitionOffsets offsets = partitions.get(partition);
+            OffsetAndMetadata commit = offsets != null ? offsets.commitIfChanged() : null;
+            if (commit != null) {
+                ready.put(partition, commit);
+            }
+        }
+        return ready;
+    }
+    
+    // Stops tracking the partitions and returns their final offsets
+    Map<TopicPartition, OffsetAndMetadata> remove(Collection<TopicPartition> removed) {
+        Map<TopicPartition, OffsetAndMetadata> last = new HashMap<>();
+        for (TopicPartition partition : removed) {
+            PartitionOffsets offsets = partitions.remove(partition);
+            OffsetAndMetadata commit = offsets != null ? offsets.commitIfChanged() : null;
+            if (commit != null) {
+                last.put(partition, commit);
+            }
+        }
+        return last;
+    }
+    
+    private static final class PartitionOffsets {
+        // offset -> records still in flight at that offset (an expanded envelope shares one offset)
+        private final TreeMap<Long, Integer> pending = new TreeMap<>();
+        private final long generation;
+        private final long skipBase;
+        private final BitSet skip;
+        private long nextOffset = -1;
+        private long lastCommittedOffset = -1;
+        private String lastCommittedMetadata = "";
+        
+        private PartitionOffsets(long generation, OffsetAndMetadata committed) {
+            this.generation = generation;
+            String metadata = committed != null ? committed.metadata() : null;
+            if (metadata != null && metadata.startsWith(METADATA_PREFIX)) {
+                this.skipBase = committed.offset();
+                this.skip = BitSet.valueOf(Base64.getDecoder().decode(metadata.substring(METADATA_PREFIX.length())));
+            } else {
+                this.skipBase = -1;
+                this.skip = null;
+            }
+        }
+        
+        private synchronized boolean register(long offset) {
+            nextOffset = Math.max(nextOffset, offset + 1);
+            if (skip != null && offset > skipBase && offset - skipBase - 1 < skip.length()
+                    && skip.get((int) (offset - skipBase - 1))) {
+                return false;
+            }
+            pending.merge(offset, 1, Integer::sum);
+            return true;
+        }
+        
+        private synchronized void complete(long offset) {
+            pending.computeIfPresent(offset, (o, count) -> count > 1 ? count - 1 : null);
+        }
+        
+        private synchronized int inFlight() {
+            return pending.size();
+        }
+        
+        private synchronized OffsetAndMetadata commitIfChanged() {
+            if (nextOffset < 0) {
+                return null;
+            }
+            long committable = pending.isEmpty() ? nextOffset : pending.firstKey();
+            String metadata = completedAbove(committable);
+            if (committable == lastCommittedOffset && metadata.equals(lastCommittedMetadata)) {
+                return null;
+            }
+            lastCommittedOffset = committable;
+            lastCommittedMetadata = metadata;
+            return new OffsetAndMetadata(committable, metadata);
+        }
+        
+        // Bit i set = offset committable + 1 + i is done (or does not exist); empty when too wide to fit
+        private String completedAbove(long committable) {
+            long width = nextOffset - committable - 1;
+            if (pending.isEmpty() || width <= 0 || width > MAX_BITMAP_BITS) {
+                return "";
+            }
+            BitSet done = new BitSet((int) width);
+            done.set(0, (int) width);
+            for (long offset : pending.tailMap(committable, false).keySet()) {
+                done.clear((int) (offset - committable - 1));
+            }
+            return METADATA_PREFIX + Base64.getEncoder().encodeToString(done.toByteArray());
+        }
+    }
+}
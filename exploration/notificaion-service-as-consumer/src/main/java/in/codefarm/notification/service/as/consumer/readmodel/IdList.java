@@ -0,0 +1,63 @@
+package in.codefarm.notification.service.as.consumer.readmodel;
+
+import java.util.Arrays;
+
+/**
+ * Ascending notification ids of one secondary-index key (a customer, a status, a consumer method) in a plain
+ * long[] - 8 bytes per entry instead of a boxed Long and a tree node. Ids mostly arrive in order, so add() is an
+ * append; eviction takes the oldest ids, so remove() is usually a head bump. Not thread-safe - the read model
+ * guards it with its lock.
+ */
+final class IdList {
+
+    private long[] ids = new long[8];
+    private int head;
+    private int tail;
+
+    void add(long id) {
+        if (tail == ids.length) {
+            grow();
+        }
+        // Saves committed out of id order land a few slots back from the tail
+        int position = tail;
+        while (position > head && ids[position - 1] > id) {
+            position--;
+        }
+        System.arraycopy(ids, position, ids, position + 1, tail - position);
+        ids[position] = id;
+        tail++;
+    }
+
+    void remove(long id) {
+        if (head < tail && ids[head] == id) {
+            head++;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, head, tail, id);
+        if (position >= 0) {
+            System.arraycopy(ids, position + 1, ids, position, tail - position - 1);
+            tail--;
+        }
+    }
+
+    boolean isEmpty() {
+        return head == tail;
+    }
+
+    // Up to limit ids greater than afterId, ascending
+    long[] after(long afterId, int limit) {
+        int position = Arrays.binarySearch(ids, head, tail, afterId);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        return Arrays.copyOfRange(ids, from, Math.min(tail, from + limit));
+    }
+
+    // Reclaims the evicted head before doubling
+    private void grow() {
+        int size = tail - head;
+        long[] grown = size < ids.length / 2 ? ids : new long[ids.length * 2];
+        System.arraycopy(ids, head, grown, 0, size);
+        ids = grown;
+        head = 0;
+        tail = size;
+    }
+}
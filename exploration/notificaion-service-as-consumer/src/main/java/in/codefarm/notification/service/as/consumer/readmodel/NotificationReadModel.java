@@ -0,0 +1,306 @@
+package in.codefarm.notification.service.as.consumer.readmodel;
+
+import in.codefarm.notification.service.as.consumer.audit.AuditQuery;
+import in.codefarm.notification.service.as.consumer.audit.NotificationAuditStore;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
+import in.codefarm.notification.service.as.consumer.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The newest notifications and payments in memory, so the controller's lookups and listings do not query the
+ * store:
+ *
+ * - Notifications by id, plus the newest notification of each orderId
+ * - Secondary indexes customerId / status / consumerMethod -> ascending ids (IdList, a long[] per key)
+ * - Payments by orderId, for the consistency check
+ *
+ * Loaded from the store before the listener containers start, then written through by NotificationService and
+ * PaymentService once each save commits. Bounded by max-notifications and max-payments: past them the oldest
+ * entries are evicted, and everything with an id above coveredAfterId is still held. An orderId miss falls back
+ * to the store, as does a listing page starting below coveredAfterId; 0 turns the read model into a
+ * pass-through.
+ *
+ * Metrics: notification.read-model.lookups{entity,result=hit|miss}, notification.read-model.entries{entity}.
+ */
+@Component
+public class NotificationReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationReadModel.class);
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final NotificationAuditStore notificationAuditStore;
+    private final PaymentRepository paymentRepository;
+    private final int maxNotifications;
+    private final int maxPayments;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, NotificationEntity> notificationsById = new TreeMap<>();
+    private final Map<String, NotificationEntity> newestNotificationByOrderId = new HashMap<>();
+    private final Map<String, IdList> byCustomerId = new HashMap<>();
+    private final Map<String, IdList> byStatus = new HashMap<>();
+    private final Map<String, IdList> byConsumerMethod = new HashMap<>();
+    private final NavigableMap<Long, PaymentEntity> paymentsById = new TreeMap<>();
+    private final Map<String, PaymentEntity> newestPaymentByOrderId = new HashMap<>();
+    // Every notification / payment with a greater id is held
+    private long notificationsCoveredAfterId;
+    private long paymentsCoveredAfterId;
+
+    private final Counter notificationHits;
+    private final Counter notificationMisses;
+    private final Counter pageHits;
+    private final Counter pageMisses;
+    private final Counter paymentHits;
+    private final Counter paymentMisses;
+
+    public NotificationReadModel(
+        NotificationAuditStore notificationAuditStore,
+        PaymentRepository paymentRepository,
+        MeterRegistry meterRegistry,
+        @Value("${notification.read-model.max-notifications:200000}") int maxNotifications,
+        @Value("${notification.read-model.max-payments:200000}") int maxPayments
+    ) {
+        this.notificationAuditStore = notificationAuditStore;
+        this.paymentRepository = paymentRepository;
+        this.maxNotifications = maxNotifications;
+        this.maxPayments = maxPayments;
+        this.notificationHits = lookups(meterRegistry, "notification", "hit");
+        this.notificationMisses = lookups(meterRegistry, "notification", "miss");
+        this.pageHits = lookups(meterRegistry, "page", "hit");
+        this.pageMisses = lookups(meterRegistry, "page", "miss");
+        this.paymentHits = lookups(meterRegistry, "payment", "hit");
+        this.paymentMisses = lookups(meterRegistry, "payment", "miss");
+        Gauge.builder("notification.read-model.entries", this, model -> model.size(model.notificationsById))
+            .tag("entity", "notification")
+            .register(meterRegistry);
+        Gauge.builder("notification.read-model.entries", this, model -> model.size(model.paymentsById))
+            .tag("entity", "payment")
+            .register(meterRegistry);
+    }
+
+    // Pages through both tables in id order; eviction keeps only the newest within the bounds
+    @PostConstruct
+    void load() {
+        long afterId = 0;
+        List<NotificationEntity> notifications;
+        do {
+            notifications = notificationAuditStore.findPage(AuditQuery.all(), afterId, LOAD_PAGE_SIZE);
+            addNotifications(notifications);
+            if (!notifications.isEmpty()) {
+                afterId = notifications.get(notifications.size() - 1).getId();
+            }
+        } while (notifications.size() == LOAD_PAGE_SIZE);
+
+        afterId = 0;
+        List<PaymentEntity> payments;
+        do {
+            payments = paymentRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            payments.forEach(this::addPayment);
+            if (!payments.isEmpty()) {
+                afterId = payments.get(payments.size() - 1).getId();
+            }
+        } while (payments.size() == LOAD_PAGE_SIZE);
+
+        log.info("=== Notification Read Model: Loaded {} notifications (ids > {}) and {} payments (ids > {}) ===",
+            size(notificationsById), notificationsCoveredAfterId, size(paymentsById), paymentsCoveredAfterId);
+    }
+
+    // Write-through: added once the surrounding transaction commits, or right away outside one
+    public void notificationsSaved(List<NotificationEntity> notifications) {
+        afterCommit(() -> addNotifications(notifications));
+    }
+
+    public void paymentSaved(PaymentEntity payment) {
+        afterCommit(() -> addPayment(payment));
+    }
+
+    // Newest notification of the order
+    public Optional<NotificationEntity> findNotificationByOrderId(String orderId) {
+        NotificationEntity notification;
+        lock.readLock().lock();
+        try {
+            notification = newestNotificationByOrderId.get(orderId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (notification != null) {
+            notificationHits.increment();
+            return Optional.of(notification);
+        }
+        notificationMisses.increment();
+        return notificationAuditStore.findByOrderId(orderId);
+    }
+
+    // Keyset page in id order, from memory when the whole range above afterId is held
+    public List<NotificationEntity> findPage(AuditQuery query, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (afterId >= notificationsCoveredAfterId) {
+                pageHits.increment();
+                return page(query, afterId, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        pageMisses.increment();
+        return notificationAuditStore.findPage(query, afterId, limit);
+    }
+
+    public Optional<PaymentEntity> findPaymentByOrderId(String orderId) {
+        PaymentEntity payment;
+        lock.readLock().lock();
+        try {
+            payment = newestPaymentByOrderId.get(orderId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (payment != null) {
+            paymentHits.increment();
+            return Optional.of(payment);
+        }
+        paymentMisses.increment();
+        return paymentRepository.findByOrderId(orderId);
+    }
+
+    // Caller holds the read lock
+    private List<NotificationEntity> page(AuditQuery query, long afterId, int limit) {
+        IdList ids;
+        if (query.customerId() != null) {
+            ids = byCustomerId.get(query.customerId());
+        } else if (query.status() != null) {
+            ids = byStatus.get(query.status());
+        } else if (query.consumerMethod() != null) {
+            ids = byConsumerMethod.get(query.consumerMethod());
+        } else {
+            return notificationsById.tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+        if (ids == null) {
+            return List.of();
+        }
+        List<NotificationEntity> page = new ArrayList<>();
+        for (long id : ids.after(afterId, limit)) {
+            page.add(notificationsById.get(id));
+        }
+        return page;
+    }
+
+    private void addNotifications(List<NotificationEntity> notifications) {
+        lock.writeLock().lock();
+        try {
+            for (NotificationEntity notification : notifications) {
+                long id = notification.getId();
+                // Committed after eviction already passed its id - the store answers for it
+                if (id <= notificationsCoveredAfterId) {
+                    continue;
+                }
+                notificationsById.put(id, notification);
+                newestNotificationByOrderId.merge(notification.getOrderId(), notification,
+                    (current, added) -> added.getId() > current.getId() ? added : current);
+                index(byCustomerId, notification.getCustomerId(), id);
+                index(byStatus, notification.getStatus(), id);
+                index(byConsumerMethod, notification.getConsumerMethod(), id);
+            }
+            while (notificationsById.size() > maxNotifications) {
+                evictOldestNotification();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void evictOldestNotification() {
+        var oldest = notificationsById.pollFirstEntry().getValue();
+        long id = oldest.getId();
+        notificationsCoveredAfterId = Math.max(notificationsCoveredAfterId, id);
+        newestNotificationByOrderId.remove(oldest.getOrderId(), oldest);
+        unindex(byCustomerId, oldest.getCustomerId(), id);
+        unindex(byStatus, oldest.getStatus(), id);
+        unindex(byConsumerMethod, oldest.getConsumerMethod(), id);
+    }
+
+    private void addPayment(PaymentEntity payment) {
+        lock.writeLock().lock();
+        try {
+            if (payment.getId() <= paymentsCoveredAfterId) {
+                return;
+            }
+            paymentsById.put(payment.getId(), payment);
+            newestPaymentByOrderId.merge(payment.getOrderId(), payment,
+                (current, added) -> added.getId() > current.getId() ? added : current);
+            while (paymentsById.size() > maxPayments) {
+                var oldest = paymentsById.pollFirstEntry().getValue();
+                paymentsCoveredAfterId = Math.max(paymentsCoveredAfterId, oldest.getId());
+                newestPaymentByOrderId.remove(oldest.getOrderId(), oldest);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int size(Map<?, ?> map) {
+        lock.readLock().lock();
+        try {
+            return map.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A null attribute is never queried, so it is not indexed
+    private static void index(Map<String, IdList> index, String key, long id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new IdList()).add(id);
+        }
+    }
+
+    private static void unindex(Map<String, IdList> index, String key, long id) {
+        IdList ids = key != null ? index.get(key) : null;
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String entity, String result) {
+        return Counter.builder("notification.read-model.lookups")
+            .tag("entity", entity)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,130 @@
+package in.codefarm.notification.service.as.consumer.rebalance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rebalance listener of the listener container factories. Fans each callback out to every RebalanceParticipant:
+ *
+ * revoked  -> flush (pending work of the revoked partitions), commitSync of what the participants returned,
+ *             then the container's own commit, then release
+ * lost     -> release only - the partitions already belong to someone else, nothing may be committed
+ * assigned -> warm, before the container fetches from the new partitions
+ *
+ * With the cooperative assignor only partitions that actually move show up here; the rest keep flowing.
+ * Time spent per phase is recorded as notification.rebalance.duration{group, phase}, partitions moved as
+ * notification.rebalance.partitions{group, event}.
+ */
+@Component
+public class CompositeRebalanceListener implements ConsumerAwareRebalanceListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(CompositeRebalanceListener.class);
+    
+    private final List<RebalanceParticipant> participants;
+    private final MeterRegistry meterRegistry;
+    private final Duration commitTimeout;
+    
+    public CompositeRebalanceListener(
+        List<RebalanceParticipant> participants,
+        MeterRegistry meterRegistry,
+        @Value("${notification.rebalance.commit-timeout-ms:10000}") long commitTimeoutMs
+    ) {
+        this.participants = participants;
+        this.meterRegistry = meterRegistry;
+        this.commitTimeout = Duration.ofMillis(commitTimeoutMs);
+    }
+    
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String groupId = consumer.groupMetadata().groupId();
+        count(groupId, "revoked", partitions.size());
+        
+        long start = System.nanoTime();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (RebalanceParticipant participant : participants) {
+            offsets.putAll(participant.flush(groupId, partitions));
+        }
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets, commitTimeout);
+        }
+        record(groupId, "flush", start);
+        log.info("=== Rebalance: {} revoked {}, flushed{} ===",
+            groupId, partitions, offsets.isEmpty() ? "" : " and committed " + offsets.size() + " offsets");
+    }
+    
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(consumer, partitions);
+    }
+    
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        count(consumer.groupMetadata().groupId(), "lost", partitions.size());
+        log.warn("=== Rebalance: {} lost {} - pending work for them is dropped ===",
+            consumer.groupMetadata().groupId(), partitions);
+        release(consumer, partitions);
+    }
+    
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String groupId = consumer.groupMetadata().groupId();
+        count(groupId, "assigned", partitions.size());
+        
+        long start = System.nanoTime();
+        for (RebalanceParticipant participant : participants) {
+            participant.warm(groupId, partitions);
+        }
+        record(groupId, "warm", start);
+    }
+    
+    private void release(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String groupId = consumer.groupMetadata().groupId();
+        for (RebalanceParticipant participant : participants) {
+            participant.release(groupId, partitions);
+        }
+    }
+    
+    private void record(String groupId, String phase, long startNanos) {
+        Timer.builder("notification.rebalance.duration")
+            .description("Time spent in rebalance callbacks")
+            .tag("group", groupId)
+            .tag("phase", phase)
+            .register(meterRegistry)
+            .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+    
+    private void count(String groupId, String event, int partitions) {
+        Counter.builder("notification.rebalance.partitions")
+            .tag("group", groupId)
+            .tag("event", event)
+            .register(meterRegistry)
+            .increment(partitions);
+    }
+}
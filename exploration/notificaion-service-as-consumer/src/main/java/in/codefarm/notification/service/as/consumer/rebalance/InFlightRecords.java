@@ -0,0 +1,60 @@
+package in.codefarm.notification.service.as.consumer.rebalance;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records handed off to other threads and not finished yet, per partition - what an async listener still owes
+ * for a partition when it is revoked. awaitDrained lets the flush wait for those saves so their acks make it into
+ * the container's revoke commit instead of being redelivered to the next owner.
+ */
+public class InFlightRecords {
+    
+    private final Map<TopicPartition, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    
+    public void begin(TopicPartition partition) {
+        inFlight.computeIfAbsent(partition, ignored -> new AtomicInteger()).incrementAndGet();
+    }
+    
+    public void end(TopicPartition partition) {
+        AtomicInteger count = inFlight.get(partition);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+    
+    public int count(Collection<TopicPartition> partitions) {
+        int total = 0;
+        for (TopicPartition partition : partitions) {
+            AtomicInteger count = inFlight.get(partition);
+            if (count != null) {
+                total += count.get();
+            }
+        }
+        return total;
+    }
+    
+    // Returns how many are still in flight when the timeout ran out (0 when drained)
+    public int awaitDrained(Collection<TopicPartition> partitions, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int remaining;
+        while ((remaining = count(partitions)) > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return remaining;
+    }
+    
+    public void forget(Collection<TopicPartition> partitions) {
+        partitions.forEach(inFlight::remove);
+    }
+}
@@ -0,0 +1,28 @@
+package in.codefarm.notification.service.as.consumer.rebalance;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Something that holds per-partition state for a consumer group and must react when partitions move. Called by
+ * CompositeRebalanceListener on the consumer thread; each participant ignores groups that are not its own.
+ */
+public interface RebalanceParticipant {
+    
+    // Before the container commits for the revoked partitions: finish or write out pending work. Offsets returned
+    // here are committed synchronously before the partitions are given up; container-managed offsets need not be.
+    default Map<TopicPartition, OffsetAndMetadata> flush(String groupId, Collection<TopicPartition> revoked) {
+        return Map.of();
+    }
+    
+    // After assignment, before the first records of these partitions are fetched
+    default void warm(String groupId, Collection<TopicPartition> assigned) {
+    }
+    
+    // Revoked (after the commit) or lost - the state of these partitions belongs to another consumer now
+    default void release(String groupId, Collection<TopicPartition> partitions) {
+    }
+}
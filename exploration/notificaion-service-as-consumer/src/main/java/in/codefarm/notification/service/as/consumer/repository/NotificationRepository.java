@@ -1,18 +1,83 @@
 package in.codefarm.notification.service.as.consumer.repository;
 
+import in.codefarm.notification.service.as.consumer.dto.NotificationCount;
+import in.codefarm.notification.service.as.consumer.dto.NotificationSentAt;
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
 import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<NotificationEntity, Long> {
     Optional<NotificationEntity> findByOrderId(String orderId);
+    // Orders can have one row per channel - the newest wins
+    Optional<NotificationEntity> findFirstByOrderIdOrderByIdDesc(String orderId);
+    List<NotificationEntity> findByOrderIdIn(Collection<String> orderIds);
+    boolean existsByOrderIdAndNotificationType(String orderId, String notificationType);
     List<NotificationEntity> findByCustomerId(String customerId);
     List<NotificationEntity> findByStatus(String status);
     List<NotificationEntity> findByConsumerMethod(String consumerMethod);
     long countByStatus(String status);
+    
+    // Dedupe cache warm-up: order ids a group processed on a partition since a point in time, newest first
+    @Query("select new in.codefarm.notification.service.as.consumer.dto.ProcessedKey(n.orderId, n.createdAt) "
+        + "from NotificationEntity n "
+        + "where n.consumerGroup = :consumerGroup and n.partition = :partition and n.createdAt >= :since "
+        + "order by n.createdAt desc")
+    List<ProcessedKey> findRecentOrderIds(
+        @Param("consumerGroup") String consumerGroup,
+        @Param("partition") Integer partition,
+        @Param("since") LocalDateTime since,
+        Pageable pageable
+    );
+    
+    // Stats rebuild: one row per (status, consumerMethod, consumerGroup, notificationType)
+    @Query("select new in.codefarm.notification.service.as.consumer.dto.NotificationCount("
+        + "n.status, n.consumerMethod, n.consumerGroup, n.notificationType, count(n)) "
+        + "from NotificationEntity n "
+        + "group by n.status, n.consumerMethod, n.consumerGroup, n.notificationType")
+    List<NotificationCount> countByAttributes();
+    
+    // Stats rebuild: keyset page of sentAt values for the rate buckets
+    @Query("select new in.codefarm.notification.service.as.consumer.dto.NotificationSentAt(n.id, n.sentAt) "
+        + "from NotificationEntity n "
+        + "where n.status = :status and n.sentAt >= :since and n.id > :afterId "
+        + "order by n.id")
+    List<NotificationSentAt> findSentAtAfter(
+        @Param("status") String status,
+        @Param("since") LocalDateTime since,
+        @Param("afterId") long afterId,
+        Pageable pageable
+    );
+    
+    // Keyset pages on id - pass PageRequest.of(0, limit)
+    List<NotificationEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+    List<NotificationEntity> findByCustomerIdAndIdGreaterThanOrderByIdAsc(String customerId, Long afterId, Pageable pageable);
+    List<NotificationEntity> findByStatusAndIdGreaterThanOrderByIdAsc(String status, Long afterId, Pageable pageable);
+    List<NotificationEntity> findByConsumerMethodAndIdGreaterThanOrderByIdAsc(String consumerMethod, Long afterId, Pageable pageable);
+    
+    // Cursor-backed streams for the /stream endpoints - consume inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select n from NotificationEntity n order by n.id")
+    Stream<NotificationEntity> streamAll();
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    Stream<NotificationEntity> streamByCustomerIdOrderByIdAsc(String customerId);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    Stream<NotificationEntity> streamByStatusOrderByIdAsc(String status);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    Stream<NotificationEntity> streamByConsumerMethodOrderByIdAsc(String consumerMethod);
 }
-
@@ -1,12 +1,20 @@
 package in.codefarm.notification.service.as.consumer.repository;
 
 
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
 import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
@@ -18,5 +26,24 @@ public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
     List<PaymentEntity> findByCustomerId(String customerId);
 
     List<PaymentEntity> findByStatus(String status);
-}
 
+    // Dedupe cache warm-up: payment ids a group processed on a partition since a point in time, newest first
+    @Query("select new in.codefarm.notification.service.as.consumer.dto.ProcessedKey(p.paymentId, p.createdAt) "
+        + "from PaymentEntity p "
+        + "where p.consumerGroup = :consumerGroup and p.partition = :partition and p.createdAt >= :since "
+        + "order by p.createdAt desc")
+    List<ProcessedKey> findRecentPaymentIds(
+        @Param("consumerGroup") String consumerGroup,
+        @Param("partition") Integer partition,
+        @Param("since") LocalDateTime since,
+        Pageable pageable
+    );
+
+    // Keyset page on id - pass PageRequest.of(0, limit)
+    List<PaymentEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Cursor-backed stream for /payments/stream - consume inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select p from PaymentEntity p order by p.id")
+    Stream<PaymentEntity> streamAll();
+}
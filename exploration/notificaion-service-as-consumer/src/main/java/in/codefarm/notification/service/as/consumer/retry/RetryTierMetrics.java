@@ -0,0 +1,55 @@
+package in.codefarm.notification.service.as.consumer.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters for the non-blocking retry pipeline (Scenario 11), one series per tier:
+ *
+ * notification.retry.attempts{tier, outcome}   tier = main | retry-<delay ms>, outcome = sent | transient | invalid
+ * notification.retry.dead-lettered{reason}       reason = simple name of the exception that sent the record to the DLT
+ *
+ * Served by /actuator/metrics, e.g. /actuator/metrics/notification.retry.attempts?tag=tier:retry-10000
+ */
+@Component
+public class RetryTierMetrics {
+    
+    public static final String ATTEMPTS = "notification.retry.attempts";
+    public static final String DEAD_LETTERED = "notification.retry.dead-lettered";
+    public static final String MAIN_TIER = "main";
+    
+    private static final String RETRY_MARKER = "-retry";
+    
+    private final MeterRegistry meterRegistry;
+    
+    public RetryTierMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public void attempt(String tier, String outcome) {
+        Counter.builder(ATTEMPTS)
+            .description("Delivery attempts of the retrying notification consumer")
+            .tag("tier", tier)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    public void deadLettered(String reason) {
+        Counter.builder(DEAD_LETTERED)
+            .description("Records given up on by the retrying notification consumer")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    // orders -> main, orders-retry-10000 -> retry-10000
+    public static String tierOf(String topic) {
+        if (topic == null) {
+            return "unknown";
+        }
+        int marker = topic.lastIndexOf(RETRY_MARKER);
+        return marker < 0 ? MAIN_TIER : topic.substring(marker + 1);
+    }
+}
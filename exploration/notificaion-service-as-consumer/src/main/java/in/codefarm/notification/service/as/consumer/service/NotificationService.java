@@ -1,26 +1,59 @@
 package in.codefarm.notification.service.as.consumer.service;
 
+import in.codefarm.notification.service.as.consumer.audit.AuditQuery;
+import in.codefarm.notification.service.as.consumer.audit.NotificationAuditStore;
+import in.codefarm.notification.service.as.consumer.dispatch.NotificationChannel;
 import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.exception.OrderIsInvalid;
 import in.codefarm.notification.service.as.consumer.exception.TransientDownstreamException;
-import in.codefarm.notification.service.as.consumer.repository.NotificationRepository;
+import in.codefarm.notification.service.as.consumer.readmodel.NotificationReadModel;
+import in.codefarm.notification.service.as.consumer.stats.NotificationStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
     
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
     
-    private final NotificationRepository notificationRepository;
+    private final NotificationAuditStore notificationAuditStore;
+    private final NotificationStats notificationStats;
+    private final NotificationReadModel notificationReadModel;
+    private final long downstreamLatencyMs;
+    private final long smsLatencyMs;
+    private final long pushLatencyMs;
+    private final double transientFailureRate;
+    private final double invalidOrderRate;
     
-    public NotificationService(NotificationRepository notificationRepository) {
-        this.notificationRepository = notificationRepository;
+    public NotificationService(
+        NotificationAuditStore notificationAuditStore,
+        NotificationStats notificationStats,
+        NotificationReadModel notificationReadModel,
+        @Value("${notification.downstream.latency-ms:500}") long downstreamLatencyMs,
+        @Value("${notification.downstream.sms-latency-ms:300}") long smsLatencyMs,
+        @Value("${notification.downstream.push-latency-ms:100}") long pushLatencyMs,
+        @Value("${notification.simulation.transient-failure-rate:0.3}") double transientFailureRate,
+        @Value("${notification.simulation.invalid-order-rate:0.6}") double invalidOrderRate
+    ) {
+        this.notificationAuditStore = notificationAuditStore;
+        this.notificationStats = notificationStats;
+        this.notificationReadModel = notificationReadModel;
+        this.downstreamLatencyMs = downstreamLatencyMs;
+        this.smsLatencyMs = smsLatencyMs;
+        this.pushLatencyMs = pushLatencyMs;
+        this.transientFailureRate = transientFailureRate;
+        this.invalidOrderRate = invalidOrderRate;
     }
     
     @Transactional
@@ -48,12 +81,33 @@ public class NotificationService {
             consumerMethod
         );
         
-        var saved = notificationRepository.save(notification);
+        var saved = notificationAuditStore.save(notification);
+        notificationStats.recordSaved(List.of(saved));
+        notificationReadModel.notificationsSaved(List.of(saved));
         log.info("Notification saved to database - ID: {}, Order ID: {}", saved.getId(), event.orderId());
         
         return saved;
     }
     
+    // One transaction and JDBC-batched inserts for a whole poll
+    @Transactional
+    public void saveNotifications(List<NotificationEntity> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        notificationAuditStore.saveAll(notifications);
+        notificationStats.recordSaved(notifications);
+        notificationReadModel.notificationsSaved(notifications);
+        log.debug("Saved {} notifications to database in one transaction", notifications.size());
+    }
+    
+    // Order ids that already have a notification, in one query - returned set is mutable
+    public Set<String> findNotifiedOrderIds(Collection<String> orderIds) {
+        return notificationAuditStore.findByOrderIdIn(orderIds).stream()
+            .map(NotificationEntity::getOrderId)
+            .collect(Collectors.toCollection(HashSet::new));
+    }
+    
     public void sendEmailNotification(OrderPlacedEvent event)  {
         log.info("Sending email notification to customer: {}", event.customerId());
         log.info("Email: Your order {} for ${} has been placed successfully!", 
@@ -64,6 +118,31 @@ public class NotificationService {
         // emailService.sendConfirmationEmail(event.customerId(), event.orderId(), event.totalAmount());
     }
     
+    // Email through the (simulated) provider: blocks for notification.downstream.latency-ms like the HTTP call would
+    public void sendEmailViaProvider(OrderPlacedEvent event) throws InterruptedException {
+        Thread.sleep(downstreamLatencyMs);
+        sendEmailNotification(event);
+    }
+    
+    // Any channel through its (simulated) provider - email, SMS and push each block for their own latency
+    public void sendViaProvider(NotificationChannel channel, OrderPlacedEvent event) throws InterruptedException {
+        switch (channel) {
+            case EMAIL -> sendEmailViaProvider(event);
+            case SMS -> {
+                Thread.sleep(smsLatencyMs);
+                sendSMSNotification(event);
+            }
+            case PUSH -> {
+                Thread.sleep(pushLatencyMs);
+                sendPushNotification(event);
+            }
+        }
+    }
+    
+    public long downstreamLatencyMs() {
+        return downstreamLatencyMs;
+    }
+    
     public void sendSMSNotification(OrderPlacedEvent event) {
         log.info("Sending SMS notification to customer: {}", event.customerId());
         log.info("SMS: Order {} confirmed. Amount: ${}", event.orderId(), event.totalAmount());
@@ -77,47 +156,87 @@ public class NotificationService {
         
         // In real system: call push notification service
     }
-    private void sendNotication(String orderId, String userId) throws OrderIsInvalid {
+    // Unreliable downstream: ~30% transient failures, then ~60% of the rest rejected as invalid (see notification.simulation.*)
+    public void sendNotication(String orderId, String userId) throws OrderIsInvalid {
         // Simulate an unreliable downstream system ~30% of the time
-        if (Math.random() < 0.3) {
+        if (Math.random() < transientFailureRate) {
             log.warn("Simulation order failure due to service issue for order + {}", orderId);
             throw new TransientDownstreamException("Simulation order failure due to service issue for order "+ orderId);
         }
 
-        if(Math.random() < 0.6){
+        if(Math.random() < invalidOrderRate){
             log.warn("Simulation order failure due to business rule violation for order + {}", orderId);
             throw new OrderIsInvalid("Simulation order failure due to business rule violation for order " + orderId);
         }
         // Simulate some processing time
         try {
-            Thread.sleep(500); // 0.5s
+            Thread.sleep(downstreamLatencyMs);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
         log.info("sent notification for user {}", userId);
     }
+    // Served by the read model, the store on a miss
     public java.util.Optional<NotificationEntity> findByOrderId(String orderId) {
-        return notificationRepository.findByOrderId(orderId);
+        return notificationReadModel.findNotificationByOrderId(orderId);
+    }
+    
+    public boolean existsForChannel(String orderId, String notificationType) {
+        return notificationAuditStore.existsByOrderIdAndNotificationType(orderId, notificationType);
     }
     
     public List<NotificationEntity> findAll() {
-        return notificationRepository.findAll();
+        return notificationAuditStore.findAll(AuditQuery.all());
     }
     
     public List<NotificationEntity> findByCustomerId(String customerId) {
-        return notificationRepository.findByCustomerId(customerId);
+        return notificationAuditStore.findAll(AuditQuery.byCustomerId(customerId));
     }
     
     public List<NotificationEntity> findByStatus(String status) {
-        return notificationRepository.findByStatus(status);
+        return notificationAuditStore.findAll(AuditQuery.byStatus(status));
     }
     
     public List<NotificationEntity> findByConsumerMethod(String consumerMethod) {
-        return notificationRepository.findByConsumerMethod(consumerMethod);
+        return notificationAuditStore.findAll(AuditQuery.byConsumerMethod(consumerMethod));
     }
     
     public long countByStatus(String status) {
-        return notificationRepository.countByStatus(status);
+        return notificationAuditStore.countByStatus(status);
+    }
+    
+    // Keyset pages: notifications with id > afterId, in id order - from the read model while it holds the range
+    public List<NotificationEntity> findPage(long afterId, int limit) {
+        return notificationReadModel.findPage(AuditQuery.all(), afterId, limit);
+    }
+    
+    public List<NotificationEntity> findPageByCustomerId(String customerId, long afterId, int limit) {
+        return notificationReadModel.findPage(AuditQuery.byCustomerId(customerId), afterId, limit);
+    }
+    
+    public List<NotificationEntity> findPageByStatus(String status, long afterId, int limit) {
+        return notificationReadModel.findPage(AuditQuery.byStatus(status), afterId, limit);
+    }
+    
+    public List<NotificationEntity> findPageByConsumerMethod(String consumerMethod, long afterId, int limit) {
+        return notificationReadModel.findPage(AuditQuery.byConsumerMethod(consumerMethod), afterId, limit);
+    }
+    
+    // Streams hand each row to the sink as it is read - the JPA store detaches rows, so the persistence context never grows
+    public void streamAll(Consumer<NotificationEntity> sink) {
+        notificationAuditStore.stream(AuditQuery.all(), sink);
+    }
+    
+    public void streamByCustomerId(String customerId, Consumer<NotificationEntity> sink) {
+        notificationAuditStore.stream(AuditQuery.byCustomerId(customerId), sink);
+    }
+    
+    public void streamByStatus(String status, Consumer<NotificationEntity> sink) {
+        notificationAuditStore.stream(AuditQuery.byStatus(status), sink);
+    }
+    
+    public void streamByConsumerMethod(String consumerMethod, Consumer<NotificationEntity> sink) {
+        notificationAuditStore.stream(AuditQuery.byConsumerMethod(consumerMethod), sink);
     }
 }
 
@@ -2,14 +2,19 @@ package in.codefarm.notification.service.as.consumer.service;
 
 import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
 import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import in.codefarm.notification.service.as.consumer.readmodel.NotificationReadModel;
 import in.codefarm.notification.service.as.consumer.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PaymentService {
@@ -18,13 +23,19 @@ public class PaymentService {
     
     private final PaymentRepository paymentRepository;
     private final NotificationService notificationService;
+    private final NotificationReadModel notificationReadModel;
+    private final EntityManager entityManager;
     
     public PaymentService(
         PaymentRepository paymentRepository,
-        NotificationService notificationService
+        NotificationService notificationService,
+        NotificationReadModel notificationReadModel,
+        EntityManager entityManager
     ) {
         this.paymentRepository = paymentRepository;
         this.notificationService = notificationService;
+        this.notificationReadModel = notificationReadModel;
+        this.entityManager = entityManager;
     }
     
     @Transactional
@@ -47,21 +58,40 @@ public class PaymentService {
             consumerGroup
         );
         
-        return paymentRepository.save(payment);
+        var saved = paymentRepository.save(payment);
+        notificationReadModel.paymentSaved(saved);
+        return saved;
     }
     
     public Optional<PaymentEntity> findPaymentByPaymentId(String paymentId) {
         return paymentRepository.findByPaymentId(paymentId);
     }
     
+    // Served by the read model, the DB on a miss
     public Optional<PaymentEntity> findPaymentByOrderId(String orderId) {
-        return paymentRepository.findByOrderId(orderId);
+        return notificationReadModel.findPaymentByOrderId(orderId);
     }
     
     public List<PaymentEntity> findAllPayments() {
         return paymentRepository.findAll();
     }
     
+    // Keyset page: payments with id > afterId, in id order
+    public List<PaymentEntity> findPaymentPage(long afterId, int limit) {
+        return paymentRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+    }
+    
+    // Hands each row to the sink and then detaches it, so the persistence context never grows
+    @Transactional(readOnly = true)
+    public void streamAllPayments(Consumer<PaymentEntity> sink) {
+        try (Stream<PaymentEntity> payments = paymentRepository.streamAll()) {
+            payments.forEach(payment -> {
+                sink.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
+    }
+    
     public List<PaymentEntity> findPaymentsByCustomerId(String customerId) {
         return paymentRepository.findByCustomerId(customerId);
     }
@@ -0,0 +1,130 @@
+package in.codefarm.notification.service.as.consumer.stats;
+
+import in.codefarm.notification.service.as.consumer.audit.NotificationAuditStore;
+import in.codefarm.notification.service.as.consumer.dto.NotificationCount;
+import in.codefarm.notification.service.as.consumer.dto.NotificationStatsResponse;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Notification counters kept in memory so /stats never touches the table: totals per status, consumer method,
+ * consumer group and notification type, plus SENT per second over the last minute and hour.
+ *
+ * Rebuilt once from the audit store - the table or the mapped log - before the listener containers start, then bumped by NotificationService after each
+ * save commits.
+ */
+@Component
+public class NotificationStats {
+    
+    private static final Logger log = LoggerFactory.getLogger(NotificationStats.class);
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String SENT = "SENT";
+    private static final int HOUR_SECONDS = 3600;
+    
+    private final NotificationAuditStore notificationAuditStore;
+    
+    private final LongAdder total = new LongAdder();
+    private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byConsumerMethod = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byConsumerGroup = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byNotificationType = new ConcurrentHashMap<>();
+    private final PerSecondCounter sentPerSecond = new PerSecondCounter(HOUR_SECONDS);
+    
+    public NotificationStats(NotificationAuditStore notificationAuditStore) {
+        this.notificationAuditStore = notificationAuditStore;
+    }
+    
+    @PostConstruct
+    void rebuild() {
+        for (NotificationCount count : notificationAuditStore.countByAttributes()) {
+            add(count.status(), count.consumerMethod(), count.consumerGroup(), count.notificationType(), count.count());
+        }
+        
+        // Last hour of SENT timestamps for the rate buckets
+        LocalDateTime since = LocalDateTime.now().minusSeconds(HOUR_SECONDS);
+        notificationAuditStore.streamSentAt(SENT, since, sentAt -> sentPerSecond.add(epochSecond(sentAt), 1));
+        
+        log.info("=== Notification Stats: Rebuilt from {} notifications ===", total.sum());
+    }
+    
+    // Counts once the surrounding transaction commits, or right away outside one
+    public void recordSaved(List<NotificationEntity> notifications) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(notifications);
+                }
+            });
+        } else {
+            count(notifications);
+        }
+    }
+    
+    public long total() {
+        return total.sum();
+    }
+    
+    public long countByStatus(String status) {
+        LongAdder adder = byStatus.get(status);
+        return adder != null ? adder.sum() : 0;
+    }
+    
+    public NotificationStatsResponse snapshot() {
+        long currentSecond = System.currentTimeMillis() / 1000;
+        return new NotificationStatsResponse(
+            total.sum(),
+            sums(byStatus),
+            sums(byConsumerMethod),
+            sums(byConsumerGroup),
+            sums(byNotificationType),
+            sentPerSecond.sum(currentSecond, 60) / 60.0,
+            sentPerSecond.sum(currentSecond, HOUR_SECONDS) / (double) HOUR_SECONDS
+        );
+    }
+    
+    private void count(List<NotificationEntity> notifications) {
+        for (NotificationEntity notification : notifications) {
+            add(notification.getStatus(), notification.getConsumerMethod(), notification.getConsumerGroup(),
+                notification.getNotificationType(), 1);
+            if (SENT.equals(notification.getStatus()) && notification.getSentAt() != null) {
+                sentPerSecond.add(epochSecond(notification.getSentAt()), 1);
+            }
+        }
+    }
+    
+    private void add(String status, String consumerMethod, String consumerGroup, String notificationType, long delta) {
+        total.add(delta);
+        increment(byStatus, status, delta);
+        increment(byConsumerMethod, consumerMethod, delta);
+        increment(byConsumerGroup, consumerGroup, delta);
+        increment(byNotificationType, notificationType, delta);
+    }
+    
+    private static void increment(Map<String, LongAdder> counters, String key, long delta) {
+        counters.computeIfAbsent(key != null ? key : UNKNOWN, k -> new LongAdder()).add(delta);
+    }
+    
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((key, adder) -> sums.put(key, adder.sum()));
+        return sums;
+    }
+    
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -0,0 +1,49 @@
+package in.codefarm.notification.service.as.consumer.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring of per-second counts covering the last `seconds` seconds. A bucket is tagged with the epoch second it
+ * counts and reset the first time a newer second lands on it, so nothing has to tick in the background.
+ */
+class PerSecondCounter {
+    
+    private final int seconds;
+    private final AtomicLongArray epochSeconds;
+    private final AtomicLongArray counts;
+    
+    PerSecondCounter(int seconds) {
+        this.seconds = seconds;
+        this.epochSeconds = new AtomicLongArray(seconds);
+        this.counts = new AtomicLongArray(seconds);
+    }
+    
+    void add(long epochSecond, long delta) {
+        int index = (int) Math.floorMod(epochSecond, (long) seconds);
+        long tagged = epochSeconds.get(index);
+        if (tagged < epochSecond) {
+            synchronized (this) {
+                if (epochSeconds.get(index) < epochSecond) {
+                    // Count is cleared before the tag moves, so an adder that sees the new tag never loses its add
+                    counts.set(index, 0);
+                    epochSeconds.set(index, epochSecond);
+                }
+            }
+        } else if (tagged > epochSecond) {
+            return; // older than the ring
+        }
+        counts.addAndGet(index, delta);
+    }
+    
+    // Sum of the `window` whole seconds before currentEpochSecond
+    long sum(long currentEpochSecond, int window) {
+        long sum = 0;
+        for (long second = currentEpochSecond - Math.min(window, seconds); second < currentEpochSecond; second++) {
+            int index = (int) Math.floorMod(second, (long) seconds);
+            if (epochSeconds.get(index) == second) {
+                sum += counts.get(index);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,122 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput and orderId lookup latency of the H2/JPA audit store (the application's default) against
+ * MappedNotificationAuditStore, on the same notifications. Every write is a separate save, as the consumers do it.
+ *
+ * The timed comparison is tagged benchmark, so the regular test task only runs the check that both stores give
+ * the same answers.
+ */
+@SpringBootTest(properties = "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}")
+@EmbeddedKafka(partitions = 1, topics = {"orders", "payments"})
+class AuditStoreBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditStoreBenchmarkTest.class);
+    private static final int WRITES = 20_000;
+    private static final int LOOKUPS = 5_000;
+    private static final int SAME_ANSWER_WRITES = 100;
+
+    @Autowired
+    private NotificationAuditStore jpaStore;
+
+    @TempDir
+    private Path auditDirectory;
+
+    @Test
+    void mappedStoreAnswersLikeH2() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        assertThat(jpaStore).isInstanceOf(JpaNotificationAuditStore.class);
+
+        try (var mappedStore = new MappedNotificationAuditStore(auditDirectory, 1024 * 1024, 168, 1024)) {
+            write(jpaStore, "jpa-" + run, SAME_ANSWER_WRITES);
+            write(mappedStore, "mmap-" + run, SAME_ANSWER_WRITES);
+
+            var fromMapped = mappedStore.findByOrderId("mmap-" + run + "-42").orElseThrow();
+            var fromJpa = jpaStore.findByOrderId("jpa-" + run + "-42").orElseThrow();
+            assertThat(fromMapped.getCustomerId()).isEqualTo(fromJpa.getCustomerId());
+            assertThat(fromMapped.getStatus()).isEqualTo(fromJpa.getStatus());
+            assertThat(fromMapped.getMessage()).isEqualTo(fromJpa.getMessage());
+            assertThat(fromMapped.getOffset()).isEqualTo(fromJpa.getOffset());
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void mappedStoreWritesAndLooksUpFasterThanH2() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        assertThat(jpaStore).isInstanceOf(JpaNotificationAuditStore.class);
+
+        try (var mappedStore = new MappedNotificationAuditStore(auditDirectory, 16 * 1024 * 1024, 168, 1024)) {
+            Result jpa = measure(jpaStore, "jpa-" + run);
+            Result mapped = measure(mappedStore, "mmap-" + run);
+
+            log.info("=== Audit store benchmark: {} writes, {} lookups ===", WRITES, LOOKUPS);
+            log.info("| store | writes/s | lookup p50 (us) | lookup p99 (us) |");
+            log.info("|-------|----------|-----------------|-----------------|");
+            log.info("| h2    | {} | {} | {} |", jpa.writesPerSecond(), jpa.lookupP50Micros(), jpa.lookupP99Micros());
+            log.info("| mmap  | {} | {} | {} |", mapped.writesPerSecond(), mapped.lookupP50Micros(), mapped.lookupP99Micros());
+            log.info("mmap: {} segments, {} KB orderId index", mappedStore.segmentCount(), mappedStore.indexSizeInBytes() / 1024);
+
+            assertThat(mapped.writesPerSecond()).isGreaterThan(jpa.writesPerSecond());
+            assertThat(mapped.lookupP50Micros()).isLessThanOrEqualTo(jpa.lookupP50Micros());
+        }
+    }
+
+    private static Result measure(NotificationAuditStore store, String orderPrefix) {
+        long writeStart = System.nanoTime();
+        write(store, orderPrefix, WRITES);
+        long writeNanos = System.nanoTime() - writeStart;
+
+        long[] lookupNanos = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String orderId = orderPrefix + "-" + ThreadLocalRandom.current().nextInt(WRITES);
+            long start = System.nanoTime();
+            assertThat(store.findByOrderId(orderId)).isPresent();
+            lookupNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(lookupNanos);
+
+        return new Result(
+            WRITES * TimeUnit.SECONDS.toNanos(1) / writeNanos,
+            TimeUnit.NANOSECONDS.toMicros(lookupNanos[LOOKUPS / 2]),
+            TimeUnit.NANOSECONDS.toMicros(lookupNanos[LOOKUPS * 99 / 100])
+        );
+    }
+
+    private static void write(NotificationAuditStore store, String orderPrefix, int writes) {
+        for (int i = 0; i < writes; i++) {
+            store.save(new NotificationEntity(
+                orderPrefix + "-" + i,
+                "customer-" + (i % 500),
+                "EMAIL",
+                i % 10 == 0 ? "FAILED" : "SENT",
+                "Order confirmation email sent",
+                i % 3,
+                (long) i,
+                "notification-service-group",
+                "benchmark"
+            ));
+        }
+    }
+
+    private record Result(long writesPerSecond, long lookupP50Micros, long lookupP99Micros) {
+    }
+}
@@ -0,0 +1,130 @@
+package in.codefarm.notification.service.as.consumer.audit;
+
+import in.codefarm.notification.service.as.consumer.dto.NotificationCount;
+import in.codefarm.notification.service.as.consumer.dto.ProcessedKey;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Recovery, retention and order chains of the mapped audit log, on small segments so a few hundred records span
+ * several of them. Every restart is a new store on the same directory.
+ */
+class MappedNotificationAuditStoreTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+    private static final long KEEP_HOURS = 168;
+
+    @TempDir
+    private Path directory;
+
+    private int fillers;
+
+    @Test
+    void restartRebuildsIndexNextIdAndChainsAcrossSegments() {
+        long lastId;
+        try (var store = open(KEEP_HOURS)) {
+            store.save(notification("ORD-1", "EMAIL"));
+            rollAtLeast(store, 2);
+            store.save(notification("ORD-1", "SMS"));
+            rollAtLeast(store, 1);
+            lastId = store.save(notification("ORD-1", "PUSH")).getId();
+        }
+
+        try (var store = open(KEEP_HOURS)) {
+            assertThat(types(store.findByOrderIdIn(List.of("ORD-1")))).containsExactly("PUSH", "SMS", "EMAIL");
+            assertThat(store.findByOrderId("ORD-1").orElseThrow().getId()).isEqualTo(lastId);
+            assertThat(store.existsByOrderIdAndNotificationType("ORD-1", "EMAIL")).isTrue();
+            assertThat(store.save(notification("ORD-2", "EMAIL")).getId()).isEqualTo(lastId + 1);
+        }
+    }
+
+    @Test
+    void restartAfterRetentionFollowsLinksOfTheSegmentsLeft() throws Exception {
+        try (var store = open(KEEP_HOURS)) {
+            store.save(notification("ORD-GONE", "EMAIL"));
+            rollAtLeast(store, 3);
+            // Both in the active segment, which retention never deletes
+            store.save(notification("ORD-1", "EMAIL"));
+            store.save(notification("ORD-1", "SMS"));
+        }
+        Thread.sleep(20); // every record is now older than a 0-hour retention
+
+        try (var store = open(0)) {
+            assertThat(store.segmentCount()).isEqualTo(1);
+            assertThat(store.findByOrderId("ORD-GONE")).isEmpty();
+            assertThat(types(store.findByOrderIdIn(List.of("ORD-1")))).containsExactly("SMS", "EMAIL");
+        }
+
+        // The surviving segment is no longer the first file; its records still link to it, and to the ones after
+        try (var store = open(KEEP_HOURS)) {
+            assertThat(types(store.findByOrderIdIn(List.of("ORD-1")))).containsExactly("SMS", "EMAIL");
+            assertThat(store.existsByOrderIdAndNotificationType("ORD-1", "EMAIL")).isTrue();
+            rollAtLeast(store, 4);
+            store.save(notification("ORD-1", "PUSH"));
+        }
+        try (var store = open(KEEP_HOURS)) {
+            assertThat(types(store.findByOrderIdIn(List.of("ORD-1")))).containsExactly("PUSH", "SMS", "EMAIL");
+            assertThat(store.existsByOrderIdAndNotificationType("ORD-1", "EMAIL")).isTrue();
+            assertThat(store.existsByOrderIdAndNotificationType("ORD-GONE", "EMAIL")).isFalse();
+        }
+    }
+
+    @Test
+    void restartRebuildsStatsCountsAndDedupeWarmUpFromTheLog() {
+        try (var store = open(KEEP_HOURS)) {
+            store.save(notification("ORD-1", "EMAIL"));
+            rollAtLeast(store, 2);
+            store.save(notification("ORD-2", "EMAIL"));
+            store.save(notification("ORD-3", "SMS"));
+        }
+
+        try (var store = open(KEEP_HOURS)) {
+            assertThat(store.countByStatus("SENT")).isEqualTo(3 + fillers);
+            assertThat(store.countByAttributes()).extracting(NotificationCount::notificationType, NotificationCount::count)
+                .containsExactlyInAnyOrder(tuple("EMAIL", 2L + fillers),
+                    tuple("SMS", 1L));
+            assertThat(store.findRecentOrderIds("notification-service-group", 0, LocalDateTime.now().minusMinutes(5), 2))
+                .extracting(ProcessedKey::key).containsExactly("ORD-3", "ORD-2");
+            assertThat(store.findRecentOrderIds("notification-service-group", 1, LocalDateTime.now().minusMinutes(5), 2))
+                .isEmpty();
+        }
+    }
+
+    private MappedNotificationAuditStore open(long retentionHours) {
+        return new MappedNotificationAuditStore(directory, SEGMENT_BYTES, retentionHours, 16);
+    }
+
+    // Writes unrelated orders until `rolls` new segments have been started
+    private void rollAtLeast(MappedNotificationAuditStore store, int rolls) {
+        int target = store.segmentCount() + rolls;
+        while (store.segmentCount() < target) {
+            store.save(notification("FILLER-" + fillers++, "EMAIL"));
+        }
+    }
+
+    private static List<String> types(List<NotificationEntity> notifications) {
+        return notifications.stream().map(NotificationEntity::getNotificationType).toList();
+    }
+
+    private static NotificationEntity notification(String orderId, String notificationType) {
+        return new NotificationEntity(
+            orderId,
+            "customer-1",
+            notificationType,
+            "SENT",
+            "Order confirmation sent",
+            0,
+            0L,
+            "notification-service-group",
+            "test"
+        );
+    }
+}
@@ -0,0 +1,186 @@
+package in.codefarm.notification.service.as.consumer.commit;
+
+import in.codefarm.notification.service.as.consumer.rebalance.CompositeRebalanceListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The container setup OffsetCommitCoalescer replaced - AckMode.MANUAL, acknowledging every record, so the
+ * container commits once per poll - against manualCommitKafkaListenerContainerFactory's: AckMode.MANUAL without
+ * acks, CoalescingCommitInterceptor and the coalescer as rebalance participant. Same records, small polls, no
+ * processing; commits are counted on the consumer itself.
+ *
+ * Asserts commit counts and final offsets only - the coalesced container must commit at most once per max-records
+ * acks plus the synchronous commit on stop, and leave nothing for redelivery. Times are logged, not asserted.
+ */
+@EmbeddedKafka(partitions = OffsetCommitCoalescerBenchmarkTest.PARTITIONS, topics = OffsetCommitCoalescerBenchmarkTest.TOPIC)
+class OffsetCommitCoalescerBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OffsetCommitCoalescerBenchmarkTest.class);
+
+    static final String TOPIC = "commit-benchmark";
+    static final int PARTITIONS = 3;
+    private static final int RECORDS = 3000;
+    private static final int MAX_POLL_RECORDS = 50;
+    private static final int MAX_RECORDS = 500;
+
+    @Test
+    void coalescedCommitsAreFewerAndLoseNothing(EmbeddedKafkaBroker broker) throws Exception {
+        produce(broker);
+
+        // Per-poll commits
+        String perPollGroup = "commit-benchmark-per-poll";
+        var perPollCommits = new AtomicInteger();
+        var perPollProperties = new ContainerProperties(TOPIC);
+        perPollProperties.setGroupId(perPollGroup);
+        perPollProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        var perPollConsumed = new CountDownLatch(RECORDS);
+        perPollProperties.setMessageListener((AcknowledgingMessageListener<String, String>) (record, acknowledgment) -> {
+            acknowledgment.acknowledge();
+            perPollConsumed.countDown();
+        });
+        long perPollMs = run(new KafkaMessageListenerContainer<>(consumerFactory(broker, perPollCommits), perPollProperties),
+            perPollConsumed);
+
+        // Coalesced commits - only the max-records bound, so the count does not depend on timing
+        String coalescedGroup = "commit-benchmark-coalesced";
+        var coalescedCommits = new AtomicInteger();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        var coalescer = new OffsetCommitCoalescer(meterRegistry, MAX_RECORDS, TimeUnit.MINUTES.toMillis(10));
+        var coalescedProperties = new ContainerProperties(TOPIC);
+        coalescedProperties.setGroupId(coalescedGroup);
+        coalescedProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        coalescedProperties.setConsumerRebalanceListener(new CompositeRebalanceListener(List.of(coalescer), meterRegistry, 5000));
+        var coalescedConsumed = new CountDownLatch(RECORDS);
+        coalescedProperties.setMessageListener((MessageListener<String, String>) record -> {
+            coalescer.acknowledge(coalescedGroup, record.topic(), record.partition(), record.offset());
+            coalescedConsumed.countDown();
+        });
+        var coalescedContainer = new KafkaMessageListenerContainer<>(consumerFactory(broker, coalescedCommits), coalescedProperties);
+        coalescedContainer.setRecordInterceptor(new CoalescingCommitInterceptor<>(coalescer));
+        long coalescedMs = run(coalescedContainer, coalescedConsumed);
+
+        log.info("=== Commit benchmark: {} records, {} per poll - per-poll MANUAL: {} commits in {} ms, coalesced: {} commits ({} async + {} sync) in {} ms ===",
+            RECORDS, MAX_POLL_RECORDS, perPollCommits.get(), perPollMs, coalescedCommits.get(),
+            (long) commits(meterRegistry, coalescedGroup, "async"), (long) commits(meterRegistry, coalescedGroup, "sync"), coalescedMs);
+
+        // At least one commit per non-empty poll, and a poll returns at most MAX_POLL_RECORDS
+        assertThat(perPollCommits.get()).isGreaterThanOrEqualTo(RECORDS / MAX_POLL_RECORDS);
+        // One per MAX_RECORDS acks, plus the synchronous commit of the tail when the container stops
+        assertThat(coalescedCommits.get()).isLessThanOrEqualTo(RECORDS / MAX_RECORDS + 1);
+
+        // The tail was committed on stop: both groups are at the end of every partition
+        assertThat(committed(broker, coalescedGroup)).isEqualTo(committed(broker, perPollGroup));
+        assertThat(committed(broker, coalescedGroup).values().stream().mapToLong(Long::longValue).sum()).isEqualTo(RECORDS);
+    }
+
+    // Runs the container until every record was consumed and stopping it has committed what is left
+    private static long run(KafkaMessageListenerContainer<String, String> container, CountDownLatch consumed)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        container.start();
+        try {
+            assertThat(consumed.await(60, TimeUnit.SECONDS)).as("all records consumed").isTrue();
+        } finally {
+            container.stop();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // Counts commitSync / commitAsync calls, from the container and from the coalescer alike
+    @SuppressWarnings("unchecked")
+    private static DefaultKafkaConsumerFactory<String, String> consumerFactory(EmbeddedKafkaBroker broker, AtomicInteger commits) {
+        var factory = new DefaultKafkaConsumerFactory<String, String>(consumerProps(broker));
+        factory.addPostProcessor(consumer -> (Consumer<String, String>) Proxy.newProxyInstance(
+            Consumer.class.getClassLoader(),
+            new Class<?>[]{Consumer.class},
+            (proxy, method, args) -> {
+                if ("commitSync".equals(method.getName()) || "commitAsync".equals(method.getName())) {
+                    commits.incrementAndGet();
+                }
+                try {
+                    return method.invoke(consumer, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        return factory;
+    }
+
+    private static double commits(MeterRegistry meterRegistry, String group, String mode) {
+        var counter = meterRegistry.find("notification.commit.commits").tag("group", group).tag("mode", mode).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static Map<TopicPartition, Long> committed(EmbeddedKafkaBroker broker, String group) {
+        Map<String, Object> configProps = consumerProps(broker);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        try (var consumer = new KafkaConsumer<String, String>(configProps)) {
+            Set<TopicPartition> partitions = new HashSet<>();
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                partitions.add(new TopicPartition(TOPIC, partition));
+            }
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            consumer.committed(partitions).forEach((partition, offset) ->
+                offsets.put(partition, offset == null ? 0 : offset.offset()));
+            return offsets;
+        }
+    }
+
+    private static void produce(EmbeddedKafkaBroker broker) throws Exception {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        try (var producer = new KafkaProducer<String, String>(configProps)) {
+            for (int i = 0; i < RECORDS; i++) {
+                producer.send(new ProducerRecord<>(TOPIC, i % PARTITIONS, null, "order-" + i));
+            }
+            producer.flush();
+        }
+    }
+
+    // Group ids come from the container properties
+    private static Map<String, Object> consumerProps(EmbeddedKafkaBroker broker) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
+        return configProps;
+    }
+}
@@ -0,0 +1,52 @@
+package in.codefarm.notification.service.as.consumer.commit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What the coalescer hands over for commit, read through flush() - the synchronous commit on revocation.
+ */
+class OffsetCommitCoalescerTest {
+
+    private static final String GROUP = "notification-service-manual-group";
+    private static final String TOPIC = "orders";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final OffsetCommitCoalescer coalescer = new OffsetCommitCoalescer(new SimpleMeterRegistry(), 1000, 1000);
+
+    @Test
+    void failedOffsetCapsThePartitionUntilItIsAckedItself() {
+        coalescer.acknowledge(GROUP, TOPIC, 0, 10);
+        coalescer.failed(GROUP, TOPIC, 0, 11);
+        coalescer.acknowledge(GROUP, TOPIC, 0, 12);
+        coalescer.acknowledge(GROUP, TOPIC, 0, 13);
+        assertThat(flush()).isEqualTo(Map.of(PARTITION, new OffsetAndMetadata(11)));
+
+        coalescer.acknowledge(GROUP, TOPIC, 0, 11);
+        assertThat(flush()).isEqualTo(Map.of(PARTITION, new OffsetAndMetadata(14)));
+    }
+
+    @Test
+    void lowestOfSeveralFailedOffsetsCaps() {
+        coalescer.acknowledge(GROUP, TOPIC, 0, 10);
+        coalescer.failed(GROUP, TOPIC, 0, 15);
+        coalescer.failed(GROUP, TOPIC, 0, 12);
+        coalescer.acknowledge(GROUP, TOPIC, 0, 20);
+        coalescer.acknowledge(GROUP, TOPIC, 0, 12);
+        assertThat(flush()).isEqualTo(Map.of(PARTITION, new OffsetAndMetadata(15)));
+
+        coalescer.acknowledge(GROUP, TOPIC, 0, 15);
+        assertThat(flush()).isEqualTo(Map.of(PARTITION, new OffsetAndMetadata(21)));
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> flush() {
+        return coalescer.flush(GROUP, List.of(PARTITION));
+    }
+}
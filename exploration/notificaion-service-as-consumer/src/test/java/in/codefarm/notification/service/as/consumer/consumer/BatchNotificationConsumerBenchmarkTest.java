@@ -0,0 +1,109 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scenario 3 against Scenario 3b on the same polls: BatchNotificationConsumer's listener methods are called with
+ * benchmark.batch-orders orders in polls of 100 (batchConsumerFactory's max.poll.records), against H2 with the
+ * application's JDBC batching. The broker is only there for the context; nothing is sent to orders.
+ *
+ * Per path: records/s over all polls. The table goes to the log and to benchmark.batch-report.
+ *
+ * Tagged benchmark, so the regular test task skips it - run ./gradlew listenerBenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "notification.batch-listener.enabled=true",
+    "spring.jpa.show-sql=false",
+    "logging.level.in.codefarm.notification.service.as.consumer=WARN"
+})
+@EmbeddedKafka(partitions = 4, topics = {"orders", "payments"})
+class BatchNotificationConsumerBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchNotificationConsumerBenchmarkTest.class);
+
+    private static final int ORDERS = Integer.getInteger("benchmark.batch-orders", 20_000);
+    private static final int POLL_RECORDS = 100;
+    private static final int PARTITIONS = 4;
+    private static final Path REPORT = Path.of(System.getProperty("benchmark.batch-report", "build/reports/batch-persistence-benchmark.md"));
+
+    @Autowired
+    private BatchNotificationConsumer batchNotificationConsumer;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    private interface BatchListener {
+        void consume(List<OrderPlacedEvent> events, List<Integer> partitions, List<Long> offsets);
+    }
+
+    @Test
+    void batchPersistenceAgainstPerRecordPersistence() throws Exception {
+        // Warms up the JIT, Hibernate and the connection pool on both paths
+        run("warmup-batch", Math.min(ORDERS, 2_000), batchNotificationConsumer::consumeBatch);
+        run("warmup-per-record", Math.min(ORDERS, 2_000), batchNotificationConsumer::consumeBatchPerRecord);
+
+        long perRecord = run("per-record", ORDERS, batchNotificationConsumer::consumeBatchPerRecord);
+        long batch = run("batch", ORDERS, batchNotificationConsumer::consumeBatch);
+
+        String table = String.format("""
+                # Batch persistence benchmark
+
+                %,d orders in polls of %d, H2 in memory, %d cores, Java %s. No provider latency.
+
+                | listener | records/s |
+                |----------|----------:|
+                | consumeBatchPerRecord (Scenario 3b - a transaction per record) | %,d |
+                | consumeBatch (Scenario 3 - one query and one transaction per poll) | %,d |
+                """,
+            ORDERS, POLL_RECORDS, Runtime.getRuntime().availableProcessors(), Runtime.version(), perRecord, batch);
+        log.info("=== Batch Benchmark: Results ===\n{}", table);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        Files.writeString(REPORT, table, StandardCharsets.UTF_8);
+
+        // Both paths saved every order once
+        assertThat(notificationService.findByConsumerMethod("batch")).hasSize(ORDERS + Math.min(ORDERS, 2_000));
+        assertThat(notificationService.findByConsumerMethod("batch-per-record")).hasSize(ORDERS + Math.min(ORDERS, 2_000));
+    }
+
+    // Records/s of one path over `orders` fresh orders
+    private static long run(String run, int orders, BatchListener listener) {
+        long start = System.nanoTime();
+        for (int first = 0; first < orders; first += POLL_RECORDS) {
+            int size = Math.min(POLL_RECORDS, orders - first);
+            List<OrderPlacedEvent> events = new ArrayList<>(size);
+            List<Long> offsets = new ArrayList<>(size);
+            for (int i = first; i < first + size; i++) {
+                events.add(new OrderPlacedEvent(run + "-ORD-" + i, "customer-" + (i % 1000), "PROD-" + (i % 50), 1,
+                    BigDecimal.TEN, LocalDateTime.now(), "TXN-" + i));
+                offsets.add((long) i);
+            }
+            listener.consume(events, Collections.nCopies(size, first / POLL_RECORDS % PARTITIONS), offsets);
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        long recordsPerSecond = orders * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        log.info("=== Batch Benchmark: {} - {} orders, {} records/s ===", run, orders, recordsPerSecond);
+        return recordsPerSecond;
+    }
+}
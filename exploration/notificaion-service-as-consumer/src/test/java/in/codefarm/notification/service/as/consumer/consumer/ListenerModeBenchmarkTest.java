@@ -0,0 +1,376 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.commit.CoalescingCommitInterceptor;
+import in.codefarm.notification.service.as.consumer.commit.OffsetCommitCoalescer;
+import in.codefarm.notification.service.as.consumer.dedupe.DedupeRebalanceParticipant;
+import in.codefarm.notification.service.as.consumer.dedupe.PartitionDedupeCache;
+import in.codefarm.notification.service.as.consumer.envelope.EnvelopeExpandingConsumerPostProcessor;
+import in.codefarm.notification.service.as.consumer.envelope.EnvelopeExpandingConsumerPostProcessor.Commits;
+import in.codefarm.notification.service.as.consumer.envelope.OrderEnvelopeDeserializer;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.rebalance.CompositeRebalanceListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput matrix of NotificationServiceConsumer's listener modes against an embedded broker: the topic is
+ * preloaded once with benchmark.records OrderPlacedEvents (JSON, snappy, with the order service's headers), then
+ * every mode drains it from the start in its own group at each benchmark.concurrency level.
+ *
+ * Containers are built the way KafkaConsumerConfig builds them - same deserializer, envelope post-processor,
+ * assignor, commit settings, rebalance listener - but the listeners only do what distinguishes the mode (reading
+ * headers, the dedupe check, acking to the coalescer). No email, no DB: the numbers are the cost of the mode
+ * itself. AuditStoreBenchmarkTest covers the save.
+ *
+ * Per run: records/s from the first to the last record, CPU per record on the listener threads (ThreadMXBean;
+ * includes poll, fetch decoding, deserialization and sync commits), commits sent and the consumers' average
+ * commit latency (commit-total, commit-latency-avg). The table goes to the log and to benchmark.report.
+ *
+ * Tagged benchmark, so the regular test task skips it - run ./gradlew listenerBenchmark.
+ */
+@Tag("benchmark")
+@EmbeddedKafka(partitions = ListenerModeBenchmarkTest.PARTITIONS, topics = ListenerModeBenchmarkTest.TOPIC)
+class ListenerModeBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerModeBenchmarkTest.class);
+
+    static final String TOPIC = "listener-benchmark";
+    static final int PARTITIONS = 6;
+    private static final long RECORDS = Long.getLong("benchmark.records", 1_000_000);
+    private static final int[] CONCURRENCY = Arrays.stream(System.getProperty("benchmark.concurrency", "1,3,6").split(","))
+        .map(String::trim)
+        .mapToInt(Integer::parseInt)
+        .toArray();
+    private static final Path REPORT = Path.of(System.getProperty("benchmark.report", "build/reports/listener-mode-benchmark.md"));
+    private static final long WARMUP_RECORDS = Math.min(RECORDS, 200_000);
+
+    enum Mode {
+        AUTO_COMMIT("auto-commit", "Scenario 1 - enable.auto.commit every 1 s"),
+        MANUAL_COMMIT("manual-commit", "Scenario 2 - AckMode.MANUAL, acks coalesced by OffsetCommitCoalescer"),
+        BATCH("batch", "Scenario 3 - batch listener, max.poll.records 100, AckMode.BATCH commit per poll"),
+        SPECIFIC_PARTITION("specific-partition", "Scenario 4 - manual assignment of all partitions, no group rebalancing"),
+        HEADERS("headers", "Scenario 5 - reads correlation-id, source and event-version"),
+        IDEMPOTENT("idempotent", "Scenario 7 - PartitionDedupeCache check and record per order");
+
+        final String label;
+        final String description;
+
+        Mode(String label, String description) {
+            this.label = label;
+            this.description = description;
+        }
+    }
+
+    @Test
+    void listenerModeMatrix(EmbeddedKafkaBroker broker) throws Exception {
+        preload(broker);
+
+        // Warms up the JIT on the shared paths (fetch, decompression, JSON) before anything is measured
+        run(broker, Mode.AUTO_COMMIT, 1, WARMUP_RECORDS);
+
+        // Scenario 6 (concurrent consumers) is the concurrency column of every mode
+        List<RunResult> results = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            for (int concurrency : CONCURRENCY) {
+                RunResult result = run(broker, mode, concurrency, RECORDS);
+                log.info("=== Listener Benchmark: {} x{} - {} records/s, {} us CPU/record, {} commits ===",
+                    mode.label, concurrency, result.recordsPerSecond(), String.format("%.2f", result.cpuMicrosPerRecord()),
+                    result.commits());
+                results.add(result);
+            }
+        }
+
+        String table = table(results);
+        log.info("=== Listener Benchmark: Results ===\n{}", table);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        Files.writeString(REPORT, table, StandardCharsets.UTF_8);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.consumed()).isGreaterThanOrEqualTo(RECORDS));
+    }
+
+    private RunResult run(EmbeddedKafkaBroker broker, Mode mode, int concurrency, long target) throws Exception {
+        String groupId = "listener-benchmark-" + mode.label + "-" + concurrency + "-" + UUID.randomUUID();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        var coalescer = new OffsetCommitCoalescer(meterRegistry, 1000, 1000);
+        var dedupeCache = new PartitionDedupeCache(groupId, TOPIC, Duration.ofMinutes(30), 100_000,
+            Duration.ofSeconds(60), (partition, since, limit) -> List.of());
+        var rebalanceListener = new CompositeRebalanceListener(
+            List.of(coalescer, new DedupeRebalanceParticipant(List.of(dedupeCache))), meterRegistry, 10000);
+
+        var consumerFactory = new DefaultKafkaConsumerFactory<String, OrderPlacedEvent>(consumerProps(broker, groupId, mode));
+        // batchConsumerFactory marks envelope orders for the container's commits; the others commit between polls
+        consumerFactory.addPostProcessor(new EnvelopeExpandingConsumerPostProcessor<>(
+            mode == Mode.BATCH ? Commits.PER_RECORD : Commits.BETWEEN_POLLS));
+
+        ContainerProperties containerProperties = mode == Mode.SPECIFIC_PARTITION
+            ? new ContainerProperties(IntStream.range(0, PARTITIONS)
+                .mapToObj(partition -> new TopicPartitionOffset(TOPIC, partition, TopicPartitionOffset.SeekPosition.BEGINNING))
+                .toArray(TopicPartitionOffset[]::new))
+            : new ContainerProperties(TOPIC);
+        containerProperties.setGroupId(groupId);
+        containerProperties.setConsumerRebalanceListener(rebalanceListener);
+
+        var progress = new Progress();
+        switch (mode) {
+            case AUTO_COMMIT, SPECIFIC_PARTITION -> containerProperties.setMessageListener(
+                (MessageListener<String, OrderPlacedEvent>) record -> progress.consumed(1));
+            case MANUAL_COMMIT -> {
+                containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+                containerProperties.setMessageListener((MessageListener<String, OrderPlacedEvent>) record -> {
+                    coalescer.acknowledge(groupId, record.topic(), record.partition(), record.offset());
+                    progress.consumed(1);
+                });
+            }
+            case BATCH -> {
+                // batchKafkaListenerContainerFactory's default: the container commits after each poll
+                containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+                containerProperties.setMessageListener(
+                    (BatchMessageListener<String, OrderPlacedEvent>) records -> progress.consumed(records.size()));
+            }
+            case HEADERS -> containerProperties.setMessageListener((MessageListener<String, OrderPlacedEvent>) record -> {
+                String correlationId = header(record, "correlation-id");
+                String source = header(record, "source");
+                String eventVersion = header(record, "event-version");
+                // A record without them is not counted, so the run times out instead of reporting a number
+                progress.consumed(correlationId != null && source != null && eventVersion != null ? 1 : 0);
+            });
+            case IDEMPOTENT -> containerProperties.setMessageListener((MessageListener<String, OrderPlacedEvent>) record -> {
+                OrderPlacedEvent event = record.value();
+                if (!dedupeCache.isDuplicate(record.partition(), event.orderId(), event.orderDate(), orderId -> false)) {
+                    dedupeCache.record(record.partition(), event.orderId());
+                }
+                progress.consumed(1);
+            });
+        }
+
+        var container = new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setConcurrency(concurrency);
+        container.setBeanName(groupId);
+        if (mode == Mode.MANUAL_COMMIT) {
+            container.setRecordInterceptor(new CoalescingCommitInterceptor<>(coalescer));
+        }
+
+        container.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120 + target / 10_000);
+            while (progress.count.get() < target) {
+                assertThat(System.nanoTime()).as("%s x%d drained in time", mode.label, concurrency).isLessThan(deadline);
+                Thread.sleep(20);
+            }
+            // Before stop(): the consumers and their metrics are gone once the container stops
+            long cpuNanos = progress.cpuNanos();
+            CommitStats commits = commitStats(container.metrics());
+            long elapsedNanos = Math.max(1, progress.lastNanos - progress.firstNanos);
+            long consumed = progress.count.get();
+            return new RunResult(
+                mode,
+                concurrency,
+                consumed,
+                consumed * TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                cpuNanos / 1000.0 / consumed,
+                commits.total(),
+                commits.averageLatencyMs()
+            );
+        } finally {
+            container.stop();
+        }
+    }
+
+    private static Map<String, Object> consumerProps(EmbeddedKafkaBroker broker, String groupId, Mode mode) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderEnvelopeDeserializer.class);
+        props.put("spring.json.trusted.packages", "*");
+        props.put("spring.json.use.type.headers", false);
+        props.put("spring.json.value.default.type", OrderPlacedEvent.class.getName());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, mode == Mode.BATCH ? 100 : 500);
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, List.of(CooperativeStickyAssignor.class));
+        // manual-commit factory: the coalescer commits; batch factory: the container commits after each poll;
+        // everything else auto-commits like autoCommitConsumerFactory
+        boolean autoCommit = mode != Mode.MANUAL_COMMIT && mode != Mode.BATCH;
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, autoCommit);
+        if (autoCommit) {
+            props.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+        }
+        return props;
+    }
+
+    // RECORDS orders over 1000 customers, keyed by customer, with the headers the order service sends
+    private static void preload(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JacksonJsonSerializer.class);
+        props.put("spring.json.add.type.headers", false);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 134217728L);
+
+        long start = System.nanoTime();
+        byte[] source = "order-service".getBytes(StandardCharsets.UTF_8);
+        byte[] eventVersion = "1".getBytes(StandardCharsets.UTF_8);
+        try (var producer = new KafkaProducer<String, OrderPlacedEvent>(props)) {
+            for (long i = 0; i < RECORDS; i++) {
+                String customerId = "customer-" + (i % 1000);
+                var event = new OrderPlacedEvent("ORD-" + i, customerId, "PROD-" + (i % 50), 1 + (int) (i % 5),
+                    BigDecimal.valueOf(10 + i % 990), LocalDateTime.now(), "TXN-" + i);
+                var record = new ProducerRecord<>(TOPIC, customerId, event);
+                record.headers()
+                    .add("correlation-id", UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                    .add("source", source)
+                    .add("event-version", eventVersion);
+                producer.send(record);
+            }
+            producer.flush();
+        }
+        log.info("=== Listener Benchmark: Preloaded {} orders in {} ms ===",
+            RECORDS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static String header(ConsumerRecord<String, OrderPlacedEvent> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    // Sum over the container's consumers of commit-total, and their commit-latency-avg weighted by it
+    private static CommitStats commitStats(Map<String, Map<MetricName, ? extends Metric>> metrics) {
+        double total = 0;
+        double latencySum = 0;
+        for (Map<MetricName, ? extends Metric> clientMetrics : metrics.values()) {
+            double commits = metric(clientMetrics, "commit-total");
+            double latency = metric(clientMetrics, "commit-latency-avg");
+            total += commits;
+            latencySum += commits * latency;
+        }
+        return new CommitStats((long) total, total > 0 ? latencySum / total : 0);
+    }
+
+    private static double metric(Map<MetricName, ? extends Metric> clientMetrics, String name) {
+        return clientMetrics.entrySet().stream()
+            .filter(entry -> entry.getKey().group().equals("consumer-coordinator-metrics") && entry.getKey().name().equals(name))
+            .map(entry -> entry.getValue().metricValue())
+            .filter(value -> value instanceof Double number && !number.isNaN())
+            .mapToDouble(value -> (Double) value)
+            .findFirst()
+            .orElse(0);
+    }
+
+    private static String table(List<RunResult> results) {
+        var table = new StringBuilder()
+            .append("# Listener mode benchmark\n\n")
+            .append(String.format("%,d orders, %d partitions, %d cores, Java %s. Listeners do no email and no DB work.%n%n",
+                RECORDS, PARTITIONS, Runtime.getRuntime().availableProcessors(), Runtime.version()))
+            .append("| mode | concurrency | records/s | CPU us/record | commits | commits/10k records | avg commit latency (ms) |\n")
+            .append("|------|------------:|----------:|--------------:|--------:|--------------------:|------------------------:|\n");
+        for (RunResult result : results) {
+            table.append(String.format("| %s | %d | %,d | %.2f | %,d | %.1f | %.2f |%n",
+                result.mode().label,
+                result.concurrency(),
+                result.recordsPerSecond(),
+                result.cpuMicrosPerRecord(),
+                result.commits(),
+                result.commits() * 10_000.0 / result.consumed(),
+                result.averageCommitLatencyMs()));
+        }
+        table.append("\n");
+        for (Mode mode : Mode.values()) {
+            table.append("- ").append(mode.label).append(": ").append(mode.description).append('\n');
+        }
+        return table.toString();
+    }
+
+    // Records seen and CPU of the threads that saw them, from each thread's first record
+    private static class Progress {
+
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        final AtomicLong count = new AtomicLong();
+        private final Map<Long, Long> cpuAtFirstRecord = new ConcurrentHashMap<>();
+        volatile long firstNanos;
+        volatile long lastNanos;
+
+        void consumed(int records) {
+            long now = System.nanoTime();
+            cpuAtFirstRecord.computeIfAbsent(Thread.currentThread().threadId(), id -> THREADS.getCurrentThreadCpuTime());
+            if (firstNanos == 0) {
+                firstNanos = now;
+            }
+            count.addAndGet(records);
+            lastNanos = now;
+        }
+
+        long cpuNanos() {
+            long total = 0;
+            for (Map.Entry<Long, Long> thread : cpuAtFirstRecord.entrySet()) {
+                long cpu = THREADS.getThreadCpuTime(thread.getKey());
+                if (cpu >= 0) {
+                    total += cpu - thread.getValue();
+                }
+            }
+            return total;
+        }
+    }
+
+    private record CommitStats(long total, double averageLatencyMs) {
+    }
+
+    private record RunResult(
+        Mode mode,
+        int concurrency,
+        long consumed,
+        long recordsPerSecond,
+        double cpuMicrosPerRecord,
+        long commits,
+        double averageCommitLatencyMs
+    ) {
+    }
+}
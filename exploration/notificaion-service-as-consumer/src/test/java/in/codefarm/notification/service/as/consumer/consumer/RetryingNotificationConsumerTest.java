@@ -0,0 +1,136 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.retry.RetryTierMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scenario 11 against an embedded broker with the regular 30% transient / 60% invalid failure simulation.
+ * Tiers are shortened to 200 ms, 1 s, 2 s so the whole pipeline drains within the test.
+ *
+ * The regular test checks where records went - hops from tier to tier and to the DLT - from the retry counters.
+ * How long the main topic takes against in-place retries is a wall-clock number, checked by
+ * mainTopicIsNotHeldByTransientFailures, which is tagged benchmark - run ./gradlew listenerBenchmark.
+ */
+@SpringBootTest(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "notification.retry-topics.enabled=true",
+    "notification.retry.first-delay-ms=" + RetryingNotificationConsumerTest.FIRST_DELAY_MS,
+    "notification.retry.multiplier=5",
+    "notification.retry.max-delay-ms=2000",
+    "notification.downstream.latency-ms=0"
+})
+@EmbeddedKafka(partitions = 4, topics = {"orders", "payments"})
+class RetryingNotificationConsumerTest {
+    
+    static final long FIRST_DELAY_MS = 200;
+    private static final int ORDERS = 50;
+    private static final String FIRST_TIER = "retry-200";
+    private static final String SECOND_TIER = "retry-1000";
+    private static final String LAST_TIER = "retry-2000";
+    
+    @Autowired
+    private KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    void transientFailuresHopThroughTheTiersAndInvalidOrdersGoStraightToTheDlt() throws Exception {
+        sendOrdersOnOnePartition();
+        
+        // Every record ends up either sent or dead-lettered
+        await(Duration.ofSeconds(60), () -> attempts(null, "sent") + deadLettered(null) == ORDERS);
+        
+        // Each transient failure hops to the next tier once: a tier is attempted as often as the one before failed
+        assertThat(attempts(RetryTierMetrics.MAIN_TIER, "transient")).isPositive();
+        assertThat(attempts(FIRST_TIER, null)).isEqualTo(attempts(RetryTierMetrics.MAIN_TIER, "transient"));
+        assertThat(attempts(SECOND_TIER, null)).isEqualTo(attempts(FIRST_TIER, "transient"));
+        assertThat(attempts(LAST_TIER, null)).isEqualTo(attempts(SECOND_TIER, "transient"));
+        
+        // Invalid orders skip the tiers: each one is dead-lettered after a single failure
+        assertThat(deadLettered("OrderIsInvalid")).isEqualTo(attempts(null, "invalid"));
+        // Only transient failures move on to the next tier, and only the last tier's go to the DLT
+        double retried = attempts(null, null) - attempts(RetryTierMetrics.MAIN_TIER, null);
+        assertThat(retried).isEqualTo(attempts(null, "transient") - attempts(LAST_TIER, "transient"));
+        assertThat(deadLettered("TransientDownstreamException")).isEqualTo(attempts(LAST_TIER, "transient"));
+    }
+    
+    @Tag("benchmark")
+    @Test
+    void mainTopicIsNotHeldByTransientFailures() throws Exception {
+        double mainBefore = attempts(RetryTierMetrics.MAIN_TIER, null);
+        double transientBefore = attempts(RetryTierMetrics.MAIN_TIER, "transient");
+        sendOrdersOnOnePartition();
+        
+        // Time from the first to the last first-attempt on the main topic
+        long firstSeen = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (attempts(RetryTierMetrics.MAIN_TIER, null) - mainBefore < ORDERS) {
+            assertThat(System.nanoTime()).as("all records attempted on the main topic").isLessThan(deadline);
+            if (firstSeen == 0 && attempts(RetryTierMetrics.MAIN_TIER, null) > mainBefore) {
+                firstSeen = System.nanoTime();
+            }
+            Thread.sleep(10);
+        }
+        long mainTopicMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstSeen);
+        
+        // Holding the partition for even the first tier of every transient failure would take longer than that
+        double transientOnMain = attempts(RetryTierMetrics.MAIN_TIER, "transient") - transientBefore;
+        assertThat(transientOnMain).isPositive();
+        assertThat(mainTopicMs).isLessThan((long) (transientOnMain * FIRST_DELAY_MS));
+    }
+    
+    // One key, one partition: with in-place retries every record waits behind each failure before it
+    private void sendOrdersOnOnePartition() throws Exception {
+        String key = "customer-" + UUID.randomUUID();
+        for (int i = 0; i < ORDERS; i++) {
+            var event = new OrderPlacedEvent(
+                "ORD-" + UUID.randomUUID(), key, "PROD-1", 1, BigDecimal.TEN, LocalDateTime.now(), null);
+            kafkaTemplate.send("orders", 0, key, event).get(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    private double attempts(String tier, String outcome) {
+        var search = meterRegistry.find(RetryTierMetrics.ATTEMPTS);
+        if (tier != null) {
+            search = search.tag("tier", tier);
+        }
+        if (outcome != null) {
+            search = search.tag("outcome", outcome);
+        }
+        return search.counters().stream().mapToDouble(Counter::count).sum();
+    }
+    
+    private double deadLettered(String reason) {
+        var search = meterRegistry.find(RetryTierMetrics.DEAD_LETTERED);
+        if (reason != null) {
+            search = search.tag("reason", reason);
+        }
+        return search.counters().stream().mapToDouble(Counter::count).sum();
+    }
+    
+    private static void await(Duration timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within %s", timeout).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
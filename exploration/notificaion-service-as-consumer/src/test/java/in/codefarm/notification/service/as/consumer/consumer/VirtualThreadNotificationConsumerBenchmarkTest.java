@@ -0,0 +1,109 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.NotificationServiceAsConsumerApplication;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scenario 9 across downstream latencies: for each benchmark.virtual-latencies value a context is started with
+ * that notification.downstream.latency-ms, and VirtualThreadNotificationConsumer's listener method is called with
+ * benchmark.virtual-orders orders the way the container calls it - one after the other, waiting for a slot once
+ * max-in-flight are running. The broker is only there for the context; nothing is sent to orders.
+ *
+ * Per latency: records/s from the first call until every future has completed, next to the ceiling the consumer
+ * logs (max-in-flight / latency). The table goes to the log and to benchmark.virtual-report.
+ *
+ * Tagged benchmark, so the regular test task skips it - run ./gradlew listenerBenchmark.
+ */
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 4, topics = {"orders", "payments"})
+class VirtualThreadNotificationConsumerBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadNotificationConsumerBenchmarkTest.class);
+
+    private static final int ORDERS = Integer.getInteger("benchmark.virtual-orders", 5_000);
+    private static final long[] LATENCIES_MS = Arrays.stream(System.getProperty("benchmark.virtual-latencies", "0,10,50,200").split(","))
+        .map(String::trim)
+        .mapToLong(Long::parseLong)
+        .toArray();
+    private static final int MAX_IN_FLIGHT = 200;
+    private static final int PARTITIONS = 4;
+    private static final Path REPORT = Path.of(System.getProperty("benchmark.virtual-report", "build/reports/virtual-thread-benchmark.md"));
+
+    @Test
+    void throughputAcrossDownstreamLatencies(EmbeddedKafkaBroker broker) throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (long latencyMs : LATENCIES_MS) {
+            try (var context = new SpringApplicationBuilder(NotificationServiceAsConsumerApplication.class)
+                    .properties(
+                        "spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                        "notification.virtual-listener.enabled=true",
+                        "notification.virtual-listener.max-in-flight=" + MAX_IN_FLIGHT,
+                        "notification.downstream.latency-ms=" + latencyMs,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.in.codefarm.notification.service.as.consumer=WARN")
+                    .run()) {
+                var consumer = context.getBean(VirtualThreadNotificationConsumer.class);
+
+                // Warms up the JIT, Hibernate and the connection pool before the measured run
+                run(consumer, "warmup-" + latencyMs, Math.min(ORDERS, 1_000));
+                long recordsPerSecond = run(consumer, "latency-" + latencyMs, ORDERS);
+
+                log.info("=== Virtual-Thread Benchmark: {} ms downstream - {} records/s ===", latencyMs, recordsPerSecond);
+                rows.append(String.format("| %d | %,d | %s |%n", latencyMs, recordsPerSecond,
+                    latencyMs > 0 ? String.format("%,d", MAX_IN_FLIGHT * 1000L / latencyMs) : "-"));
+                assertThat(consumer.depth()).as("slots released").isZero();
+            }
+        }
+
+        String table = String.format("""
+                # Virtual-thread consumer benchmark
+
+                %,d orders per latency, max-in-flight %d, H2 in memory, %d cores, Java %s.
+
+                | downstream latency (ms) | records/s | ceiling (max-in-flight / latency) |
+                |------------------------:|----------:|----------------------------------:|
+                %s""",
+            ORDERS, MAX_IN_FLIGHT, Runtime.getRuntime().availableProcessors(), Runtime.version(), rows);
+        log.info("=== Virtual-Thread Benchmark: Results ===\n{}", table);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        Files.writeString(REPORT, table, StandardCharsets.UTF_8);
+    }
+
+    // Records/s over `orders` fresh orders, until the last of their futures has completed
+    private static long run(VirtualThreadNotificationConsumer consumer, String run, int orders) throws Exception {
+        List<CompletableFuture<Void>> processed = new ArrayList<>(orders);
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            int partition = i % PARTITIONS;
+            long offset = i / PARTITIONS;
+            var event = new OrderPlacedEvent(run + "-ORD-" + i, "customer-" + (i % 1000), "PROD-" + (i % 50), 1,
+                BigDecimal.TEN, LocalDateTime.now(), "TXN-" + i);
+            var record = new ConsumerRecord<>("orders", partition, offset, event.customerId(), event);
+            processed.add(consumer.consume(event, "orders", partition, offset, record));
+        }
+        CompletableFuture.allOf(processed.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return orders * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
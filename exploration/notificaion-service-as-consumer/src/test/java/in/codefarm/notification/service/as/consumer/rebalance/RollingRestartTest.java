@@ -0,0 +1,293 @@
+package in.codefarm.notification.service.as.consumer.rebalance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rolling restart of one of two group members while a producer keeps writing: member a is stopped, stays down for
+ * DOWNTIME, and comes back as a new consumer. Measured per partition is the longest gap between two processed
+ * records during the restart, split into the restarted member's partitions and the survivor's.
+ *
+ * Dynamic membership: a leaves, its partitions move to b and (partly) back when a returns - two rebalances.
+ * Static membership: a's partitions wait for it (they pause for about DOWNTIME) and b sees no rebalance at all.
+ * In both modes the cooperative assignor keeps b's own partitions flowing, and nothing is lost.
+ *
+ * The regular tests check the rebalance callbacks and assignments only. The pauses are wall-clock numbers, checked
+ * by restartPausesStayOnTheRestartedMembersPartitions, which is tagged benchmark - run ./gradlew listenerBenchmark.
+ */
+@EmbeddedKafka(partitions = RollingRestartTest.PARTITIONS, topics = RollingRestartTest.TOPIC)
+class RollingRestartTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RollingRestartTest.class);
+
+    static final String TOPIC = "rolling-restart";
+    static final int PARTITIONS = 6;
+    private static final Duration DOWNTIME = Duration.ofSeconds(2);
+    private static final int SESSION_TIMEOUT_MS = 10000;
+
+    @Test
+    void staticMembersRestartWithoutRebalancingTheSurvivor(EmbeddedKafkaBroker broker) throws Exception {
+        RestartResult result = rollingRestart(broker, "rolling-restart-static", true);
+
+        assertThat(result.survivorCallbacks()).as("rebalance callbacks on the survivor").isZero();
+        assertThat(result.restartedOwned()).as("partitions back on the restarted member").isEqualTo(result.restartedPartitions());
+        assertThat(result.survivorOwned()).as("partitions on the survivor").isEqualTo(result.survivorPartitions());
+        assertThat(result.lost()).isZero();
+    }
+
+    @Test
+    void dynamicMembersRebalanceTwicePerRestart(EmbeddedKafkaBroker broker) throws Exception {
+        RestartResult result = rollingRestart(broker, "rolling-restart-dynamic", false);
+
+        assertThat(result.survivorCallbacks()).as("rebalance callbacks on the survivor").isPositive();
+        assertThat(result.restartedOwned()).as("partitions on the restarted member").isNotEmpty();
+        assertThat(result.restartedOwned().size() + result.survivorOwned().size()).as("partitions assigned").isEqualTo(PARTITIONS);
+        assertThat(result.lost()).isZero();
+    }
+
+    @Tag("benchmark")
+    @Test
+    void restartPausesStayOnTheRestartedMembersPartitions(EmbeddedKafkaBroker broker) throws Exception {
+        RestartResult staticResult = rollingRestart(broker, "rolling-restart-static-pauses", true);
+        RestartResult dynamicResult = rollingRestart(broker, "rolling-restart-dynamic-pauses", false);
+
+        assertThat(staticResult.restartedPartitionsGapMs()).isGreaterThanOrEqualTo(DOWNTIME.toMillis());
+        assertThat(staticResult.survivorPartitionsGapMs()).isLessThan(DOWNTIME.toMillis());
+        assertThat(dynamicResult.survivorPartitionsGapMs()).isLessThan(DOWNTIME.toMillis());
+    }
+
+    private RestartResult rollingRestart(EmbeddedKafkaBroker broker, String groupId, boolean staticMembership)
+        throws Exception {
+        var processed = new ProcessedRecords();
+        var sent = ConcurrentHashMap.<String>newKeySet();
+
+        Recorder recorderA = new Recorder();
+        Recorder recorderB = new Recorder();
+        var a = container(broker, groupId, staticMembership ? "a" : null, recorderA, processed);
+        var b = container(broker, groupId, staticMembership ? "b" : null, recorderB, processed);
+
+        var producer = new KafkaTemplate<>(new DefaultKafkaProducerFactory<String, String>(producerProps(broker)));
+        var producing = new AtomicBoolean(true);
+        Thread sender = Thread.ofPlatform().name("rolling-restart-producer").start(() -> {
+            long sequence = 0;
+            while (producing.get()) {
+                String value = groupId + "-" + sequence;
+                producer.send(TOPIC, (int) (sequence++ % PARTITIONS), null, value);
+                sent.add(value);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        try {
+            a.start();
+            b.start();
+            await(Duration.ofSeconds(30), () -> !recorderA.owned.isEmpty() && !recorderB.owned.isEmpty()
+                && recorderA.owned.size() + recorderB.owned.size() == PARTITIONS);
+            Set<TopicPartition> restartedPartitions = Set.copyOf(recorderA.owned);
+            Set<TopicPartition> survivorPartitions = Set.copyOf(recorderB.owned);
+            Thread.sleep(1000);
+
+            // Restart a: stop it, stay down for DOWNTIME, start a replacement with the same identity
+            processed.startMeasuring();
+            recorderB.callbacks.set(0);
+            a.stop();
+            Thread.sleep(DOWNTIME.toMillis());
+            Recorder recorderRestarted = new Recorder();
+            var restarted = container(broker, groupId, staticMembership ? "a" : null, recorderRestarted, processed);
+            restarted.start();
+            await(Duration.ofSeconds(30), () -> !recorderRestarted.owned.isEmpty());
+            Thread.sleep(2000);
+            processed.stopMeasuring();
+            int survivorCallbacks = recorderB.callbacks.get();
+            Set<TopicPartition> restartedOwned = Set.copyOf(recorderRestarted.owned);
+            Set<TopicPartition> survivorOwned = Set.copyOf(recorderB.owned);
+
+            producing.set(false);
+            sender.join();
+            producer.flush();
+            await(Duration.ofSeconds(30), () -> processed.values.containsAll(sent));
+            restarted.stop();
+            b.stop();
+
+            var result = new RestartResult(
+                restartedPartitions,
+                survivorPartitions,
+                restartedOwned,
+                survivorOwned,
+                processed.maxGapMs(restartedPartitions),
+                processed.maxGapMs(survivorPartitions),
+                survivorCallbacks,
+                sent.stream().filter(value -> !processed.values.contains(value)).count()
+            );
+            log.info("=== Rolling restart ({} membership, {} ms down): restarted member's partitions paused up to {} ms, "
+                    + "survivor's up to {} ms, {} rebalance callbacks on the survivor, {} sent, {} lost ===",
+                staticMembership ? "static" : "dynamic", DOWNTIME.toMillis(), result.restartedPartitionsGapMs(),
+                result.survivorPartitionsGapMs(), result.survivorCallbacks(), sent.size(), result.lost());
+            return result;
+        } finally {
+            producing.set(false);
+            sender.interrupt();
+        }
+    }
+
+    private ConcurrentMessageListenerContainer<String, String> container(
+        EmbeddedKafkaBroker broker,
+        String groupId,
+        String instanceId,
+        Recorder recorder,
+        ProcessedRecords processed
+    ) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, SESSION_TIMEOUT_MS);
+        configProps.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 1000);
+        configProps.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, List.of(CooperativeStickyAssignor.class));
+
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setConsumerRebalanceListener(
+            new CompositeRebalanceListener(List.of(recorder), new SimpleMeterRegistry(), 5000));
+        containerProperties.setMessageListener((MessageListener<String, String>) record ->
+            processed.record(record.partition(), record.value()));
+        if (instanceId != null) {
+            Properties consumerProperties = new Properties();
+            consumerProperties.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, groupId + "-" + instanceId);
+            containerProperties.setKafkaConsumerProperties(consumerProperties);
+        }
+
+        var container = new ConcurrentMessageListenerContainer<>(
+            new DefaultKafkaConsumerFactory<String, String>(configProps), containerProperties);
+        container.setBeanName(groupId + "-" + (instanceId != null ? instanceId : "member"));
+        return container;
+    }
+
+    private static Map<String, Object> producerProps(EmbeddedKafkaBroker broker) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        return configProps;
+    }
+
+    private static void await(Duration timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within %s", timeout).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    // Partitions of a and b before the restart, of the replacement and b after it
+    private record RestartResult(
+        Set<TopicPartition> restartedPartitions,
+        Set<TopicPartition> survivorPartitions,
+        Set<TopicPartition> restartedOwned,
+        Set<TopicPartition> survivorOwned,
+        long restartedPartitionsGapMs,
+        long survivorPartitionsGapMs,
+        int survivorCallbacks,
+        long lost
+    ) {
+    }
+
+    // Tracks partition ownership and counts every flush / warm the listener hands to it
+    private static class Recorder implements RebalanceParticipant {
+
+        final Set<TopicPartition> owned = ConcurrentHashMap.newKeySet();
+        final AtomicInteger callbacks = new AtomicInteger();
+
+        @Override
+        public Map<TopicPartition, OffsetAndMetadata> flush(
+            String groupId, Collection<TopicPartition> revoked) {
+            callbacks.incrementAndGet();
+            return Map.of();
+        }
+
+        @Override
+        public void warm(String groupId, Collection<TopicPartition> assigned) {
+            callbacks.incrementAndGet();
+            owned.addAll(assigned);
+        }
+
+        @Override
+        public void release(String groupId, Collection<TopicPartition> partitions) {
+            owned.removeAll(partitions);
+        }
+    }
+
+    // Longest gap between two processed records per partition while measuring
+    private static class ProcessedRecords {
+
+        final Set<String> values = ConcurrentHashMap.newKeySet();
+        private final Map<Integer, Long> lastSeenNanos = new ConcurrentHashMap<>();
+        private final Map<Integer, Long> maxGapNanos = new ConcurrentHashMap<>();
+        private volatile boolean measuring;
+
+        void record(int partition, String value) {
+            values.add(value);
+            long now = System.nanoTime();
+            Long previous = lastSeenNanos.put(partition, now);
+            if (measuring && previous != null) {
+                maxGapNanos.merge(partition, now - previous, Math::max);
+            }
+        }
+
+        void startMeasuring() {
+            maxGapNanos.clear();
+            measuring = true;
+        }
+
+        void stopMeasuring() {
+            measuring = false;
+        }
+
+        long maxGapMs(Collection<TopicPartition> partitions) {
+            return partitions.stream()
+                .mapToLong(partition -> maxGapNanos.getOrDefault(partition.partition(), 0L))
+                .map(TimeUnit.NANOSECONDS::toMillis)
+                .max()
+                .orElse(0);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+/**
+ * BATCH ENDPOINT LOAD TEST
+ * - Posts batches of randomized orders to a batch endpoint
+ * - Counts orders (not requests) so the result compares directly with TcpIngestLoadClient
+ *
+ * k6 run -e ENDPOINT=/api/orders/batch-pipelined -e BATCH_SIZE=100 order-batch-load-test.js
+ */
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ENDPOINT = __ENV.ENDPOINT || '/api/orders/batch-pipelined';
+const BATCH_SIZE = parseInt(__ENV.BATCH_SIZE || '100');
+
+const ordersAccepted = new Counter('orders_accepted');
+
+export const options = {
+  scenarios: {
+    batch_throughput: {
+      executor: 'constant-vus',
+      vus: parseInt(__ENV.VUS || '8'),
+      duration: __ENV.DURATION || '1m',
+    },
+  },
+
+  thresholds: {
+    http_req_failed: ['rate<0.01'],      // < 1% errors
+  },
+};
+
+export default function () {
+  const orders = [];
+  for (let i = 0; i < BATCH_SIZE; i++) {
+    const quantity = Math.floor(Math.random() * 5) + 1;
+    orders.push({
+      customerId: `customer-${Math.floor(Math.random() * 10000)}`,
+      productId: `product-${Math.floor(Math.random() * 20) + 1}`,
+      quantity: quantity,
+      totalAmount: quantity * 500,
+    });
+  }
+
+  const res = http.post(`${BASE_URL}${ENDPOINT}`, JSON.stringify(orders), {
+    headers: { 'Content-Type': 'application/json' },
+  });
+
+  const ok = check(res, {
+    'status is 201': (r) => r.status === 201,
+  });
+
+  if (ok) {
+    ordersAccepted.add(BATCH_SIZE);
+  }
+}
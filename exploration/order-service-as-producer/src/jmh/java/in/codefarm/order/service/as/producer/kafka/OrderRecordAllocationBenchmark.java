@@ -0,0 +1,90 @@
+package in.codefarm.order.service.as.producer.kafka;
+
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes allocated per order for the /with-headers record, before and after OrderRecordHeaders.
+ *
+ * ./gradlew jmh  -> compare gc.alloc.rate.norm (B/op) of the legacy* and lean* benchmarks
+ *
+ * headers* covers only header building (what changed); record* adds the JSON payload, which both paths share
+ * and which is the floor for any Serializer-based send.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderRecordAllocationBenchmark {
+    
+    private static final String TOPIC = "orders";
+    
+    private OrderPlacedEvent event;
+    private JacksonJsonSerializer<OrderPlacedEvent> serializer;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        event = new OrderPlacedEvent(
+            UUID.randomUUID().toString(),
+            "customer-42",
+            "product-7",
+            3,
+            new BigDecimal("1500.00"),
+            LocalDateTime.now(),
+            UUID.randomUUID().toString()
+        );
+        serializer = new JacksonJsonSerializer<>();
+        serializer.configure(Map.of("spring.json.add.type.headers", false), false);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+    }
+    
+    @Benchmark
+    public ProducerRecord<String, OrderPlacedEvent> legacyHeaders() {
+        ProducerRecord<String, OrderPlacedEvent> record = new ProducerRecord<>(TOPIC, event.orderId(), event);
+        record.headers().add("correlation-id", event.orderId().getBytes());
+        record.headers().add("source", "order-service".getBytes());
+        record.headers().add("timestamp", String.valueOf(System.currentTimeMillis()).getBytes());
+        record.headers().add("event-version", "1.0".getBytes());
+        record.headers().add("intercepted-at", String.valueOf(System.currentTimeMillis()).getBytes());
+        return record;
+    }
+    
+    @Benchmark
+    public ProducerRecord<String, OrderPlacedEvent> leanHeaders() {
+        ProducerRecord<String, OrderPlacedEvent> record = new ProducerRecord<>(TOPIC, event.orderId(), event);
+        OrderRecordHeaders.addOrderHeaders(record.headers(), event.orderId(), System.currentTimeMillis());
+        record.headers().add(OrderRecordHeaders.INTERCEPTED_AT, OrderRecordHeaders.asciiLong(System.currentTimeMillis()));
+        return record;
+    }
+    
+    @Benchmark
+    public byte[] legacyRecord() {
+        var record = legacyHeaders();
+        return serializer.serialize(TOPIC, record.headers(), record.value());
+    }
+    
+    @Benchmark
+    public byte[] leanRecord() {
+        var record = leanHeaders();
+        return serializer.serialize(TOPIC, record.headers(), record.value());
+    }
+}
@@ -0,0 +1,16 @@
+package in.codefarm.order.service.as.producer.config;
+
+import in.codefarm.order.service.as.producer.jfr.OrderRequestJfrInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class JfrWebConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new OrderRequestJfrInterceptor())
+            .addPathPatterns("/api/orders/**");
+    }
+}
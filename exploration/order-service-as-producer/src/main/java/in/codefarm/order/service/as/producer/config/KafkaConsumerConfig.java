@@ -0,0 +1,83 @@
+package in.codefarm.order.service.as.producer.config;
+
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.kafka.EnvelopeSkippingJsonDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${order.log-first.projection.max-poll-records:1000}")
+    private int projectionMaxPollRecords;
+
+    // Consumer factory for the log-first projection - the orders DB is rebuilt from the orders topic
+    @Bean
+    public ConsumerFactory<String, OrderPlacedEvent> projectionConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Envelope records come back as null values and are skipped like any other non-log-first record
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, EnvelopeSkippingJsonDeserializer.class);
+        configProps.put("spring.json.trusted.packages", "*");
+        configProps.put("spring.json.use.type.headers", false);
+        configProps.put("spring.json.value.default.type", "in.codefarm.order.service.as.producer.event.OrderPlacedEvent");
+
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-projection-group");
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Offsets that matter are stored in the DB; Kafka commits are only a fallback
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // Large polls -> large batched transactions
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, projectionMaxPollRecords);
+        // Skip events from aborted payment transactions (PaymentEventProducer also writes to orders)
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    // Consumer factory for the reconciliation scan - partitions are assigned manually and nothing is committed
+    @Bean
+    public ConsumerFactory<String, byte[]> reconciliationConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Only keys (or envelope indexes) are read - payloads are never parsed
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        configProps.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 52428800);
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    // Container factory for the projection - batch listener, one DB transaction per poll
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> projectionKafkaListenerContainerFactory(
+            ConsumerFactory<String, OrderPlacedEvent> projectionConsumerFactory
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(projectionConsumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setConcurrency(1);
+        return factory;
+    }
+}
@@ -2,6 +2,7 @@ package in.codefarm.order.service.as.producer.config;
 
 import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -84,6 +85,38 @@ public class KafkaProducerConfig {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    // Producer for envelope records (OrderEnvelopeWriter) - values are already-encoded envelopes
+    @Bean
+    public ProducerFactory<String, byte[]> envelopeProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        // An envelope of 100 orders is ~20 KB - larger batches keep several envelopes per request
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        // Compresses the whole envelope, so repeated field names across orders compress well
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
+        // Same intercepted-at header as single orders, so enveloped orders count in the consumer's end-to-end latency
+        configProps.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                Collections.singletonList(MyProducerInterceptor.class));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+    
+    @Bean
+    public KafkaTemplate<String, byte[]> envelopeKafkaTemplate(
+        ProducerFactory<String, byte[]> envelopeProducerFactory
+    ) {
+        return new KafkaTemplate<>(envelopeProducerFactory);
+    }
+
       @Bean
     public ProducerFactory<String, Object> transactionalProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
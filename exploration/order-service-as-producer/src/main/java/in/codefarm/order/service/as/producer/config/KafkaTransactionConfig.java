@@ -1,16 +1,31 @@
 package in.codefarm.order.service.as.producer.config;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+/**
+ * Two transaction managers. Boot's JpaTransactionManager backs off as soon as any transaction manager bean exists,
+ * so it is declared here and marked primary: a plain @Transactional (order saves, the projection's rows plus
+ * projection_offsets) is a JPA transaction. Kafka transactions are opted into with
+ * @Transactional("kafkaTransactionManager").
+ */
 @Configuration
 @EnableTransactionManagement
 public class KafkaTransactionConfig {
     
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+    
     @Bean
     public KafkaTransactionManager<String, Object> kafkaTransactionManager(
         ProducerFactory<String, Object> transactionalProducerFactory
@@ -18,4 +33,3 @@ public class KafkaTransactionConfig {
         return new KafkaTransactionManager<>(transactionalProducerFactory);
     }
 }
-
@@ -1,6 +1,7 @@
 package in.codefarm.order.service.as.producer.config;
 
-import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.jfr.OrderSendPathEvents;
+import in.codefarm.order.service.as.producer.kafka.OrderRecordHeaders;
 import org.apache.kafka.clients.producer.ProducerInterceptor;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -10,18 +11,22 @@ import org.springframework.stereotype.Component;
 
 import java.util.Map;
 
+// Never reads the value, so the same interceptor serves the JSON order producer and the envelope (byte[]) producer
 @Component
-public class MyProducerInterceptor implements ProducerInterceptor<String, OrderPlacedEvent> {
+public class MyProducerInterceptor implements ProducerInterceptor<String, Object> {
     
     private static final Logger log = LoggerFactory.getLogger(MyProducerInterceptor.class);
     
     @Override
-    public ProducerRecord<String, OrderPlacedEvent> onSend(ProducerRecord<String, OrderPlacedEvent> record) {
+    public ProducerRecord<String, Object> onSend(ProducerRecord<String, Object> record) {
         // Called before sending - can modify record
-        log.info("Intercepting send - Topic: {}, Key: {}", record.topic(), record.key());
+        OrderSendPathEvents.producerEntered();
+        if (log.isDebugEnabled()) {
+            log.debug("Intercepting send - Topic: {}, Key: {}", record.topic(), record.key());
+        }
         
         // Add header
-        record.headers().add("intercepted-at", String.valueOf(System.currentTimeMillis()).getBytes());
+        record.headers().add(OrderRecordHeaders.INTERCEPTED_AT, OrderRecordHeaders.asciiLong(System.currentTimeMillis()));
         
         return record;
     }
@@ -30,9 +35,11 @@ public class MyProducerInterceptor implements ProducerInterceptor<String, OrderP
     public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
         // Called after acknowledgment
         if (exception == null) {
-            log.info("Message acknowledged - Partition: {}, Offset: {}", 
-                metadata.partition(), 
-                metadata.offset());
+            if (log.isDebugEnabled()) {
+                log.debug("Message acknowledged - Partition: {}, Offset: {}",
+                    metadata.partition(),
+                    metadata.offset());
+            }
         } else {
             log.error("Message failed - Error: {}", exception.getMessage());
         }
@@ -0,0 +1,61 @@
+package in.codefarm.order.service.as.producer.consumer;
+
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.service.OrderProjectionService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind side of the log-first mode: turns the orders topic into OrderEntity rows.
+ * On assignment it resumes from the offsets stored in the DB; partitions with no stored offset
+ * are replayed from the beginning, so an empty DB is rebuilt from the topic.
+ */
+@Component
+public class OrderProjectionConsumer implements ConsumerSeekAware {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderProjectionConsumer.class);
+    
+    private final OrderProjectionService orderProjectionService;
+    
+    public OrderProjectionConsumer(OrderProjectionService orderProjectionService) {
+        this.orderProjectionService = orderProjectionService;
+    }
+    
+    @KafkaListener(
+        id = "order-projection",
+        topics = "orders",
+        groupId = "order-projection-group",
+        containerFactory = "projectionKafkaListenerContainerFactory",
+        autoStartup = "${order.log-first.projection.enabled:true}"
+    )
+    public void consume(List<ConsumerRecord<String, OrderPlacedEvent>> records) {
+        log.debug("=== Order Projection: Received batch of {} records ===", records.size());
+        orderProjectionService.materialize(records);
+    }
+    
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> rebuild = new ArrayList<>();
+        
+        assignments.keySet().forEach(topicPartition -> orderProjectionService
+            .findNextOffset(topicPartition.topic(), topicPartition.partition())
+            .ifPresentOrElse(
+                nextOffset -> callback.seek(topicPartition.topic(), topicPartition.partition(), nextOffset),
+                () -> rebuild.add(topicPartition)
+            ));
+        
+        if (!rebuild.isEmpty()) {
+            log.info("=== Order Projection: No stored offsets for {} - rebuilding from the beginning ===", rebuild);
+            callback.seekToBeginning(rebuild);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package in.codefarm.order.service.as.producer.controller;
 
+import in.codefarm.order.service.as.producer.dto.BatchSendResponse;
 import in.codefarm.order.service.as.producer.entity.OrderEntity;
 import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.jfr.OrderSendPathEvents;
+import in.codefarm.order.service.as.producer.reconciliation.OrderReconciliationService;
+import in.codefarm.order.service.as.producer.service.CsvOrderImportService;
 import in.codefarm.order.service.as.producer.service.OrderEventProducerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,9 +27,17 @@ public class OrderController {
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
     
     private final OrderEventProducerService orderEventProducerService;
+    private final CsvOrderImportService csvOrderImportService;
+    private final OrderReconciliationService orderReconciliationService;
     
-    public OrderController(OrderEventProducerService orderEventProducerService) {
+    public OrderController(
+        OrderEventProducerService orderEventProducerService,
+        CsvOrderImportService csvOrderImportService,
+        OrderReconciliationService orderReconciliationService
+    ) {
         this.orderEventProducerService = orderEventProducerService;
+        this.csvOrderImportService = csvOrderImportService;
+        this.orderReconciliationService = orderReconciliationService;
     }
     
     // Request DTO
@@ -38,8 +51,10 @@ public class OrderController {
     
     // Helper method to create event from request
     private OrderPlacedEvent createEvent(OrderRequest request) {
+        var orderId = UUID.randomUUID().toString();
+        OrderSendPathEvents.tagRequest(orderId);
         return new OrderPlacedEvent(
-            UUID.randomUUID().toString(),
+            orderId,
             request.customerId(),
             request.productId(),
             request.quantity(),
@@ -153,7 +168,7 @@ public class OrderController {
     // Scenario 5: Send with Headers
     @PostMapping("/with-headers")
     public ResponseEntity<String> placeOrderWithHeaders(@RequestBody OrderRequest request) {
-        log.info("=== REST Endpoint: POST /api/orders/with-headers ===");
+        log.debug("=== REST Endpoint: POST /api/orders/with-headers ===");
         
         try {
             var event = createEvent(request);
@@ -254,6 +269,121 @@ public class OrderController {
                 .body("Error: " + e.getMessage());
         }
     }
+
+    // Scenario 7c: Pipelined Batch Send - one deadline for the whole batch, per-order results
+    @PostMapping("/batch-pipelined")
+    public ResponseEntity<BatchSendResponse> placeOrderBatchPipelined(
+        @RequestBody List<OrderRequest> requests,
+        @RequestParam(defaultValue = "10") long timeoutSeconds
+    ) {
+        log.info("=== REST Endpoint: POST /api/orders/batch-pipelined ({} orders, timeout: {}s) ===",
+            requests.size(), timeoutSeconds);
+
+        try {
+            List<OrderPlacedEvent> events = requests.stream()
+                .map(this::createEvent)
+                .collect(Collectors.toList());
+
+            var response = orderEventProducerService.sendBatchPipelined(events, timeoutSeconds);
+
+            // 207 tells the caller to look at the per-order results instead of retrying the whole batch
+            return ResponseEntity.status(response.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(response);
+        } catch (Exception e) {
+            log.error("Error in batch-pipelined endpoint", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(BatchSendResponse.error("Error: " + e.getMessage()));
+        }
+    }
+
+    // Scenario 7d: Envelope Batch Send - many orders per Kafka record, per-order results
+    @PostMapping("/batch-envelope")
+    public ResponseEntity<BatchSendResponse> placeOrderBatchEnvelope(
+        @RequestBody List<OrderRequest> requests,
+        @RequestParam(defaultValue = "100") int maxOrdersPerEnvelope,
+        @RequestParam(defaultValue = "10") long timeoutSeconds
+    ) {
+        log.info("=== REST Endpoint: POST /api/orders/batch-envelope ({} orders, max {} per envelope) ===",
+            requests.size(), maxOrdersPerEnvelope);
+        
+        if (maxOrdersPerEnvelope < 1 || maxOrdersPerEnvelope > 1000) {
+            return ResponseEntity.badRequest()
+                .body(BatchSendResponse.error("maxOrdersPerEnvelope must be between 1 and 1000"));
+        }
+        
+        try {
+            List<OrderPlacedEvent> events = requests.stream()
+                .map(this::createEvent)
+                .collect(Collectors.toList());
+            
+            var response = orderEventProducerService.sendBatchAsEnvelopes(events, maxOrdersPerEnvelope, timeoutSeconds);
+            
+            return ResponseEntity.status(response.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(response);
+        } catch (Exception e) {
+            log.error("Error in batch-envelope endpoint", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(BatchSendResponse.error("Error: " + e.getMessage()));
+        }
+    }
+    
+    // Scenario 8: Log-First Ingest - acked once the event is in Kafka, the DB row is written behind
+    @PostMapping("/log-first")
+    public ResponseEntity<String> placeOrderLogFirst(
+        @RequestBody OrderRequest request,
+        @RequestParam(defaultValue = "5") long timeoutSeconds
+    ) {
+        log.info("=== REST Endpoint: POST /api/orders/log-first ===");
+        
+        try {
+            var event = createEvent(request);
+            var metadata = orderEventProducerService.sendLogFirst(event, timeoutSeconds);
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body("Order accepted (log-first)! Order ID: " + event.orderId() +
+                      ", Partition: " + metadata.partition() + ", Offset: " + metadata.offset());
+        } catch (Exception e) {
+            log.error("Error in log-first endpoint", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Scenario 9: Bulk CSV Import - the file must be inside order.import.directory
+    @PostMapping("/import")
+    public ResponseEntity<?> importOrders(@RequestParam String file) {
+        log.info("=== REST Endpoint: POST /api/orders/import (file: {}) ===", file);
+        
+        try {
+            return ResponseEntity.ok(csvOrderImportService.importFile(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error in import endpoint", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Scenario 10: Reconciliation - re-publish orders that are in the DB but missing from the topic
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.info("=== REST Endpoint: POST /api/orders/reconcile (from: {}, to: {}) ===", from, to);
+        
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().body("Error: from must be before to");
+        }
+        try {
+            return ResponseEntity.ok(orderReconciliationService.reconcile(from, to));
+        } catch (Exception e) {
+            log.error("Error in reconcile endpoint", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error: " + e.getMessage());
+        }
+    }
     
     // Health check endpoint
     @GetMapping("/health")
@@ -0,0 +1,42 @@
+package in.codefarm.order.service.as.producer.dto;
+
+import java.util.List;
+
+public record BatchSendResponse(
+    int total,
+    int succeeded,
+    int failed,
+    long elapsedMs,
+    String message,
+    List<OrderSendResult> results
+) {
+    public static BatchSendResponse of(List<OrderSendResult> results, long elapsedMs) {
+        int succeeded = (int) results.stream().filter(result -> "SENT".equals(result.status())).count();
+        int failed = results.size() - succeeded;
+        String message = failed == 0
+            ? "All " + results.size() + " orders acknowledged by Kafka"
+            : failed + " of " + results.size() + " orders were not acknowledged by Kafka";
+        return new BatchSendResponse(results.size(), succeeded, failed, elapsedMs, message, results);
+    }
+
+    public static BatchSendResponse error(String message) {
+        return new BatchSendResponse(0, 0, 0, 0, message, List.of());
+    }
+
+    public record OrderSendResult(
+        String orderId,
+        Long dbId,
+        String status,
+        Integer partition,
+        Long offset,
+        String error
+    ) {
+        public static OrderSendResult sent(String orderId, Long dbId, int partition, long offset) {
+            return new OrderSendResult(orderId, dbId, "SENT", partition, offset, null);
+        }
+
+        public static OrderSendResult failed(String orderId, Long dbId, String error) {
+            return new OrderSendResult(orderId, dbId, "FAILED", null, null, error);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package in.codefarm.order.service.as.producer.dto;
+
+// rowsImported: saved and acknowledged by the broker; sendsFailed: saved, but the send failed or timed out
+public record CsvImportReport(
+    String file,
+    long fileBytes,
+    int chunks,
+    int parallelism,
+    long rowsImported,
+    long rowsRejected,
+    long sendsFailed,
+    long elapsedMs,
+    long rowsPerSecond,
+    long peakHeapMb
+) {
+}
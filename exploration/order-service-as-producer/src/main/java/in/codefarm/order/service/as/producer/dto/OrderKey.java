@@ -0,0 +1,8 @@
+package in.codefarm.order.service.as.producer.dto;
+
+// (id, orderId) projection for keyset scans over the orders table
+public record OrderKey(
+    Long id,
+    String orderId
+) {
+}
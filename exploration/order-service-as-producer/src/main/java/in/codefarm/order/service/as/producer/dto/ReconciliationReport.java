@@ -0,0 +1,18 @@
+package in.codefarm.order.service.as.producer.dto;
+
+import java.time.LocalDateTime;
+
+public record ReconciliationReport(
+    LocalDateTime from,
+    LocalDateTime to,
+    long topicRecordsScanned,
+    long dbOrdersScanned,
+    long bloomFilterBytes,
+    long candidates,
+    long confirmedMissing,
+    long republished,
+    long republishFailed,
+    boolean truncated,
+    long elapsedMs
+) {
+}
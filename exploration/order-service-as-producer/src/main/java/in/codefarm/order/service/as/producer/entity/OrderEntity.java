@@ -8,8 +8,10 @@ import java.time.LocalDateTime;
 @Table(name = "orders")
 public class OrderEntity {
     
+    // Sequence ids (allocated in blocks of 50) let Hibernate batch the inserts; IDENTITY disables JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     private String orderId;
@@ -0,0 +1,85 @@
+package in.codefarm.order.service.as.producer.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Next offset to read per topic-partition for the log-first projection.
+ * Written in the same transaction as the OrderEntity rows it covers, so the DB alone knows where to resume.
+ */
+@Entity
+@Table(name = "projection_offsets")
+public class ProjectionOffsetEntity {
+    
+    @Id
+    private String id;  // "<topic>-<partition>"
+    
+    private String topic;
+    @Column(name = "kafka_partition")
+    private Integer partition;
+    private Long nextOffset;
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Default constructor for JPA
+    public ProjectionOffsetEntity() {
+    }
+    
+    // Constructor
+    public ProjectionOffsetEntity(String topic, Integer partition, Long nextOffset) {
+        this.id = key(topic, partition);
+        this.topic = topic;
+        this.partition = partition;
+        this.nextOffset = nextOffset;
+    }
+    
+    public static String key(String topic, int partition) {
+        return topic + "-" + partition;
+    }
+    
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getTopic() {
+        return topic;
+    }
+    
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+    
+    public Integer getPartition() {
+        return partition;
+    }
+    
+    public void setPartition(Integer partition) {
+        this.partition = partition;
+    }
+    
+    public Long getNextOffset() {
+        return nextOffset;
+    }
+    
+    public void setNextOffset(Long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,103 @@
+package in.codefarm.order.service.as.producer.ingest;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary frames for the TCP ingest endpoint. Every frame is prefixed with its length (int, big-endian),
+ * which does not count the prefix itself.
+ *
+ * Order frame: [type=1][long requestId][short len][customerId][short len][productId][int quantity]
+ *              [long totalAmount unscaled][byte totalAmount scale]
+ * Ack frame:   [type=2][long requestId][byte status][long dbId]
+ */
+public final class OrderFrameCodec {
+    
+    public static final int LENGTH_PREFIX = Integer.BYTES;
+    public static final byte ORDER_FRAME = 1;
+    public static final byte ACK_FRAME = 2;
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_FAILED = 1;
+    public static final int ACK_BODY_SIZE = 1 + Long.BYTES + 1 + Long.BYTES;
+    public static final int ACK_FRAME_SIZE = LENGTH_PREFIX + ACK_BODY_SIZE;
+    
+    private OrderFrameCodec() {
+    }
+    
+    public record OrderFrame(
+        long requestId,
+        String customerId,
+        String productId,
+        int quantity,
+        BigDecimal totalAmount
+    ) {
+    }
+    
+    public record AckFrame(
+        long requestId,
+        byte status,
+        long dbId
+    ) {
+    }
+    
+    // Reads one order frame body; the buffer must be positioned just after the length prefix
+    public static OrderFrame decodeOrder(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type != ORDER_FRAME) {
+            throw new IllegalArgumentException("Unexpected frame type: " + type);
+        }
+        long requestId = buffer.getLong();
+        String customerId = readString(buffer);
+        String productId = readString(buffer);
+        int quantity = buffer.getInt();
+        long unscaledAmount = buffer.getLong();
+        int scale = buffer.get();
+        return new OrderFrame(requestId, customerId, productId, quantity, BigDecimal.valueOf(unscaledAmount, scale));
+    }
+    
+    // Writes a complete order frame, length prefix included
+    public static void encodeOrder(ByteBuffer buffer, OrderFrame frame) {
+        byte[] customerId = frame.customerId().getBytes(StandardCharsets.UTF_8);
+        byte[] productId = frame.productId().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 1 + Long.BYTES + Short.BYTES + customerId.length + Short.BYTES + productId.length
+            + Integer.BYTES + Long.BYTES + 1;
+        
+        buffer.putInt(bodyLength);
+        buffer.put(ORDER_FRAME);
+        buffer.putLong(frame.requestId());
+        buffer.putShort((short) customerId.length);
+        buffer.put(customerId);
+        buffer.putShort((short) productId.length);
+        buffer.put(productId);
+        buffer.putInt(frame.quantity());
+        buffer.putLong(frame.totalAmount().unscaledValue().longValueExact());
+        buffer.put((byte) frame.totalAmount().scale());
+    }
+    
+    // Writes a complete ack frame, length prefix included
+    public static void encodeAck(ByteBuffer buffer, long requestId, byte status, long dbId) {
+        buffer.putInt(ACK_BODY_SIZE);
+        buffer.put(ACK_FRAME);
+        buffer.putLong(requestId);
+        buffer.put(status);
+        buffer.putLong(dbId);
+    }
+    
+    // Reads one ack frame body; the buffer must be positioned just after the length prefix
+    public static AckFrame decodeAck(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type != ACK_FRAME) {
+            throw new IllegalArgumentException("Unexpected frame type: " + type);
+        }
+        return new AckFrame(buffer.getLong(), buffer.get(), buffer.getLong());
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        // Direct buffers have no backing array - copy the bytes out once
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
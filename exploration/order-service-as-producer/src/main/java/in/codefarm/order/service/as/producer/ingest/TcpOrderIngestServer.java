@@ -0,0 +1,339 @@
+package in.codefarm.order.service.as.producer.ingest;
+
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.service.OrderEventProducerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional raw TCP ingest for internal batch clients (order.tcp-ingest.enabled=true).
+ *
+ * One selector thread decodes length-prefixed order frames (see OrderFrameCodec) from pooled direct buffers
+ * and hands every read's worth of frames to a worker, which runs them through the same
+ * OrderEventProducerService pipeline as POST /api/orders/batch-pipelined. Each order gets an ack frame.
+ *
+ * Clients may pipeline frames; once a connection has `window` orders in flight the server stops reading
+ * from it until acks drain, so TCP backpressure reaches the client instead of the heap filling up.
+ */
+@Component
+@ConditionalOnProperty(name = "order.tcp-ingest.enabled", havingValue = "true")
+public class TcpOrderIngestServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TcpOrderIngestServer.class);
+
+    private final OrderEventProducerService orderEventProducerService;
+    private final int port;
+    private final int window;
+    private final int workerThreads;
+    private final long sendTimeoutSeconds;
+    private final DirectBufferPool bufferPool;
+
+    private final Queue<Connection> connectionsWithAcks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread selectorThread;
+
+    public TcpOrderIngestServer(
+        OrderEventProducerService orderEventProducerService,
+        @Value("${order.tcp-ingest.port:9099}") int port,
+        @Value("${order.tcp-ingest.window:1024}") int window,
+        @Value("${order.tcp-ingest.worker-threads:4}") int workerThreads,
+        @Value("${order.tcp-ingest.buffer-size:65536}") int bufferSize,
+        @Value("${order.tcp-ingest.send-timeout-seconds:10}") long sendTimeoutSeconds
+    ) {
+        this.orderEventProducerService = orderEventProducerService;
+        this.port = port;
+        this.window = window;
+        this.workerThreads = workerThreads;
+        this.sendTimeoutSeconds = sendTimeoutSeconds;
+        this.bufferPool = new DirectBufferPool(bufferSize, 256);
+    }
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start TCP ingest on port " + port, e);
+        }
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads,
+            runnable -> new Thread(runnable, "tcp-ingest-worker-" + workerIndex.incrementAndGet()));
+
+        running = true;
+        selectorThread = new Thread(this::runSelectorLoop, "tcp-ingest-selector");
+        selectorThread.start();
+        log.info("=== TCP Ingest: Listening on port {} (window: {}, workers: {}) ===", port, window, workerThreads);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            workers.shutdown();
+            workers.awaitTermination(sendTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("=== TCP Ingest: Stopped ===");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runSelectorLoop() {
+        try {
+            while (running) {
+                selector.select();
+
+                // Acks completed by workers since the last wakeup
+                Connection withAcks;
+                while ((withAcks = connectionsWithAcks.poll()) != null) {
+                    if (!withAcks.open) {
+                        continue;
+                    }
+                    // A client gone while its acks were pending only closes that connection
+                    try {
+                        flush(withAcks);
+                    } catch (IOException e) {
+                        log.warn("=== TCP Ingest: Closing connection {} - {} ===", withAcks.remoteAddress, e.getMessage());
+                        close(withAcks);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (connection.open && key.isValid() && key.isWritable()) {
+                            flush(connection);
+                        }
+                    } catch (IOException e) {
+                        log.warn("=== TCP Ingest: Closing connection {} - {} ===", connection.remoteAddress, e.getMessage());
+                        close(connection);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("=== TCP Ingest: Selector loop failed ===", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) {
+                    close(connection);
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                log.warn("=== TCP Ingest: Error closing server socket ===", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        Connection connection = new Connection(channel, bufferPool.acquire(), bufferPool.acquire());
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        log.info("=== TCP Ingest: Accepted connection from {} ===", connection.remoteAddress);
+    }
+
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        if (connection.channel.read(buffer) < 0) {
+            close(connection);
+            return;
+        }
+
+        buffer.flip();
+        List<OrderFrameCodec.OrderFrame> frames = new ArrayList<>();
+        while (buffer.remaining() >= OrderFrameCodec.LENGTH_PREFIX) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > buffer.capacity() - OrderFrameCodec.LENGTH_PREFIX) {
+                log.warn("=== TCP Ingest: Invalid frame length {} from {} ===", length, connection.remoteAddress);
+                close(connection);
+                return;
+            }
+            if (buffer.remaining() < OrderFrameCodec.LENGTH_PREFIX + length) {
+                break; // partial frame - wait for the rest
+            }
+
+            int frameEnd = buffer.position() + OrderFrameCodec.LENGTH_PREFIX + length;
+            buffer.position(buffer.position() + OrderFrameCodec.LENGTH_PREFIX);
+            try {
+                frames.add(OrderFrameCodec.decodeOrder(buffer));
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                log.warn("=== TCP Ingest: Malformed frame from {} ===", connection.remoteAddress);
+                close(connection);
+                return;
+            }
+            buffer.position(frameEnd);
+        }
+        buffer.compact();
+
+        if (!frames.isEmpty()) {
+            if (connection.inFlight.addAndGet(frames.size()) >= window) {
+                // Window full - stop reading until acks drain
+                connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            }
+            workers.execute(() -> process(connection, frames));
+        }
+    }
+
+    // Runs on a worker: persist + send through the pipelined batch path, then queue one ack per frame
+    private void process(Connection connection, List<OrderFrameCodec.OrderFrame> frames) {
+        List<OrderPlacedEvent> events = new ArrayList<>(frames.size());
+        for (OrderFrameCodec.OrderFrame frame : frames) {
+            events.add(new OrderPlacedEvent(
+                UUID.randomUUID().toString(),
+                frame.customerId(),
+                frame.productId(),
+                frame.quantity(),
+                frame.totalAmount(),
+                LocalDateTime.now(),
+                UUID.randomUUID().toString()
+            ));
+        }
+
+        try {
+            var response = orderEventProducerService.sendBatchPipelined(events, sendTimeoutSeconds);
+            for (int i = 0; i < frames.size(); i++) {
+                var result = response.results().get(i);
+                connection.pendingAcks.offer(new OrderFrameCodec.AckFrame(
+                    frames.get(i).requestId(),
+                    "SENT".equals(result.status()) ? OrderFrameCodec.STATUS_OK : OrderFrameCodec.STATUS_FAILED,
+                    result.dbId() != null ? result.dbId() : -1L
+                ));
+            }
+        } catch (Exception e) {
+            log.error("=== TCP Ingest: Failed to process {} frames from {} ===", frames.size(), connection.remoteAddress, e);
+            for (OrderFrameCodec.OrderFrame frame : frames) {
+                connection.pendingAcks.offer(new OrderFrameCodec.AckFrame(frame.requestId(), OrderFrameCodec.STATUS_FAILED, -1L));
+            }
+        }
+
+        connectionsWithAcks.offer(connection);
+        selector.wakeup();
+    }
+
+    // Selector thread only: encode queued acks into the write buffer and write as much as the socket takes
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.writeBuffer;
+        while (true) {
+            OrderFrameCodec.AckFrame ack;
+            while (buffer.remaining() >= OrderFrameCodec.ACK_FRAME_SIZE && (ack = connection.pendingAcks.poll()) != null) {
+                OrderFrameCodec.encodeAck(buffer, ack.requestId(), ack.status(), ack.dbId());
+                connection.inFlight.decrementAndGet();
+            }
+
+            buffer.flip();
+            connection.channel.write(buffer);
+            boolean drained = !buffer.hasRemaining();
+            buffer.compact();
+
+            if (!drained || connection.pendingAcks.isEmpty()) {
+                break;
+            }
+        }
+
+        int interestOps = 0;
+        if (connection.inFlight.get() < window) {
+            interestOps |= SelectionKey.OP_READ;
+        }
+        if (buffer.position() > 0) {
+            interestOps |= SelectionKey.OP_WRITE; // socket is full, finish when writable
+        }
+        connection.key.interestOps(interestOps);
+    }
+
+    private void close(Connection connection) {
+        if (!connection.open) {
+            return;
+        }
+        connection.open = false;
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing connection {}", connection.remoteAddress, e);
+        }
+        bufferPool.release(connection.readBuffer);
+        bufferPool.release(connection.writeBuffer);
+        log.info("=== TCP Ingest: Closed connection {} ===", connection.remoteAddress);
+    }
+
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer;
+        private final ByteBuffer writeBuffer;
+        private final String remoteAddress;
+        private final Queue<OrderFrameCodec.AckFrame> pendingAcks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private SelectionKey key;
+        private volatile boolean open = true;
+
+        private Connection(SocketChannel channel, ByteBuffer readBuffer, ByteBuffer writeBuffer) throws IOException {
+            this.channel = channel;
+            this.readBuffer = readBuffer;
+            this.writeBuffer = writeBuffer;
+            this.remoteAddress = String.valueOf(channel.getRemoteAddress());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints a per-phase latency breakdown of the order send path from a .jfr file.
+ *
+ * java -cp build/classes/java/main in.codefarm.order.service.as.producer.jfr.JfrLatencyAnalyzer order.jfr [top]
+ *
+ * Phases are joined by orderId, so the slowest requests show where their time went. For batch endpoints the
+ * request is keyed by its first order.
+ */
+public class JfrLatencyAnalyzer {
+    
+    private static final Map<String, String> PHASES = new LinkedHashMap<>();
+    
+    static {
+        PHASES.put("in.codefarm.order.Request", "Request");
+        PHASES.put("in.codefarm.order.DbSave", "DB save");
+        PHASES.put("in.codefarm.order.KafkaSend", "Kafka send");
+        PHASES.put("in.codefarm.order.BufferWait", "  buffer wait");
+        PHASES.put("in.codefarm.order.Ack", "Ack");
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JfrLatencyAnalyzer <recording.jfr> [top]");
+            System.exit(1);
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        
+        Map<String, List<Double>> durationsByPhase = new LinkedHashMap<>();
+        PHASES.keySet().forEach(name -> durationsByPhase.put(name, new ArrayList<>()));
+        // orderId -> phase -> total ms (an order can have several events of one phase, e.g. retried saves)
+        Map<String, Map<String, Double>> phasesByOrder = new HashMap<>();
+        
+        for (RecordedEvent event : RecordingFile.readAllEvents(Path.of(args[0]))) {
+            String name = event.getEventType().getName();
+            if (!PHASES.containsKey(name)) {
+                continue;
+            }
+            double millis = event.getDuration().toNanos() / 1_000_000.0;
+            durationsByPhase.get(name).add(millis);
+            
+            String orderId = event.getString("orderId");
+            if (orderId != null) {
+                phasesByOrder.computeIfAbsent(orderId, id -> new HashMap<>()).merge(name, millis, Double::sum);
+            }
+        }
+        
+        System.out.printf("%-16s %8s %10s %10s %10s %10s%n", "Phase", "Count", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)");
+        durationsByPhase.forEach((name, durations) -> {
+            durations.sort(Comparator.naturalOrder());
+            System.out.printf("%-16s %8d %10.2f %10.2f %10.2f %10.2f%n",
+                PHASES.get(name), durations.size(),
+                percentile(durations, 50), percentile(durations, 95), percentile(durations, 99), percentile(durations, 100));
+        });
+        
+        String requestPhase = "in.codefarm.order.Request";
+        List<Map.Entry<String, Map<String, Double>>> slowest = phasesByOrder.entrySet().stream()
+            .filter(entry -> entry.getValue().containsKey(requestPhase))
+            .sorted(Comparator.comparingDouble((Map.Entry<String, Map<String, Double>> entry) ->
+                entry.getValue().get(requestPhase)).reversed())
+            .limit(top)
+            .toList();
+        
+        System.out.printf("%nSlowest %d requests%n", slowest.size());
+        System.out.printf("%-38s", "Order Id");
+        PHASES.values().forEach(label -> System.out.printf(" %14s", label.trim()));
+        System.out.println();
+        for (var entry : slowest) {
+            System.out.printf("%-38s", entry.getKey());
+            PHASES.keySet().forEach(name -> System.out.printf(" %14.2f", entry.getValue().getOrDefault(name, 0.0)));
+            System.out.println();
+        }
+    }
+    
+    private static double percentile(List<Double> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
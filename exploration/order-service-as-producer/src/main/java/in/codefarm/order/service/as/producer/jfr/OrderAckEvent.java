@@ -0,0 +1,28 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("in.codefarm.order.Ack")
+@Label("Order Ack")
+@Description("From send returning until the broker ack callback (linger, in-flight request and broker time)")
+@Category({"Order Service", "Send Path"})
+@StackTrace(false)
+public class OrderAckEvent extends Event {
+    
+    @Label("Order Id")
+    public String orderId;
+    
+    @Label("Success")
+    public boolean success;
+    
+    @Label("Partition")
+    public int partition;
+    
+    @Label("Offset")
+    public long offset;
+}
@@ -0,0 +1,19 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("in.codefarm.order.BufferWait")
+@Label("Order Producer Buffer Wait")
+@Description("From the interceptor (start of KafkaProducer.send) until send returns: metadata wait, serialization and accumulator append, which blocks while buffer.memory is full")
+@Category({"Order Service", "Send Path"})
+@StackTrace(false)
+public class OrderBufferWaitEvent extends Event {
+    
+    @Label("Order Id")
+    public String orderId;
+}
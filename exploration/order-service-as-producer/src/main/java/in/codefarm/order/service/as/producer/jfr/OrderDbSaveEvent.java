@@ -0,0 +1,22 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("in.codefarm.order.DbSave")
+@Label("Order DB Save")
+@Description("Flush and commit of the orders saved in one transaction, keyed by its first order; outside a transaction, one orderRepository.save(...)")
+@Category({"Order Service", "Send Path"})
+@StackTrace(false)
+public class OrderDbSaveEvent extends Event {
+    
+    @Label("Order Id")
+    public String orderId;
+    
+    @Label("Order Count")
+    public int orderCount;
+}
@@ -0,0 +1,22 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("in.codefarm.order.KafkaSend")
+@Label("Order Kafka Send")
+@Description("Time the calling thread spends inside kafkaTemplate.send(...)")
+@Category({"Order Service", "Send Path"})
+@StackTrace(false)
+public class OrderKafkaSendEvent extends Event {
+    
+    @Label("Order Id")
+    public String orderId;
+    
+    @Label("Topic")
+    public String topic;
+}
@@ -0,0 +1,28 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("in.codefarm.order.Request")
+@Label("Order Request")
+@Description("Controller entry to response for /api/orders; orderId is the first order of the request")
+@Category({"Order Service", "Send Path"})
+@StackTrace(false)
+public class OrderRequestEvent extends Event {
+    
+    @Label("Order Id")
+    public String orderId;
+    
+    @Label("Endpoint")
+    public String endpoint;
+    
+    @Label("Order Count")
+    public int orderCount;
+    
+    @Label("Status")
+    public int status;
+}
@@ -0,0 +1,20 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Opens the OrderRequestEvent at controller entry and commits it once the response status is known
+public class OrderRequestJfrInterceptor implements HandlerInterceptor {
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        OrderSendPathEvents.beginRequest(request.getRequestURI());
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        OrderSendPathEvents.endRequest(response.getStatus());
+    }
+}
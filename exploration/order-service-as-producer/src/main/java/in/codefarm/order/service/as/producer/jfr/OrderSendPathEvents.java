@@ -0,0 +1,181 @@
+package in.codefarm.order.service.as.producer.jfr;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entry points for the send-path JFR events, all keyed by orderId so JfrLatencyAnalyzer can join the phases.
+ *
+ * When no recording is running, Event.isEnabled() is false and each helper is a field read and a branch -
+ * no timestamps, no allocation that escapes, no ThreadLocal writes.
+ */
+public final class OrderSendPathEvents {
+    
+    private static final ThreadLocal<OrderRequestEvent> CURRENT_REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<OrderBufferWaitEvent> CURRENT_BUFFER_WAIT = new ThreadLocal<>();
+    // Set only inside traceSend, so sends it does not wrap (envelopes, payments) leave no buffer-wait event behind
+    private static final ThreadLocal<Boolean> SEND_TRACED = new ThreadLocal<>();
+    
+    private OrderSendPathEvents() {
+    }
+    
+    // Controller entry - called by OrderRequestJfrInterceptor.preHandle
+    public static void beginRequest(String endpoint) {
+        var event = new OrderRequestEvent();
+        if (event.isEnabled()) {
+            event.endpoint = endpoint;
+            event.begin();
+            CURRENT_REQUEST.set(event);
+        }
+    }
+    
+    // Called for every order created by the request; the first one keys the request event
+    public static void tagRequest(String orderId) {
+        var event = CURRENT_REQUEST.get();
+        if (event != null) {
+            if (event.orderId == null) {
+                event.orderId = orderId;
+            }
+            event.orderCount++;
+        }
+    }
+    
+    public static void endRequest(int status) {
+        var event = CURRENT_REQUEST.get();
+        if (event != null) {
+            CURRENT_REQUEST.remove();
+            event.end();
+            if (event.shouldCommit()) {
+                event.status = status;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Wraps orderRepository.save(...) for one order. Inside a transaction the INSERT only runs when it flushes at
+     * commit, so the orders of one transaction share a single event, timed from beforeCommit to completion and keyed
+     * by its first order. Outside a transaction the save itself is timed.
+     */
+    public static <T> T traceDbSave(String orderId, Supplier<T> save) {
+        var event = new OrderDbSaveEvent();
+        if (!event.isEnabled()) {
+            return save.get();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            event.begin();
+            try {
+                return save.get();
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.orderId = orderId;
+                    event.orderCount = 1;
+                    event.commit();
+                }
+            }
+        }
+        
+        var transactionEvent = (OrderDbSaveEvent) TransactionSynchronizationManager.getResource(OrderDbSaveEvent.class);
+        if (transactionEvent == null) {
+            transactionEvent = event;
+            transactionEvent.orderId = orderId;
+            TransactionSynchronizationManager.bindResource(OrderDbSaveEvent.class, transactionEvent);
+            TransactionSynchronizationManager.registerSynchronization(new DbSaveSynchronization(transactionEvent));
+        }
+        transactionEvent.orderCount++;
+        return save.get();
+    }
+    
+    // Producer interceptor onSend - runs on the caller thread at the start of KafkaProducer.send
+    public static void producerEntered() {
+        if (SEND_TRACED.get() == null) {
+            return;
+        }
+        var event = new OrderBufferWaitEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            CURRENT_BUFFER_WAIT.set(event);
+        }
+    }
+    
+    /**
+     * Wraps one kafkaTemplate.send(...) call: records the time spent inside send, the part of it after the
+     * interceptor (buffer wait) and, once the future completes, the time until the broker ack.
+     */
+    public static <K, V> CompletableFuture<SendResult<K, V>> traceSend(
+        String orderId,
+        String topic,
+        Supplier<CompletableFuture<SendResult<K, V>>> send
+    ) {
+        var sendEvent = new OrderKafkaSendEvent();
+        if (!sendEvent.isEnabled()) {
+            return send.get();
+        }
+        
+        sendEvent.begin();
+        SEND_TRACED.set(Boolean.TRUE);
+        CompletableFuture<SendResult<K, V>> future;
+        try {
+            future = send.get();
+        } finally {
+            SEND_TRACED.remove();
+            sendEvent.end();
+            commitBufferWait(orderId);
+            if (sendEvent.shouldCommit()) {
+                sendEvent.orderId = orderId;
+                sendEvent.topic = topic;
+                sendEvent.commit();
+            }
+        }
+        
+        var ackEvent = new OrderAckEvent();
+        ackEvent.begin();
+        future.whenComplete((result, ex) -> {
+            ackEvent.end();
+            if (ackEvent.shouldCommit()) {
+                ackEvent.orderId = orderId;
+                ackEvent.success = ex == null;
+                if (result != null && result.getRecordMetadata() != null) {
+                    ackEvent.partition = result.getRecordMetadata().partition();
+                    ackEvent.offset = result.getRecordMetadata().offset();
+                }
+                ackEvent.commit();
+            }
+        });
+        return future;
+    }
+    
+    private record DbSaveSynchronization(OrderDbSaveEvent event) implements TransactionSynchronization {
+        
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            event.begin();
+        }
+        
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OrderDbSaveEvent.class);
+            event.end();
+            if (status == STATUS_COMMITTED && event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+    
+    private static void commitBufferWait(String orderId) {
+        var event = CURRENT_BUFFER_WAIT.get();
+        if (event != null) {
+            CURRENT_BUFFER_WAIT.remove();
+            event.end();
+            if (event.shouldCommit()) {
+                event.orderId = orderId;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package in.codefarm.order.service.as.producer.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * JacksonJsonDeserializer that returns null for envelope records instead of failing on their binary payload.
+ * Used by the log-first projection, which only materializes log-first orders - envelope orders are already in the DB.
+ */
+public class EnvelopeSkippingJsonDeserializer<T> implements Deserializer<T> {
+    
+    private final JacksonJsonDeserializer<T> delegate = new JacksonJsonDeserializer<>();
+    
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+    
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+    
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (headers.lastHeader(OrderEnvelopeCodec.ENVELOPE_HEADER) != null) {
+            return null;
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+    
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,88 @@
+package in.codefarm.order.service.as.producer.kafka;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary layout of an envelope record - many orders of one partition in a single Kafka record.
+ *
+ * int magic ("OENV") | byte version | int count | count x (int keyEnd, int valueEnd) | entry bytes
+ *
+ * Entry bytes are key1 value1 key2 value2 ... (UTF-8 key, JSON value); the index holds end offsets relative to
+ * the start of the entry bytes, so any entry can be sliced without scanning the others. Compression is left to
+ * the producer's compression.type, which works on the whole envelope at once.
+ */
+public final class OrderEnvelopeCodec {
+    
+    public static final String ENVELOPE_HEADER = "order-envelope";
+    public static final String ENVELOPE_COUNT_HEADER = "order-envelope-count";
+    public static final int MAGIC = 0x4F454E56;
+    public static final byte VERSION = 1;
+    
+    private static final int FIXED_HEADER = Integer.BYTES + 1 + Integer.BYTES;
+    
+    private OrderEnvelopeCodec() {
+    }
+    
+    public static byte[] encode(List<byte[]> keys, List<byte[]> values) {
+        int count = keys.size();
+        int dataBytes = 0;
+        for (int i = 0; i < count; i++) {
+            dataBytes += keys.get(i).length + values.get(i).length;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_HEADER + count * 2 * Integer.BYTES + dataBytes);
+        buffer.putInt(MAGIC).put(VERSION).putInt(count);
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            end += keys.get(i).length;
+            buffer.putInt(end);
+            end += values.get(i).length;
+            buffer.putInt(end);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.put(keys.get(i)).put(values.get(i));
+        }
+        return buffer.array();
+    }
+    
+    // Keys only - the reconciliation scan needs the order ids, not the payloads
+    public static List<String> keys(byte[] envelope) {
+        ByteBuffer buffer = ByteBuffer.wrap(envelope);
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IllegalArgumentException("Not an order envelope");
+        }
+        int count = buffer.getInt();
+        int dataStart = FIXED_HEADER + count * 2 * Integer.BYTES;
+        
+        List<String> keys = new ArrayList<>(count);
+        int entryStart = 0;
+        for (int i = 0; i < count; i++) {
+            int keyEnd = buffer.getInt();
+            keys.add(new String(envelope, dataStart + entryStart, keyEnd - entryStart, StandardCharsets.UTF_8));
+            entryStart = buffer.getInt();
+        }
+        return keys;
+    }
+    
+    // Values only - enough for consumers that re-derive the key from the payload
+    public static List<byte[]> values(byte[] envelope) {
+        ByteBuffer buffer = ByteBuffer.wrap(envelope);
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IllegalArgumentException("Not an order envelope");
+        }
+        int count = buffer.getInt();
+        int dataStart = FIXED_HEADER + count * 2 * Integer.BYTES;
+        
+        List<byte[]> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int keyEnd = buffer.getInt();
+            int valueEnd = buffer.getInt();
+            values.add(Arrays.copyOfRange(envelope, dataStart + keyEnd, dataStart + valueEnd));
+        }
+        return values;
+    }
+}
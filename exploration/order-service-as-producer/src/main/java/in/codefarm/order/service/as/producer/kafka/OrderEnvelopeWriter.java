@@ -0,0 +1,88 @@
+package in.codefarm.order.service.as.producer.kafka;
+
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Packs orders into envelope records (see OrderEnvelopeCodec).
+ *
+ * Orders are grouped by the partition their key would get from the default partitioner (murmur2), so per-order
+ * ordering on a partition is the same as with one record per order.
+ */
+@Component
+public class OrderEnvelopeWriter {
+    
+    private final KafkaTemplate<String, byte[]> envelopeKafkaTemplate;
+    private final JacksonJsonSerializer<OrderPlacedEvent> entrySerializer;
+    
+    public OrderEnvelopeWriter(@Qualifier("envelopeKafkaTemplate") KafkaTemplate<String, byte[]> envelopeKafkaTemplate) {
+        this.envelopeKafkaTemplate = envelopeKafkaTemplate;
+        this.entrySerializer = new JacksonJsonSerializer<>();
+        this.entrySerializer.configure(Map.of("spring.json.add.type.headers", false), false);
+    }
+    
+    // One envelope = the indexes (into events) of the orders it carries and the future of its record
+    public record SentEnvelope(
+        List<Integer> orderIndexes,
+        CompletableFuture<SendResult<String, byte[]>> future
+    ) {
+    }
+    
+    public List<SentEnvelope> send(String topic, List<OrderPlacedEvent> events, int maxOrdersPerEnvelope) {
+        int partitions = envelopeKafkaTemplate.partitionsFor(topic).size();
+        
+        Map<Integer, List<Integer>> indexesByPartition = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            byte[] keyBytes = events.get(i).orderId().getBytes(StandardCharsets.UTF_8);
+            int partition = Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+            indexesByPartition.computeIfAbsent(partition, p -> new ArrayList<>()).add(i);
+        }
+        
+        List<SentEnvelope> envelopes = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : indexesByPartition.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            for (int from = 0; from < indexes.size(); from += maxOrdersPerEnvelope) {
+                List<Integer> chunk = indexes.subList(from, Math.min(from + maxOrdersPerEnvelope, indexes.size()));
+                envelopes.add(new SentEnvelope(chunk, sendEnvelope(topic, entry.getKey(), events, chunk)));
+            }
+        }
+        return envelopes;
+    }
+    
+    private CompletableFuture<SendResult<String, byte[]>> sendEnvelope(
+        String topic, int partition, List<OrderPlacedEvent> events, List<Integer> indexes
+    ) {
+        List<byte[]> keys = new ArrayList<>(indexes.size());
+        List<byte[]> values = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            var event = events.get(index);
+            keys.add(event.orderId().getBytes(StandardCharsets.UTF_8));
+            values.add(entrySerializer.serialize(topic, event));
+        }
+        
+        // Keyed by the first order only for log readability - the partition is set explicitly
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+            topic, partition, events.get(indexes.get(0)).orderId(), OrderEnvelopeCodec.encode(keys, values));
+        record.headers().add(OrderEnvelopeCodec.ENVELOPE_HEADER, new byte[]{OrderEnvelopeCodec.VERSION});
+        record.headers().add(OrderEnvelopeCodec.ENVELOPE_COUNT_HEADER, OrderRecordHeaders.asciiLong(indexes.size()));
+        
+        try {
+            return envelopeKafkaTemplate.send(record);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package in.codefarm.order.service.as.producer.kafka;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Header helpers for the per-order hot path.
+ *
+ * Constant headers are encoded once and the same Header instance is added to every record (Kafka only reads
+ * header values). Numeric headers are written straight to ASCII digits instead of going through String.valueOf.
+ */
+public final class OrderRecordHeaders {
+    
+    public static final String CORRELATION_ID = "correlation-id";
+    public static final String SOURCE = "source";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String EVENT_VERSION = "event-version";
+    public static final String INTERCEPTED_AT = "intercepted-at";
+    
+    public static final Header SOURCE_ORDER_SERVICE =
+        new RecordHeader(SOURCE, "order-service".getBytes(StandardCharsets.US_ASCII));
+    public static final Header EVENT_VERSION_1_0 =
+        new RecordHeader(EVENT_VERSION, "1.0".getBytes(StandardCharsets.US_ASCII));
+    
+    private OrderRecordHeaders() {
+    }
+    
+    // correlation-id, source, timestamp and event-version - one byte[] per dynamic value, nothing else
+    public static void addOrderHeaders(Headers headers, String orderId, long timestampMillis) {
+        headers.add(CORRELATION_ID, orderId.getBytes(StandardCharsets.UTF_8));
+        headers.add(SOURCE_ORDER_SERVICE);
+        headers.add(TIMESTAMP, asciiLong(timestampMillis));
+        headers.add(EVENT_VERSION_1_0);
+    }
+    
+    // Same bytes as String.valueOf(value).getBytes(), without the intermediate String
+    public static byte[] asciiLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+        }
+        boolean negative = value < 0;
+        long remaining = negative ? -value : value;
+        
+        int digits = 1;
+        for (long bound = 10; digits < 19 && remaining >= bound; bound *= 10) {
+            digits++;
+        }
+        
+        byte[] bytes = new byte[digits + (negative ? 1 : 0)];
+        for (int i = bytes.length - 1; i >= (negative ? 1 : 0); i--) {
+            bytes[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        if (negative) {
+            bytes[0] = '-';
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,77 @@
+package in.codefarm.order.service.as.producer.reconciliation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size Bloom filter over strings - no false negatives, roughly `falsePositiveRate` false positives.
+ *
+ * k bit positions come from double hashing (h1 + i * h2) of a 64-bit murmur-style hash. The seed is
+ * per instance, so a key that collides in one reconciliation run almost surely does not in the next.
+ */
+public class BloomFilter {
+    
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long seed;
+    
+    public BloomFilter(long expectedInsertions, double falsePositiveRate, long seed) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64)];
+        this.bitCount = (long) bits.length * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.seed = seed;
+    }
+    
+    public void put(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+    
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+    
+    // 64-bit mix over the UTF-8 bytes (murmur3 finalizer per 8-byte block)
+    private long hash(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long h = seed ^ (bytes.length * 0x9E3779B97F4A7C15L);
+        long block = 0;
+        int filled = 0;
+        for (byte b : bytes) {
+            block = (block << 8) | (b & 0xFF);
+            if (++filled == 8) {
+                h = mix(h ^ mix(block));
+                block = 0;
+                filled = 0;
+            }
+        }
+        if (filled > 0) {
+            h = mix(h ^ mix(block));
+        }
+        return mix(h);
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,58 @@
+package in.codefarm.order.service.as.producer.reconciliation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic reconciliation (order.reconciliation.schedule.enabled=true).
+ * Each run covers the window after the previous one, ending settle-minutes ago so in-flight sends
+ * (delivery.timeout.ms) have either landed or failed.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "order.reconciliation.schedule.enabled", havingValue = "true")
+public class OrderReconciliationJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderReconciliationJob.class);
+    
+    private final OrderReconciliationService orderReconciliationService;
+    private final Duration settle;
+    private final Duration firstWindow;
+    private LocalDateTime lastTo;
+    
+    public OrderReconciliationJob(
+        OrderReconciliationService orderReconciliationService,
+        @Value("${order.reconciliation.schedule.settle-minutes:5}") long settleMinutes,
+        @Value("${order.reconciliation.schedule.first-window-hours:24}") long firstWindowHours
+    ) {
+        this.orderReconciliationService = orderReconciliationService;
+        this.settle = Duration.ofMinutes(settleMinutes);
+        this.firstWindow = Duration.ofHours(firstWindowHours);
+    }
+    
+    @Scheduled(
+        initialDelayString = "${order.reconciliation.schedule.interval-ms:900000}",
+        fixedDelayString = "${order.reconciliation.schedule.interval-ms:900000}"
+    )
+    public void reconcile() {
+        LocalDateTime to = LocalDateTime.now().minus(settle);
+        LocalDateTime from = lastTo != null ? lastTo : to.minus(firstWindow);
+        try {
+            var report = orderReconciliationService.reconcile(from, to);
+            // A truncated run did not look at the whole window - start from the same point next time
+            if (!report.truncated()) {
+                lastTo = to;
+            }
+        } catch (Exception e) {
+            log.error("=== Reconciliation Job: Run for [{}, {}) failed ===", from, to, e);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package in.codefarm.order.service.as.producer.reconciliation;
+
+import in.codefarm.order.service.as.producer.dto.OrderKey;
+import in.codefarm.order.service.as.producer.dto.ReconciliationReport;
+import in.codefarm.order.service.as.producer.entity.OrderEntity;
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.kafka.OrderEnvelopeCodec;
+import in.codefarm.order.service.as.producer.repository.OrderRepository;
+import in.codefarm.order.service.as.producer.service.OrderEventProducerService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds orders that were saved but never reached the orders topic (the dual-write gap in fireAndForget,
+ * sendWithTimestamp, sendWithSpringMessage, ...) and re-publishes them.
+ *
+ * 1. Scan the topic from (from - grace) to (to + grace) and put every order id into a Bloom filter
+ * 2. Stream (id, orderId) of orders created in [from, to) in keyset order; Bloom negatives are definitely not
+ *    in the scanned range and become candidates
+ * 3. Re-scan a wider window (confirm-lookback-hours back, up to now) checking only the candidate set exactly -
+ *    this catches records whose timestamp fell outside the first window or that landed during the run
+ * 4. Re-publish what is still missing
+ *
+ * Memory is the Bloom filter (~1.8 MB per million orders at 0.1%) plus at most max-candidates ids; the DB is
+ * read in pages of page-size. A missing order hidden by a Bloom false positive is caught on a later run, since
+ * every run uses a fresh seed.
+ */
+@Service
+public class OrderReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderReconciliationService.class);
+    private static final String TOPIC_NAME = "orders";
+    private static final int MAX_EMPTY_POLLS = 20;
+
+    private final ConsumerFactory<String, byte[]> reconciliationConsumerFactory;
+    private final OrderRepository orderRepository;
+    private final OrderEventProducerService orderEventProducerService;
+    private final int pageSize;
+    private final double falsePositiveRate;
+    private final int maxCandidates;
+    private final Duration grace;
+    private final Duration confirmLookback;
+    private final long republishTimeoutSeconds;
+
+    public OrderReconciliationService(
+        ConsumerFactory<String, byte[]> reconciliationConsumerFactory,
+        OrderRepository orderRepository,
+        OrderEventProducerService orderEventProducerService,
+        @Value("${order.reconciliation.page-size:5000}") int pageSize,
+        @Value("${order.reconciliation.false-positive-rate:0.001}") double falsePositiveRate,
+        @Value("${order.reconciliation.max-candidates:100000}") int maxCandidates,
+        @Value("${order.reconciliation.grace-minutes:15}") long graceMinutes,
+        @Value("${order.reconciliation.confirm-lookback-hours:24}") long confirmLookbackHours,
+        @Value("${order.reconciliation.republish-timeout-seconds:30}") long republishTimeoutSeconds
+    ) {
+        this.reconciliationConsumerFactory = reconciliationConsumerFactory;
+        this.orderRepository = orderRepository;
+        this.orderEventProducerService = orderEventProducerService;
+        this.pageSize = pageSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxCandidates = maxCandidates;
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.confirmLookback = Duration.ofHours(confirmLookbackHours);
+        this.republishTimeoutSeconds = republishTimeoutSeconds;
+    }
+
+    public ReconciliationReport reconcile(LocalDateTime from, LocalDateTime to) {
+        log.info("=== Reconciliation: Checking orders created in [{}, {}) ===", from, to);
+        long startNanos = System.nanoTime();
+
+        try (Consumer<String, byte[]> consumer = reconciliationConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(TOPIC_NAME).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+            consumer.assign(partitions);
+
+            // Pass 1: topic keys -> Bloom filter
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> scanStart = offsetsAt(consumer, partitions, from.minus(grace), endOffsets);
+            Map<TopicPartition, Long> scanEnd = offsetsAt(consumer, partitions, to.plus(grace), endOffsets);
+            long recordsInRange = 0;
+            for (TopicPartition partition : partitions) {
+                recordsInRange += scanEnd.get(partition) - scanStart.get(partition);
+            }
+
+            // Sized per record - envelopes carry many ids and push the false-positive rate up, which only delays detection
+            BloomFilter topicKeys = new BloomFilter(recordsInRange, falsePositiveRate, ThreadLocalRandom.current().nextLong());
+            long topicRecordsScanned = scan(consumer, scanStart, scanEnd, topicKeys::put);
+            log.info("=== Reconciliation: Scanned {} topic records into a {} KB Bloom filter ===",
+                topicRecordsScanned, topicKeys.sizeInBytes() / 1024);
+
+            // Pass 2: keyset stream of the orders table - Bloom negatives become candidates
+            Map<String, Long> candidates = new HashMap<>();
+            boolean truncated = false;
+            long dbOrdersScanned = 0;
+            long afterId = 0;
+            List<OrderKey> page;
+            do {
+                page = orderRepository.findKeysAfter(afterId, from, to, PageRequest.of(0, pageSize));
+                for (OrderKey key : page) {
+                    dbOrdersScanned++;
+                    if (!topicKeys.mightContain(key.orderId())) {
+                        if (candidates.size() < maxCandidates) {
+                            candidates.put(key.orderId(), key.id());
+                        } else {
+                            truncated = true;
+                        }
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == pageSize && !truncated);
+
+            long candidateCount = candidates.size();
+            log.info("=== Reconciliation: {} orders scanned, {} candidates{} ===",
+                dbOrdersScanned, candidateCount, truncated ? " (truncated at max-candidates)" : "");
+
+            // Pass 3: exact check of the candidates against a wider window, up to the current end of the log
+            if (!candidates.isEmpty()) {
+                Map<TopicPartition, Long> confirmStart = offsetsAt(
+                    consumer, partitions, from.minus(confirmLookback), consumer.endOffsets(partitions));
+                scan(consumer, confirmStart, consumer.endOffsets(partitions), candidates::remove);
+            }
+
+            // Pass 4: re-publish what is confirmed missing
+            long[] republishResult = republish(candidates.values());
+
+            var report = new ReconciliationReport(
+                from,
+                to,
+                topicRecordsScanned,
+                dbOrdersScanned,
+                topicKeys.sizeInBytes(),
+                candidateCount,
+                candidates.size(),
+                republishResult[0],
+                republishResult[1],
+                truncated,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)
+            );
+            log.info("=== Reconciliation: {} confirmed missing, {} republished, {} failed in {} ms ===",
+                report.confirmedMissing(), report.republished(), report.republishFailed(), report.elapsedMs());
+            return report;
+        }
+    }
+
+    // Reads [start, end) of every partition and hands each order id (envelopes expanded) to onOrderId
+    private long scan(
+        Consumer<String, byte[]> consumer,
+        Map<TopicPartition, Long> start,
+        Map<TopicPartition, Long> end,
+        java.util.function.Consumer<String> onOrderId
+    ) {
+        Set<TopicPartition> remaining = new HashSet<>();
+        start.forEach((partition, offset) -> {
+            if (offset < end.get(partition)) {
+                consumer.seek(partition, offset);
+                remaining.add(partition);
+            }
+        });
+        consumer.pause(start.keySet());
+        consumer.resume(remaining);
+
+        long scanned = 0;
+        int emptyPolls = 0;
+        while (!remaining.isEmpty() && emptyPolls < MAX_EMPTY_POLLS) {
+            var records = consumer.poll(Duration.ofMillis(500));
+            emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+
+            for (ConsumerRecord<String, byte[]> record : records) {
+                if (record.offset() >= end.get(new TopicPartition(record.topic(), record.partition()))) {
+                    continue;
+                }
+                scanned++;
+                if (record.headers().lastHeader(OrderEnvelopeCodec.ENVELOPE_HEADER) != null) {
+                    OrderEnvelopeCodec.keys(record.value()).forEach(onOrderId);
+                } else if (record.key() != null) {
+                    onOrderId.accept(record.key());
+                }
+            }
+
+            for (var iterator = remaining.iterator(); iterator.hasNext(); ) {
+                TopicPartition partition = iterator.next();
+                if (consumer.position(partition) >= end.get(partition)) {
+                    consumer.pause(List.of(partition));
+                    iterator.remove();
+                }
+            }
+        }
+        if (!remaining.isEmpty()) {
+            log.warn("=== Reconciliation: Gave up waiting on partitions {} ===", remaining);
+        }
+        return scanned;
+    }
+
+    // First offset at or after the given time, or the end offset when nothing is that new
+    private Map<TopicPartition, Long> offsetsAt(
+        Consumer<String, byte[]> consumer,
+        List<TopicPartition> partitions,
+        LocalDateTime time,
+        Map<TopicPartition, Long> endOffsets
+    ) {
+        long millis = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Map<TopicPartition, Long> query = new HashMap<>();
+        partitions.forEach(partition -> query.put(partition, millis));
+
+        Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(query);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = found.get(partition);
+            offsets.put(partition, offset != null ? offset.offset() : endOffsets.get(partition));
+        }
+        return offsets;
+    }
+
+    // Returns {republished, failed}
+    private long[] republish(Collection<Long> ids) {
+        long republished = 0;
+        long failed = 0;
+        List<Long> allIds = new ArrayList<>(ids);
+        for (int from = 0; from < allIds.size(); from += pageSize) {
+            List<OrderEntity> orders = orderRepository.findAllById(allIds.subList(from, Math.min(from + pageSize, allIds.size())));
+
+            List<CompletableFuture<SendResult<String, OrderPlacedEvent>>> futures = new ArrayList<>(orders.size());
+            for (OrderEntity order : orders) {
+                futures.add(orderEventProducerService.republish(order));
+            }
+
+            long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(republishTimeoutSeconds);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    republished++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new long[]{republished, failed + futures.size() - i};
+                } catch (Exception e) {
+                    failed++;
+                }
+            }
+        }
+        return new long[]{republished, failed};
+    }
+}
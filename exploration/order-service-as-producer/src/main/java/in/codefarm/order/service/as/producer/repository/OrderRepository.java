@@ -1,13 +1,31 @@
 package in.codefarm.order.service.as.producer.repository;
 
+import in.codefarm.order.service.as.producer.dto.OrderKey;
 import in.codefarm.order.service.as.producer.entity.OrderEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     Optional<OrderEntity> findByOrderId(String orderId);
+    List<OrderEntity> findByOrderIdIn(Collection<String> orderIds);
+    
+    // Keyset page of (id, orderId) created in [from, to) - pass PageRequest.of(0, size), no count query, no OFFSET
+    @Query("select new in.codefarm.order.service.as.producer.dto.OrderKey(o.id, o.orderId) from OrderEntity o " +
+           "where o.id > :afterId and o.createdAt >= :from and o.createdAt < :to order by o.id")
+    List<OrderKey> findKeysAfter(
+        @Param("afterId") long afterId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        Pageable page
+    );
 }
 
@@ -0,0 +1,9 @@
+package in.codefarm.order.service.as.producer.repository;
+
+import in.codefarm.order.service.as.producer.entity.ProjectionOffsetEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProjectionOffsetRepository extends JpaRepository<ProjectionOffsetEntity, String> {
+}
@@ -0,0 +1,294 @@
+package in.codefarm.order.service.as.producer.service;
+
+import in.codefarm.order.service.as.producer.dto.CsvImportReport;
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk import of order dumps: customerId,productId,quantity,totalAmount per line, optional header.
+ *
+ * The file is memory-mapped in line-aligned chunks (at most chunk-size-bytes each, so a 10 GB file never needs
+ * a 10 GB mapping) and the chunks are parsed in parallel on a dedicated ForkJoinPool. Each worker fills one
+ * batch, persists and sends it through OrderEventProducerService and only then parses on - heap in use is
+ * bounded by parallelism x batch-size events no matter how big the file is.
+ */
+@Service
+public class CsvOrderImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvOrderImportService.class);
+    private static final int MAX_LINE_BYTES = 4096;
+
+    private final OrderEventProducerService orderEventProducerService;
+    private final Path importDirectory;
+    private final long chunkSizeBytes;
+    private final int batchSize;
+    private final int parallelism;
+    private final long sendTimeoutSeconds;
+
+    public CsvOrderImportService(
+        OrderEventProducerService orderEventProducerService,
+        @Value("${order.import.directory:./imports}") String importDirectory,
+        @Value("${order.import.chunk-size-bytes:67108864}") long chunkSizeBytes,
+        @Value("${order.import.batch-size:1000}") int batchSize,
+        @Value("${order.import.parallelism:0}") int parallelism,
+        @Value("${order.import.send-timeout-seconds:30}") long sendTimeoutSeconds
+    ) {
+        this.orderEventProducerService = orderEventProducerService;
+        this.importDirectory = Path.of(importDirectory).toAbsolutePath().normalize();
+        this.chunkSizeBytes = chunkSizeBytes;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.sendTimeoutSeconds = sendTimeoutSeconds;
+    }
+
+    public CsvImportReport importFile(String fileName) throws IOException {
+        // Only files inside the import directory can be imported
+        Path file = importDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(importDirectory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such import file: " + fileName);
+        }
+
+        log.info("=== CSV Import: Importing {} ({} bytes, parallelism {}) ===", file, Files.size(file), parallelism);
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long startNanos = System.nanoTime();
+
+        LongAdder imported = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder sendsFailed = new LongAdder();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileBytes = channel.size();
+            List<long[]> chunks = splitIntoLineAlignedChunks(channel, fileBytes);
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    tasks.add(pool.submit(() -> importChunk(channel, chunk[0], chunk[1], imported, rejected, sendsFailed)));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            // Sum of per-pool peaks - a slight overestimate, since pools do not peak at the same moment
+            long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            var report = new CsvImportReport(
+                fileName,
+                fileBytes,
+                chunks.size(),
+                parallelism,
+                imported.sum(),
+                rejected.sum(),
+                sendsFailed.sum(),
+                elapsedMs,
+                imported.sum() * 1000 / Math.max(1, elapsedMs),
+                peakHeapBytes / (1024 * 1024)
+            );
+            log.info("=== CSV Import: {} rows imported, {} rejected, {} sends failed in {} ms ({} rows/sec, peak heap {} MB) ===",
+                report.rowsImported(), report.rowsRejected(), report.sendsFailed(), report.elapsedMs(),
+                report.rowsPerSecond(), report.peakHeapMb());
+            return report;
+        }
+    }
+
+    // Chunk boundaries are moved forward to the byte after the next newline, so no line spans two chunks
+    private List<long[]> splitIntoLineAlignedChunks(FileChannel channel, long fileBytes) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(MAX_LINE_BYTES);
+        long start = 0;
+        while (start < fileBytes) {
+            long end = Math.min(start + chunkSizeBytes, fileBytes);
+            if (end < fileBytes) {
+                probe.clear();
+                channel.read(probe, end);
+                probe.flip();
+                int newline = -1;
+                for (int i = 0; i < probe.limit(); i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                } else if (end + probe.limit() >= fileBytes) {
+                    end = fileBytes; // last line without a trailing newline
+                } else {
+                    throw new IOException("Line longer than " + MAX_LINE_BYTES + " bytes at offset " + end);
+                }
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private void importChunk(FileChannel channel, long start, long end,
+                             LongAdder imported, LongAdder rejected, LongAdder sendsFailed) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not map chunk at offset " + start, e);
+        }
+
+        byte[] line = new byte[MAX_LINE_BYTES];
+        List<OrderPlacedEvent> batch = new ArrayList<>(batchSize);
+        boolean firstLineOfFile = start == 0;
+
+        while (buffer.hasRemaining()) {
+            int length = 0;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (length < MAX_LINE_BYTES) {
+                    line[length] = b;
+                }
+                length++;
+            }
+            if (length > 0 && line[Math.min(length, MAX_LINE_BYTES) - 1] == '\r') {
+                length--;
+            }
+            if (length == 0) {
+                continue;
+            }
+
+            boolean header = firstLineOfFile && startsWith(line, length, "customerId");
+            firstLineOfFile = false;
+            if (header) {
+                continue;
+            }
+
+            var event = length <= MAX_LINE_BYTES ? parseLine(line, length) : null;
+            if (event == null) {
+                rejected.increment();
+                continue;
+            }
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                flush(batch, imported, sendsFailed);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, imported, sendsFailed);
+        }
+    }
+
+    // Only rows whose send was acknowledged count as imported - the failed ones are saved but not on the topic
+    private void flush(List<OrderPlacedEvent> batch, LongAdder imported, LongAdder sendsFailed) {
+        int failed = orderEventProducerService.persistAndSendImportBatch(batch, sendTimeoutSeconds);
+        sendsFailed.add(failed);
+        imported.add(batch.size() - failed);
+        batch.clear();
+    }
+
+    // customerId,productId,quantity,totalAmount - returns null for a malformed row
+    private OrderPlacedEvent parseLine(byte[] line, int length) {
+        int[] commas = new int[3];
+        int found = 0;
+        for (int i = 0; i < length && found <= 3; i++) {
+            if (line[i] == ',') {
+                if (found == 3) {
+                    return null;
+                }
+                commas[found++] = i;
+            }
+        }
+        if (found != 3) {
+            return null;
+        }
+
+        try {
+            String customerId = new String(line, 0, commas[0], StandardCharsets.UTF_8).trim();
+            String productId = new String(line, commas[0] + 1, commas[1] - commas[0] - 1, StandardCharsets.UTF_8).trim();
+            int quantity = parsePositiveInt(line, commas[1] + 1, commas[2]);
+            BigDecimal totalAmount = new BigDecimal(
+                new String(line, commas[2] + 1, length - commas[2] - 1, StandardCharsets.US_ASCII).trim());
+            if (customerId.isEmpty() || productId.isEmpty() || quantity <= 0) {
+                return null;
+            }
+            return new OrderPlacedEvent(
+                UUID.randomUUID().toString(),
+                customerId,
+                productId,
+                quantity,
+                totalAmount,
+                LocalDateTime.now(),
+                UUID.randomUUID().toString()
+            );
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int parsePositiveInt(byte[] bytes, int from, int to) {
+        int value = 0;
+        boolean digits = false;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == ' ') {
+                continue;
+            }
+            if (b < '0' || b > '9' || value > (Integer.MAX_VALUE - 9) / 10) {
+                throw new NumberFormatException("Invalid quantity");
+            }
+            value = value * 10 + (b - '0');
+            digits = true;
+        }
+        if (!digits) {
+            throw new NumberFormatException("Missing quantity");
+        }
+        return value;
+    }
+
+    private static boolean startsWith(byte[] line, int length, String prefix) {
+        if (length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,9 +1,14 @@
 package in.codefarm.order.service.as.producer.service;
 
+import in.codefarm.order.service.as.producer.dto.BatchSendResponse;
 import in.codefarm.order.service.as.producer.entity.OrderEntity;
 import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.jfr.OrderSendPathEvents;
+import in.codefarm.order.service.as.producer.kafka.OrderEnvelopeWriter;
+import in.codefarm.order.service.as.producer.kafka.OrderRecordHeaders;
 import in.codefarm.order.service.as.producer.repository.OrderRepository;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -15,30 +20,39 @@ import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 public class OrderEventProducerService {
     
     private static final Logger log = LoggerFactory.getLogger(OrderEventProducerService.class);
     private static final String TOPIC_NAME = "orders";
+    public static final String INGEST_MODE_HEADER = "ingest-mode";
+    public static final String LOG_FIRST_MODE = "log-first";
+    public static final String RECONCILED_HEADER = "reconciled";
 
 //    @Qualifier("kafkaTemplate1")
     private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
     private final OrderRepository orderRepository;
+    private final OrderEnvelopeWriter orderEnvelopeWriter;
     
     public OrderEventProducerService(
         KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate,
-        OrderRepository orderRepository
+        OrderRepository orderRepository,
+        OrderEnvelopeWriter orderEnvelopeWriter
     ) {
         this.kafkaTemplate = kafkaTemplate;
         this.orderRepository = orderRepository;
+        this.orderEnvelopeWriter = orderEnvelopeWriter;
     }
     
     // Scenario 1: Fire-and-Forget (Async, No Wait)
@@ -50,7 +64,7 @@ public class OrderEventProducerService {
         var orderEntity = saveOrderToDatabase(event);
         
         // Send and don't wait - fire and forget
-        kafkaTemplate.send(TOPIC_NAME, event.orderId(), event);
+        send(event.orderId(), () -> kafkaTemplate.send(TOPIC_NAME, event.orderId(), event));
         
         log.info("=== Fire-and-Forget: Message sent (no confirmation) for order {} ===", event.orderId());
         return orderEntity;
@@ -66,8 +80,8 @@ public class OrderEventProducerService {
         
         try {
             // Send and wait for result (blocks until complete)
-            SendResult<String, OrderPlacedEvent> result = kafkaTemplate
-                .send(TOPIC_NAME, event.orderId(), event)
+            SendResult<String, OrderPlacedEvent> result = send(event.orderId(), () -> kafkaTemplate
+                .send(TOPIC_NAME, event.orderId(), event))
                 .get(); // .get() blocks until completion
             
             var metadata = result.getRecordMetadata();
@@ -97,8 +111,8 @@ public class OrderEventProducerService {
         var orderEntity = saveOrderToDatabase(event);
         
         try {
-            SendResult<String, OrderPlacedEvent> result = kafkaTemplate
-                .send(TOPIC_NAME, event.orderId(), event)
+            SendResult<String, OrderPlacedEvent> result = send(event.orderId(), () -> kafkaTemplate
+                .send(TOPIC_NAME, event.orderId(), event))
                 .get(timeoutSeconds, TimeUnit.SECONDS); // Wait max timeoutSeconds
             
             log.info("=== Synchronous Send (Timeout): Message sent - Offset: {} ===",
@@ -125,7 +139,7 @@ public class OrderEventProducerService {
         var orderEntity = saveOrderToDatabase(event);
         
         CompletableFuture<SendResult<String, OrderPlacedEvent>> future = 
-            kafkaTemplate.send(TOPIC_NAME, event.orderId(), event);
+            send(event.orderId(), () -> kafkaTemplate.send(TOPIC_NAME, event.orderId(), event));
         
         // Handle success
         future.thenAccept(result -> {
@@ -157,7 +171,7 @@ public class OrderEventProducerService {
         
         // Send to specific partition
         CompletableFuture<SendResult<String, OrderPlacedEvent>> future = 
-            kafkaTemplate.send(TOPIC_NAME, partition, event.orderId(), event);
+            send(event.orderId(), () -> kafkaTemplate.send(TOPIC_NAME, partition, event.orderId(), event));
         
         future.thenAccept(result -> {
             var metadata = result.getRecordMetadata();
@@ -177,9 +191,13 @@ public class OrderEventProducerService {
     }
     
     // Scenario 5: Send with Custom Headers, this is the recommended way to use from my side
+    // Hot path: constant headers are pre-encoded, the timestamp is written as ASCII digits
+    // and per-order logging is debug-only, so the record costs little more than its payload
     @Transactional
     public OrderEntity sendWithHeaders(OrderPlacedEvent event) {
-        log.info("=== Send with Headers: Sending order event {} ===", event.orderId());
+        if (log.isDebugEnabled()) {
+            log.debug("=== Send with Headers: Sending order event {} ===", event.orderId());
+        }
         
         // Save to database
         var orderEntity = saveOrderToDatabase(event);
@@ -191,28 +209,19 @@ public class OrderEventProducerService {
             event
         );
         
-        // Add headers
-        record.headers().add("correlation-id", event.orderId().getBytes());
-        record.headers().add("source", "order-service".getBytes());
-        record.headers().add("timestamp", String.valueOf(System.currentTimeMillis()).getBytes());
-        record.headers().add("event-version", "1.0".getBytes());
-        
-        log.info("=== Send with Headers: Added headers - correlation-id: {}, source: order-service ===",
-            event.orderId());
-        
-        // Send
-        CompletableFuture<SendResult<String, OrderPlacedEvent>> future = 
-            kafkaTemplate.send(record);
-        
-        future.thenAccept(result -> {
-            log.info("=== Send with Headers: Message sent with headers - Offset: {} ===",
-                result.getRecordMetadata().offset());
-        });
-        
-        future.exceptionally(ex -> {
-            log.error("=== Send with Headers: Failed to send message for order {} ===", event.orderId(), ex);
-            return null;
-        });
+        // Add headers - correlation-id, source: order-service, timestamp, event-version: 1.0
+        OrderRecordHeaders.addOrderHeaders(record.headers(), event.orderId(), System.currentTimeMillis());
+        
+        // Send - one callback for both outcomes
+        send(event.orderId(), () -> kafkaTemplate.send(record))
+            .whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("=== Send with Headers: Failed to send message for order {} ===", event.orderId(), ex);
+                } else if (log.isDebugEnabled()) {
+                    log.debug("=== Send with Headers: Message sent with headers - Offset: {} ===",
+                        result.getRecordMetadata().offset());
+                }
+            });
         
         return orderEntity;
     }
@@ -236,7 +245,7 @@ public class OrderEventProducerService {
         
         log.info("=== Send with Spring Message: Built message with headers ===");
         
-        kafkaTemplate.send(message);
+        send(event.orderId(), () -> kafkaTemplate.send(message));
         
         log.info("=== Send with Spring Message: Message sent for order {} ===", event.orderId());
         return orderEntity;
@@ -262,7 +271,7 @@ public class OrderEventProducerService {
         
         log.info("=== Send with Timestamp: Using event timestamp: {} ===", event.orderDate());
         
-        kafkaTemplate.send(record);
+        send(event.orderId(), () -> kafkaTemplate.send(record));
         
         log.info("=== Send with Timestamp: Message sent with custom timestamp for order {} ===", event.orderId());
         return orderEntity;
@@ -287,7 +296,7 @@ public class OrderEventProducerService {
         // Send all messages
         for (OrderPlacedEvent event : events) {
             CompletableFuture<SendResult<String, OrderPlacedEvent>> future = 
-                kafkaTemplate.send(TOPIC_NAME, event.orderId(), event);
+                send(event.orderId(), () -> kafkaTemplate.send(TOPIC_NAME, event.orderId(), event));
             futures.add(future);
         }
         
@@ -324,8 +333,8 @@ public class OrderEventProducerService {
         // Send all messages synchronously
         for (OrderPlacedEvent event : events) {
             try {
-                SendResult<String, OrderPlacedEvent> result = kafkaTemplate
-                    .send(TOPIC_NAME, event.orderId(), event)
+                SendResult<String, OrderPlacedEvent> result = send(event.orderId(), () -> kafkaTemplate
+                    .send(TOPIC_NAME, event.orderId(), event))
                     .get();
                 results.add(result);
                 log.info("=== Batch Send Synchronous: Sent order {} - Partition: {}, Offset: {} ===",
@@ -342,6 +351,235 @@ public class OrderEventProducerService {
         log.info("=== Batch Send Synchronous: All {} messages sent successfully ===", events.size());
         return orderEntities;
     }
+
+    // Scenario 7c: Pipelined Batch Send (send everything first, then wait on all futures under one deadline)
+    // A batch costs roughly one broker round trip instead of N, and every order gets its own result
+    @Transactional
+    public BatchSendResponse sendBatchPipelined(List<OrderPlacedEvent> events, long timeoutSeconds) {
+        log.info("=== Batch Send Pipelined: Sending {} order events (timeout {}s) ===", events.size(), timeoutSeconds);
+        long startNanos = System.nanoTime();
+
+        List<OrderEntity> orderEntities = new ArrayList<>(events.size());
+        List<CompletableFuture<SendResult<String, OrderPlacedEvent>>> futures = new ArrayList<>(events.size());
+
+        // Save all to database
+        for (OrderPlacedEvent event : events) {
+            orderEntities.add(saveOrderToDatabase(event));
+        }
+
+        log.info("=== Batch Send Pipelined: Saved {} orders to database ===", orderEntities.size());
+
+        // Hand every record to the producer without waiting, so they share batches and in-flight requests
+        for (OrderPlacedEvent event : events) {
+            try {
+                futures.add(send(event.orderId(), () -> kafkaTemplate.send(TOPIC_NAME, event.orderId(), event)));
+            } catch (Exception e) {
+                // send() itself can fail (serialization, metadata or buffer timeout) - record it against this order only
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        // Wait for all acknowledgements under a single deadline shared by the whole batch
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        List<BatchSendResponse.OrderSendResult> results = new ArrayList<>(events.size());
+
+        for (int i = 0; i < events.size(); i++) {
+            var orderEntity = orderEntities.get(i);
+            try {
+                long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+                var metadata = futures.get(i).get(remainingNanos, TimeUnit.NANOSECONDS).getRecordMetadata();
+                results.add(BatchSendResponse.OrderSendResult.sent(
+                    orderEntity.getOrderId(), orderEntity.getId(), metadata.partition(), metadata.offset()));
+            } catch (TimeoutException e) {
+                results.add(BatchSendResponse.OrderSendResult.failed(
+                    orderEntity.getOrderId(), orderEntity.getId(), "Timed out after " + timeoutSeconds + "s waiting for acknowledgement"));
+            } catch (ExecutionException e) {
+                var cause = e.getCause() != null ? e.getCause() : e;
+                log.error("=== Batch Send Pipelined: Failed to send event {} in batch ===", orderEntity.getOrderId(), cause);
+                results.add(BatchSendResponse.OrderSendResult.failed(
+                    orderEntity.getOrderId(), orderEntity.getId(), cause.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(BatchSendResponse.OrderSendResult.failed(
+                    orderEntity.getOrderId(), orderEntity.getId(), "Interrupted while waiting for acknowledgement"));
+            }
+        }
+
+        var response = BatchSendResponse.of(results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info("=== Batch Send Pipelined: {} sent, {} failed in {} ms ===",
+            response.succeeded(), response.failed(), response.elapsedMs());
+        return response;
+    }
+
+    // Scenario 7d: Envelope Batch Send - up to maxOrdersPerEnvelope orders of one partition in a single record
+    // Per-record overhead (framing, headers, callbacks) is paid once per envelope; consumers unpack transparently
+    @Transactional
+    public BatchSendResponse sendBatchAsEnvelopes(List<OrderPlacedEvent> events, int maxOrdersPerEnvelope, long timeoutSeconds) {
+        log.info("=== Envelope Batch Send: Sending {} order events (max {} per envelope, timeout {}s) ===",
+            events.size(), maxOrdersPerEnvelope, timeoutSeconds);
+        long startNanos = System.nanoTime();
+        
+        List<OrderEntity> orderEntities = new ArrayList<>(events.size());
+        for (OrderPlacedEvent event : events) {
+            orderEntities.add(new OrderEntity(
+                event.orderId(),
+                event.customerId(),
+                event.productId(),
+                event.quantity(),
+                event.totalAmount(),
+                event.orderDate()
+            ));
+        }
+        orderRepository.saveAll(orderEntities);
+        
+        var envelopes = orderEnvelopeWriter.send(TOPIC_NAME, events, maxOrdersPerEnvelope);
+        
+        // Every order in an envelope shares its outcome, partition and offset
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        BatchSendResponse.OrderSendResult[] results = new BatchSendResponse.OrderSendResult[events.size()];
+        for (var envelope : envelopes) {
+            RecordMetadata metadata = null;
+            String error = null;
+            try {
+                long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+                metadata = envelope.future().get(remainingNanos, TimeUnit.NANOSECONDS).getRecordMetadata();
+            } catch (TimeoutException e) {
+                error = "Timed out after " + timeoutSeconds + "s waiting for acknowledgement";
+            } catch (ExecutionException e) {
+                var cause = e.getCause() != null ? e.getCause() : e;
+                log.error("=== Envelope Batch Send: Failed to send envelope of {} orders ===", envelope.orderIndexes().size(), cause);
+                error = cause.getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted while waiting for acknowledgement";
+            }
+            
+            for (int index : envelope.orderIndexes()) {
+                var orderEntity = orderEntities.get(index);
+                results[index] = metadata != null
+                    ? BatchSendResponse.OrderSendResult.sent(orderEntity.getOrderId(), orderEntity.getId(), metadata.partition(), metadata.offset())
+                    : BatchSendResponse.OrderSendResult.failed(orderEntity.getOrderId(), orderEntity.getId(), error);
+            }
+        }
+        
+        var response = BatchSendResponse.of(List.of(results), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info("=== Envelope Batch Send: {} sent, {} failed in {} envelopes, {} ms ===",
+            response.succeeded(), response.failed(), envelopes.size(), response.elapsedMs());
+        return response;
+    }
+    
+    // Scenario 8: Log-First Ingest (Kafka first, DB written behind by OrderProjectionConsumer)
+    // The request is acked once the event is durably in the topic (acks=all) - a single broker round trip
+    public RecordMetadata sendLogFirst(OrderPlacedEvent event, long timeoutSeconds) throws Exception {
+        log.info("=== Log-First: Sending order event {} ===", event.orderId());
+        
+        ProducerRecord<String, OrderPlacedEvent> record = new ProducerRecord<>(
+            TOPIC_NAME,
+            event.orderId(),
+            event
+        );
+        // Marks the event for the projection - other scenarios already saved their row
+        record.headers().add(INGEST_MODE_HEADER, LOG_FIRST_MODE.getBytes(StandardCharsets.UTF_8));
+        
+        try {
+            var metadata = send(event.orderId(), () -> kafkaTemplate.send(record))
+                .get(timeoutSeconds, TimeUnit.SECONDS)
+                .getRecordMetadata();
+            
+            log.info("=== Log-First: Order {} durable in Kafka - Partition: {}, Offset: {} ===",
+                event.orderId(), metadata.partition(), metadata.offset());
+            return metadata;
+            
+        } catch (TimeoutException e) {
+            log.error("=== Log-First: Timeout after {} seconds for order {} ===", timeoutSeconds, event.orderId());
+            throw new Exception("Timeout sending message", e);
+        } catch (ExecutionException e) {
+            log.error("=== Log-First: Failed to send message for order {} ===", event.orderId(), e);
+            throw new Exception("Failed to send message", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Exception("Interrupted", e);
+        }
+    }
+    
+    // Scenario 9: Bulk Import Batch (used by CsvOrderImportService)
+    // One saveAll (JDBC-batched inserts) and one pipelined send per batch; waits for every ack before returning
+    // so an import worker never holds more than one batch
+    @Transactional
+    public int persistAndSendImportBatch(List<OrderPlacedEvent> events, long timeoutSeconds) {
+        List<OrderEntity> orderEntities = new ArrayList<>(events.size());
+        for (OrderPlacedEvent event : events) {
+            orderEntities.add(new OrderEntity(
+                event.orderId(),
+                event.customerId(),
+                event.productId(),
+                event.quantity(),
+                event.totalAmount(),
+                event.orderDate()
+            ));
+        }
+        orderRepository.saveAll(orderEntities);
+        
+        List<CompletableFuture<SendResult<String, OrderPlacedEvent>>> futures = new ArrayList<>(events.size());
+        for (OrderPlacedEvent event : events) {
+            try {
+                futures.add(send(event.orderId(), () -> kafkaTemplate.send(TOPIC_NAME, event.orderId(), event)));
+            } catch (Exception e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                failed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed += futures.size() - i;
+                break;
+            }
+        }
+        
+        if (failed > 0) {
+            log.warn("=== Bulk Import: {} of {} sends failed in batch ===", failed, events.size());
+        }
+        return failed;
+    }
+    
+    // Scenario 10: Republish (used by OrderReconciliationService)
+    // Rebuilds the event from the saved row of an order that never reached the topic
+    public CompletableFuture<SendResult<String, OrderPlacedEvent>> republish(OrderEntity orderEntity) {
+        var event = new OrderPlacedEvent(
+            orderEntity.getOrderId(),
+            orderEntity.getCustomerId(),
+            orderEntity.getProductId(),
+            orderEntity.getQuantity(),
+            orderEntity.getTotalAmount(),
+            orderEntity.getOrderDate(),
+            UUID.randomUUID().toString()
+        );
+        
+        ProducerRecord<String, OrderPlacedEvent> record = new ProducerRecord<>(
+            TOPIC_NAME,
+            event.orderId(),
+            event
+        );
+        record.headers().add(RECONCILED_HEADER, "true".getBytes(StandardCharsets.UTF_8));
+        
+        log.info("=== Republish: Re-sending order {} (DB ID: {}) ===", event.orderId(), orderEntity.getId());
+        return send(event.orderId(), () -> kafkaTemplate.send(record));
+    }
+    
+    // Helper method to send through the template - records the JFR send, buffer-wait and ack events for the order
+    private CompletableFuture<SendResult<String, OrderPlacedEvent>> send(
+        String orderId,
+        Supplier<CompletableFuture<SendResult<String, OrderPlacedEvent>>> send
+    ) {
+        return OrderSendPathEvents.traceSend(orderId, TOPIC_NAME, send);
+    }
     
     // Helper method to save order to database
     private OrderEntity saveOrderToDatabase(OrderPlacedEvent event) {
@@ -356,8 +594,10 @@ public class OrderEventProducerService {
             event.orderDate()
         );
         
-        var saved = orderRepository.save(orderEntity);
-        log.info("Order {} saved to database with ID: {}", event.orderId(), saved.getId());
+        var saved = OrderSendPathEvents.traceDbSave(event.orderId(), () -> orderRepository.save(orderEntity));
+        if (log.isDebugEnabled()) {
+            log.debug("Order {} saved to database with ID: {}", event.orderId(), saved.getId());
+        }
         
         return saved;
     }
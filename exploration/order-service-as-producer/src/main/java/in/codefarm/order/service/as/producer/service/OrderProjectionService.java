@@ -0,0 +1,101 @@
+package in.codefarm.order.service.as.producer.service;
+
+import in.codefarm.order.service.as.producer.entity.OrderEntity;
+import in.codefarm.order.service.as.producer.entity.ProjectionOffsetEntity;
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import in.codefarm.order.service.as.producer.repository.OrderRepository;
+import in.codefarm.order.service.as.producer.repository.ProjectionOffsetRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes OrderEntity rows from log-first OrderPlacedEvents.
+ * Rows and the next offset per partition are written in one transaction per poll.
+ */
+@Service
+public class OrderProjectionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderProjectionService.class);
+    
+    private final OrderRepository orderRepository;
+    private final ProjectionOffsetRepository projectionOffsetRepository;
+    
+    public OrderProjectionService(
+        OrderRepository orderRepository,
+        ProjectionOffsetRepository projectionOffsetRepository
+    ) {
+        this.orderRepository = orderRepository;
+        this.projectionOffsetRepository = projectionOffsetRepository;
+    }
+    
+    @Transactional("transactionManager")
+    public int materialize(List<ConsumerRecord<String, OrderPlacedEvent>> records) {
+        // Only log-first events are projected - every other scenario wrote its row before sending
+        List<OrderPlacedEvent> events = records.stream()
+            .filter(record -> record.value() != null && isLogFirst(record))
+            .map(ConsumerRecord::value)
+            .toList();
+        
+        List<OrderEntity> orderEntities = new ArrayList<>(events.size());
+        if (!events.isEmpty()) {
+            // One query for the whole poll keeps replays idempotent without a lookup per order
+            Set<String> seenOrderIds = orderRepository.findByOrderIdIn(
+                    events.stream().map(OrderPlacedEvent::orderId).toList())
+                .stream()
+                .map(OrderEntity::getOrderId)
+                .collect(Collectors.toCollection(HashSet::new));
+            
+            for (OrderPlacedEvent event : events) {
+                if (seenOrderIds.add(event.orderId())) {
+                    orderEntities.add(new OrderEntity(
+                        event.orderId(),
+                        event.customerId(),
+                        event.productId(),
+                        event.quantity(),
+                        event.totalAmount(),
+                        event.orderDate()
+                    ));
+                }
+            }
+            orderRepository.saveAll(orderEntities);
+        }
+        
+        // Track the next offset for every partition in the poll, including skipped records
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        for (ConsumerRecord<String, OrderPlacedEvent> record : records) {
+            nextOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+        }
+        nextOffsets.forEach((topicPartition, nextOffset) -> projectionOffsetRepository.save(
+            new ProjectionOffsetEntity(topicPartition.topic(), topicPartition.partition(), nextOffset)));
+        
+        log.info("Projection batch: {} records polled, {} log-first, {} orders materialized",
+            records.size(), events.size(), orderEntities.size());
+        return orderEntities.size();
+    }
+    
+    public Optional<Long> findNextOffset(String topic, int partition) {
+        return projectionOffsetRepository.findById(ProjectionOffsetEntity.key(topic, partition))
+            .map(ProjectionOffsetEntity::getNextOffset);
+    }
+    
+    private boolean isLogFirst(ConsumerRecord<String, OrderPlacedEvent> record) {
+        Header header = record.headers().lastHeader(OrderEventProducerService.INGEST_MODE_HEADER);
+        return header != null
+            && OrderEventProducerService.LOG_FIRST_MODE.equals(new String(header.value(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package in.codefarm.order.service.as.producer.ingest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load client for the TCP ingest endpoint (not a test). Pipelines order frames up to `window` unacked
+ * orders and prints orders/sec, for comparison with script/order-batch-load-test.js against the REST batch endpoint.
+ *
+ * ./gradlew testClasses
+ * java -cp build/classes/java/main:build/classes/java/test \
+ *     in.codefarm.order.service.as.producer.ingest.TcpIngestLoadClient localhost 9099 100000 1024
+ */
+public class TcpIngestLoadClient {
+    
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 9099;
+        int totalOrders = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port))) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            
+            Semaphore permits = new Semaphore(window);
+            AtomicLong failed = new AtomicLong();
+            Thread ackReader = new Thread(() -> readAcks(channel, totalOrders, permits, failed), "ack-reader");
+            
+            long startNanos = System.nanoTime();
+            ackReader.start();
+            
+            ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+            Random random = new Random();
+            for (long requestId = 0; requestId < totalOrders; requestId++) {
+                if (!permits.tryAcquire()) {
+                    // Window is full - push what we have so the server can ack it, then wait
+                    writeFully(channel, out);
+                    permits.acquire();
+                }
+                if (out.remaining() < 256) {
+                    writeFully(channel, out);
+                }
+                int quantity = random.nextInt(5) + 1;
+                OrderFrameCodec.encodeOrder(out, new OrderFrameCodec.OrderFrame(
+                    requestId,
+                    "customer-" + random.nextInt(10_000),
+                    "product-" + (random.nextInt(20) + 1),
+                    quantity,
+                    BigDecimal.valueOf(quantity * 500L)
+                ));
+            }
+            writeFully(channel, out);
+            ackReader.join();
+            
+            double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            System.out.printf("TCP ingest: %d orders (%d failed) in %.2fs -> %.0f orders/sec (window %d)%n",
+                totalOrders, failed.get(), seconds, totalOrders / seconds, window);
+        }
+    }
+    
+    private static void writeFully(SocketChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+    
+    private static void readAcks(SocketChannel channel, int totalOrders, Semaphore permits, AtomicLong failed) {
+        ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+        long acked = 0;
+        try {
+            while (acked < totalOrders) {
+                if (channel.read(in) < 0) {
+                    throw new IOException("Server closed the connection after " + acked + " acks");
+                }
+                in.flip();
+                while (in.remaining() >= OrderFrameCodec.ACK_FRAME_SIZE) {
+                    in.getInt();
+                    var ack = OrderFrameCodec.decodeAck(in);
+                    if (ack.status() != OrderFrameCodec.STATUS_OK) {
+                        failed.incrementAndGet();
+                    }
+                    permits.release();
+                    acked++;
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package in.codefarm.order.service.as.producer.kafka;
+
+import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end orders/sec: one record per order vs envelopes, against a running broker (not a test).
+ * Produces to orders-bench-single / orders-bench-envelope and times until a consumer has decoded every order.
+ *
+ * ./gradlew envelopeBenchmark --args='localhost:9092 500000 100'
+ */
+public class EnvelopeThroughputBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        String bootstrapServers = args.length > 0 ? args[0] : "localhost:9092";
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int ordersPerEnvelope = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        
+        List<OrderPlacedEvent> events = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            int quantity = i % 5 + 1;
+            events.add(new OrderPlacedEvent(UUID.randomUUID().toString(), "customer-" + i % 10_000,
+                "product-" + (i % 20 + 1), quantity, BigDecimal.valueOf(quantity * 500L), LocalDateTime.now(),
+                UUID.randomUUID().toString()));
+        }
+        
+        double single = run(bootstrapServers, "orders-bench-single-" + System.currentTimeMillis(), events, 1);
+        double envelope = run(bootstrapServers, "orders-bench-envelope-" + System.currentTimeMillis(), events, ordersPerEnvelope);
+        
+        System.out.printf("%n| Mode | Orders | Orders/record | End-to-end orders/sec |%n|---|---|---|---|%n");
+        System.out.printf("| one record per order | %d | 1 | %.0f |%n", orders, single);
+        System.out.printf("| envelope | %d | %d | %.0f |%n", orders, ordersPerEnvelope, envelope);
+    }
+    
+    private static double run(String bootstrapServers, String topic, List<OrderPlacedEvent> events, int perRecord) throws Exception {
+        JacksonJsonSerializer<OrderPlacedEvent> serializer = new JacksonJsonSerializer<>();
+        serializer.configure(Map.of("spring.json.add.type.headers", false), false);
+        JacksonJsonDeserializer<OrderPlacedEvent> deserializer = new JacksonJsonDeserializer<>(OrderPlacedEvent.class);
+        
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerConfigs(bootstrapServers), new StringSerializer(), new ByteArraySerializer());
+             KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerConfigs(bootstrapServers), new StringDeserializer(), new ByteArrayDeserializer())) {
+            
+            consumer.subscribe(List.of(topic));
+            long startNanos = System.nanoTime();
+            
+            for (int from = 0; from < events.size(); from += perRecord) {
+                List<OrderPlacedEvent> chunk = events.subList(from, Math.min(from + perRecord, events.size()));
+                ProducerRecord<String, byte[]> record;
+                if (perRecord == 1) {
+                    record = new ProducerRecord<>(topic, chunk.get(0).orderId(), serializer.serialize(topic, chunk.get(0)));
+                } else {
+                    List<byte[]> keys = new ArrayList<>(chunk.size());
+                    List<byte[]> values = new ArrayList<>(chunk.size());
+                    for (OrderPlacedEvent event : chunk) {
+                        keys.add(event.orderId().getBytes(StandardCharsets.UTF_8));
+                        values.add(serializer.serialize(topic, event));
+                    }
+                    record = new ProducerRecord<>(topic, chunk.get(0).orderId(), OrderEnvelopeCodec.encode(keys, values));
+                    record.headers().add(OrderEnvelopeCodec.ENVELOPE_HEADER, new byte[]{OrderEnvelopeCodec.VERSION});
+                }
+                producer.send(record);
+            }
+            producer.flush();
+            
+            long decoded = 0;
+            while (decoded < events.size()) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (record.headers().lastHeader(OrderEnvelopeCodec.ENVELOPE_HEADER) != null) {
+                        for (byte[] value : OrderEnvelopeCodec.values(record.value())) {
+                            deserializer.deserialize(topic, value);
+                            decoded++;
+                        }
+                    } else {
+                        deserializer.deserialize(topic, record.value());
+                        decoded++;
+                    }
+                }
+            }
+            
+            double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            System.out.printf("%s: %d orders in %.2fs%n", topic, decoded, seconds);
+            return decoded / seconds;
+        }
+    }
+    
+    // Same settings as the application's producer factories
+    private static Map<String, Object> producerConfigs(String bootstrapServers) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configs.put(ProducerConfig.ACKS_CONFIG, "all");
+        configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configs.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        configs.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        return configs;
+    }
+    
+    private static Map<String, Object> consumerConfigs(String bootstrapServers) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configs.put(ConsumerConfig.GROUP_ID_CONFIG, "envelope-benchmark-" + UUID.randomUUID());
+        configs.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configs.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        return configs;
+    }
+}
@@ -0,0 +1,45 @@
+package in.codefarm.order.service.as.producer.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Writes a CSV order dump for CsvOrderImportService (not a test).
+ *
+ * ./gradlew testClasses
+ * java -cp build/classes/java/test in.codefarm.order.service.as.producer.service.CsvOrderFileGenerator imports/orders-10g.csv 10
+ */
+public class CsvOrderFileGenerator {
+    
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "imports/orders.csv");
+        double gigabytes = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        long targetBytes = (long) (gigabytes * 1024 * 1024 * 1024);
+        
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Random random = new Random(42);
+        long written = 0;
+        long rows = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            byte[] header = "customerId,productId,quantity,totalAmount\n".getBytes(StandardCharsets.US_ASCII);
+            out.write(header);
+            written += header.length;
+            while (written < targetBytes) {
+                int quantity = random.nextInt(5) + 1;
+                byte[] line = ("customer-" + random.nextInt(100_000) + ",product-" + (random.nextInt(20) + 1)
+                    + "," + quantity + "," + (quantity * 500) + ".00\n").getBytes(StandardCharsets.US_ASCII);
+                out.write(line);
+                written += line.length;
+                rows++;
+            }
+        }
+        System.out.printf("Wrote %d rows (%d bytes) to %s%n", rows, written, file);
+    }
+}